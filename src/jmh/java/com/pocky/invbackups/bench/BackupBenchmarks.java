@@ -0,0 +1,112 @@
+package com.pocky.invbackups.bench;
+
+import com.pocky.invbackups.data.EnderChestData;
+import com.pocky.invbackups.data.InventoryData;
+import com.pocky.invbackups.io.JsonFileHandler;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.world.item.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Cost of one backup, step by step: encode -> JSON write, and JSON read -> decode
+ *
+ * Files go to InventoryLog/jmh/ in the working directory and are removed afterwards.
+ * Compare "light" (typical periodic save) with "heavy" (full shulkers, books, Curios).
+ */
+@State(Scope.Benchmark)
+public class BackupBenchmarks {
+
+    private static final String DIR = "jmh/";
+
+    @Param({"light", "heavy"})
+    public String profile;
+
+    private HolderLookup.Provider registries;
+    private Map<Integer, ItemStack> inventory;
+    private Map<Integer, ItemStack> enderChest;
+    private InventoryData encoded;
+    private InventoryData encodedCopy;
+    private EnderChestData encodedEnderChest;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        registries = SyntheticInventories.registries();
+        inventory = profile.equals("heavy") ? SyntheticInventories.heavy() : SyntheticInventories.light();
+        enderChest = SyntheticInventories.enderChest();
+
+        encoded = InventoryData.encode(registries, inventory, null);
+        encodedCopy = InventoryData.encode(registries, inventory, null);
+        encodedEnderChest = EnderChestData.encode(registries, enderChest);
+
+        // jsonLoad reads what jsonSave would have written
+        new JsonFileHandler<>(encoded).save(DIR, profile);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Path dir = Path.of("InventoryLog", DIR);
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * ItemStack -> NBT string for every slot (server thread part of a save)
+     */
+    @Benchmark
+    public InventoryData encodeInventory() {
+        return InventoryData.encode(registries, inventory, null);
+    }
+
+    @Benchmark
+    public EnderChestData encodeEnderChest() {
+        return EnderChestData.encode(registries, enderChest);
+    }
+
+    /**
+     * NBT string -> ItemStack for every slot (getTag + parse, restore and preview)
+     */
+    @Benchmark
+    public Map<Integer, ItemStack> decodeInventory() {
+        return encoded.decode(registries);
+    }
+
+    /**
+     * Gson serialization and file write (backup thread part of a save)
+     */
+    @Benchmark
+    public void jsonSave() {
+        new JsonFileHandler<>(encoded).save(DIR, profile);
+    }
+
+    @Benchmark
+    public InventoryData jsonLoad() {
+        return JsonFileHandler.load(DIR, profile, InventoryData.class);
+    }
+
+    /**
+     * Deduplication check against the last backup when nothing changed - the worst case
+     */
+    @Benchmark
+    public boolean equalsIdentical() {
+        return encoded.equals(encodedCopy);
+    }
+}
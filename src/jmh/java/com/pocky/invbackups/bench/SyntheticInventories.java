@@ -0,0 +1,160 @@
+package com.pocky.invbackups.bench;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.core.component.DataComponents;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.data.registries.VanillaRegistries;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.server.network.Filterable;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.item.component.ItemContainerContents;
+import net.minecraft.world.item.component.ItemLore;
+import net.minecraft.world.item.component.WrittenBookContent;
+import net.minecraft.world.item.enchantment.Enchantment;
+import net.minecraft.world.item.enchantment.Enchantments;
+import net.minecraft.resources.ResourceKey;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Realistic inventories for benchmarks, built without a running server
+ *
+ * Slot numbering matches InventoryUtil.collectInventory: 0-35 main, 100-103 armor,
+ * -106 offhand, 1000+ Curios (vanilla items stand in for Curios items).
+ */
+public final class SyntheticInventories {
+
+    private static HolderLookup.Provider registries;
+
+    private SyntheticInventories() {
+    }
+
+    /**
+     * Bootstrap the game registries once per JVM
+     */
+    public static synchronized HolderLookup.Provider registries() {
+        if (registries == null) {
+            SharedConstants.tryDetectVersion();
+            Bootstrap.bootStrap();
+            registries = VanillaRegistries.createLookup();
+        }
+        return registries;
+    }
+
+    /**
+     * A few tools and blocks in the hotbar - the common case for periodic saves
+     */
+    public static Map<Integer, ItemStack> light() {
+        HolderLookup.Provider lookup = registries();
+        Map<Integer, ItemStack> items = new HashMap<>();
+        items.put(0, enchanted(lookup, Items.DIAMOND_SWORD, Enchantments.SHARPNESS, 5));
+        items.put(1, enchanted(lookup, Items.DIAMOND_PICKAXE, Enchantments.EFFICIENCY, 5));
+        items.put(2, new ItemStack(Items.COOKED_BEEF, 32));
+        items.put(3, new ItemStack(Items.TORCH, 64));
+        items.put(4, new ItemStack(Items.COBBLESTONE, 64));
+        items.put(8, new ItemStack(Items.WATER_BUCKET));
+        return items;
+    }
+
+    /**
+     * Late-game player: enchanted gear, full shulkers, written books, Curios
+     */
+    public static Map<Integer, ItemStack> heavy() {
+        HolderLookup.Provider lookup = registries();
+        Map<Integer, ItemStack> items = new HashMap<>();
+
+        items.put(0, enchanted(lookup, Items.NETHERITE_SWORD, Enchantments.SHARPNESS, 5));
+        items.put(1, enchanted(lookup, Items.NETHERITE_PICKAXE, Enchantments.EFFICIENCY, 5));
+        items.put(2, enchanted(lookup, Items.BOW, Enchantments.POWER, 5));
+        items.put(3, new ItemStack(Items.GOLDEN_CARROT, 64));
+        items.put(4, new ItemStack(Items.ENDER_PEARL, 16));
+        items.put(5, new ItemStack(Items.FIREWORK_ROCKET, 64));
+        items.put(6, new ItemStack(Items.TOTEM_OF_UNDYING));
+        items.put(7, new ItemStack(Items.OBSIDIAN, 64));
+        items.put(8, named(new ItemStack(Items.ELYTRA), "Wings of the Server"));
+
+        for (int slot = 9; slot < 27; slot++) {
+            items.put(slot, fullShulker(lookup, slot));
+        }
+        for (int slot = 27; slot < 32; slot++) {
+            items.put(slot, writtenBook(slot));
+        }
+        for (int slot = 32; slot < 36; slot++) {
+            items.put(slot, new ItemStack(Items.DIAMOND_BLOCK, 64));
+        }
+
+        items.put(100, enchanted(lookup, Items.NETHERITE_BOOTS, Enchantments.FEATHER_FALLING, 4));
+        items.put(101, enchanted(lookup, Items.NETHERITE_LEGGINGS, Enchantments.PROTECTION, 4));
+        items.put(102, enchanted(lookup, Items.NETHERITE_CHESTPLATE, Enchantments.PROTECTION, 4));
+        items.put(103, enchanted(lookup, Items.NETHERITE_HELMET, Enchantments.RESPIRATION, 3));
+        items.put(-106, new ItemStack(Items.SHIELD));
+
+        items.put(1000, named(new ItemStack(Items.HEART_OF_THE_SEA), "Ring of Haste"));
+        items.put(1001, named(new ItemStack(Items.NAUTILUS_SHELL), "Amulet of Warding"));
+        items.put(1002, named(new ItemStack(Items.RABBIT_FOOT), "Lucky Charm"));
+        return items;
+    }
+
+    /**
+     * Ender chest with shulkers in every slot
+     */
+    public static Map<Integer, ItemStack> enderChest() {
+        HolderLookup.Provider lookup = registries();
+        Map<Integer, ItemStack> items = new HashMap<>();
+        for (int slot = 0; slot < 27; slot++) {
+            items.put(slot, fullShulker(lookup, slot));
+        }
+        return items;
+    }
+
+    private static ItemStack enchanted(HolderLookup.Provider lookup, Item item,
+                                       ResourceKey<Enchantment> enchantment, int level) {
+        ItemStack stack = new ItemStack(item);
+        HolderLookup.RegistryLookup<Enchantment> enchantments = lookup.lookupOrThrow(Registries.ENCHANTMENT);
+        stack.enchant(enchantments.getOrThrow(enchantment), level);
+        stack.enchant(enchantments.getOrThrow(Enchantments.UNBREAKING), 3);
+        stack.enchant(enchantments.getOrThrow(Enchantments.MENDING), 1);
+        return stack;
+    }
+
+    private static ItemStack fullShulker(HolderLookup.Provider lookup, int seed) {
+        List<ItemStack> contents = new ArrayList<>();
+        for (int i = 0; i < 27; i++) {
+            contents.add(switch ((seed + i) % 4) {
+                case 0 -> new ItemStack(Items.DIAMOND, 64);
+                case 1 -> enchanted(lookup, Items.ENCHANTED_BOOK, Enchantments.SHARPNESS, 5);
+                case 2 -> named(new ItemStack(Items.IRON_INGOT, 64), "Bank #" + i);
+                default -> new ItemStack(Items.REDSTONE, 64);
+            });
+        }
+        ItemStack shulker = new ItemStack(Items.SHULKER_BOX);
+        shulker.set(DataComponents.CONTAINER, ItemContainerContents.fromItems(contents));
+        return shulker;
+    }
+
+    private static ItemStack writtenBook(int seed) {
+        List<Filterable<Component>> pages = new ArrayList<>();
+        for (int page = 0; page < 20; page++) {
+            pages.add(Filterable.passThrough(Component.literal(
+                "Page " + page + " of the server rules, volume " + seed + ". ".repeat(1)
+                    + "Lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat(4))));
+        }
+        ItemStack book = new ItemStack(Items.WRITTEN_BOOK);
+        book.set(DataComponents.WRITTEN_BOOK_CONTENT,
+            new WrittenBookContent(Filterable.passThrough("Rules " + seed), "Admin", 0, pages, true));
+        return book;
+    }
+
+    private static ItemStack named(ItemStack stack, String name) {
+        stack.set(DataComponents.CUSTOM_NAME, Component.literal(name));
+        stack.set(DataComponents.LORE, new ItemLore(List.of(Component.literal("Benchmark item"))));
+        return stack;
+    }
+}
@@ -1,6 +1,7 @@
 package com.pocky.invbackups;
 
 import com.mojang.logging.LogUtils;
+import com.pocky.invbackups.config.BackupSettings;
 import com.pocky.invbackups.config.InventoryConfig;
 import com.pocky.invbackups.events.CommandManager;
 import com.pocky.invbackups.events.PlayerConnectionEvent;
@@ -9,10 +10,15 @@ import com.pocky.invbackups.events.PlayerTickHandler;
 import com.pocky.invbackups.events.ServerTickHandler;
 import net.neoforged.neoforge.common.NeoForge;
 import net.neoforged.neoforge.event.server.ServerStartedEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import net.neoforged.neoforge.event.server.ServerStoppingEvent;
+import net.neoforged.neoforge.server.ServerLifecycleHooks;
+import net.neoforged.bus.api.IEventBus;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.fml.ModContainer;
 import net.neoforged.fml.common.Mod;
 import net.neoforged.fml.config.ModConfig;
+import net.neoforged.fml.event.config.ModConfigEvent;
 import org.slf4j.Logger;
 
 @Mod(InventoryBackupsMod.MODID)
@@ -22,11 +28,13 @@ public class InventoryBackupsMod {
 
     public static final Logger LOGGER = LogUtils.getLogger();
 
-    public InventoryBackupsMod(ModContainer container) {
+    public InventoryBackupsMod(IEventBus modEventBus, ModContainer container) {
         LOGGER.info("Initializing InventoryBackups mod...");
 
         container.registerConfig(ModConfig.Type.COMMON,
                 InventoryConfig.COMMON_CONFIG, "inventory/InventoryBackups.toml");
+        modEventBus.addListener(ModConfigEvent.Loading.class, this::onConfigLoaded);
+        modEventBus.addListener(ModConfigEvent.Reloading.class, this::onConfigLoaded);
 
         LOGGER.info("Registering event handlers...");
         NeoForge.EVENT_BUS.register(new CommandManager());
@@ -52,38 +60,105 @@ public class InventoryBackupsMod {
         // Initialize backup cleanup service (fail-fast if config is broken)
         com.pocky.invbackups.utils.BackupCleanupService.initialize();
 
-        // Inventory configuration
-        PlayerDeadEvent.deadSaveEnabled = InventoryConfig.general.deadSaveEnabled.get();
-        PlayerTickHandler.tickSaveEnabled = InventoryConfig.general.tickSaveEnabled.get();
-        PlayerTickHandler.PERIOD = InventoryConfig.general.preservationPeriod.get();
-        PlayerConnectionEvent.joinSaveEnabled = InventoryConfig.general.joinSaveEnabled.get();
-        PlayerConnectionEvent.quitSaveEnabled = InventoryConfig.general.quitSaveEnabled.get();
-        com.pocky.invbackups.events.ContainerCloseEvent.containerCloseSaveEnabled = InventoryConfig.general.containerCloseSaveEnabled.get();
-
-        // Ender chest configuration
-        PlayerTickHandler.enderChestTickSaveEnabled = InventoryConfig.general.enderChestTickSaveEnabled.get();
-        PlayerDeadEvent.enderChestDeadSaveEnabled = InventoryConfig.general.enderChestDeadSaveEnabled.get();
-        PlayerConnectionEvent.enderChestJoinSaveEnabled = InventoryConfig.general.enderChestJoinSaveEnabled.get();
-        PlayerConnectionEvent.enderChestQuitSaveEnabled = InventoryConfig.general.enderChestQuitSaveEnabled.get();
-        com.pocky.invbackups.events.EnderChestOpenEvent.enderChestOpenSaveEnabled = InventoryConfig.general.enderChestOpenSaveEnabled.get();
+        // Make players with existing backups resolvable by name even after usercache forgets them
+        com.pocky.invbackups.utils.PlayerNameHistory.seedFromBackups(event.getServer());
+
+        // Index backups written before the item search index existed (background, once)
+        com.pocky.invbackups.index.BackupIndexer.rebuildSearchIndexIfNeeded();
+
+        // Compression dictionary trained on an earlier run, if any
+        com.pocky.invbackups.io.BackupCodec.loadDictionary();
+
+        BackupSettings settings = BackupSettings.get();
+        if (settings.metricsHttpEnabled()) {
+            com.pocky.invbackups.metrics.PrometheusExporter.start(settings.metricsHttpHost(), settings.metricsHttpPort());
+        }
 
         LOGGER.info("Configuration loaded:");
-        LOGGER.info("  - Tick save enabled: {}", PlayerTickHandler.tickSaveEnabled);
-        LOGGER.info("  - Save period: {} seconds", PlayerTickHandler.PERIOD);
-        LOGGER.info("  - Death save enabled: {}", PlayerDeadEvent.deadSaveEnabled);
-        LOGGER.info("  - Join save enabled: {}", PlayerConnectionEvent.joinSaveEnabled);
-        LOGGER.info("  - Quit save enabled: {}", PlayerConnectionEvent.quitSaveEnabled);
-        LOGGER.info("  - Container close save enabled: {}", com.pocky.invbackups.events.ContainerCloseEvent.containerCloseSaveEnabled);
-
-        if (InventoryConfig.general.enderChestEnabled.get()) {
+        logSettings(settings);
+    }
+
+    /**
+     * The config file was loaded or changed on disk - swap in a new BackupSettings snapshot
+     * (may run on the config watcher thread)
+     */
+    private void onConfigLoaded(ModConfigEvent event) {
+        if (event.getConfig().getSpec() != InventoryConfig.COMMON_CONFIG) {
+            return;
+        }
+        BackupSettings previous = BackupSettings.reload();
+        BackupSettings settings = BackupSettings.get();
+        com.pocky.invbackups.io.AsyncBackupExecutor.applySettings(settings);
+        if (!(event instanceof ModConfigEvent.Reloading) || settings.equals(previous)) {
+            return;
+        }
+
+        boolean httpChanged = settings.metricsHttpEnabled() != previous.metricsHttpEnabled()
+            || !settings.metricsHttpHost().equals(previous.metricsHttpHost())
+            || settings.metricsHttpPort() != previous.metricsHttpPort();
+        if (httpChanged && ServerLifecycleHooks.getCurrentServer() != null) {
+            com.pocky.invbackups.metrics.PrometheusExporter.stop();
+            if (settings.metricsHttpEnabled()) {
+                com.pocky.invbackups.metrics.PrometheusExporter.start(settings.metricsHttpHost(), settings.metricsHttpPort());
+            }
+        }
+
+        LOGGER.info("Configuration reloaded:");
+        logSettings(settings);
+    }
+
+    private static void logSettings(BackupSettings settings) {
+        LOGGER.info("  - Tick save enabled: {}", settings.tickSaveEnabled());
+        if (settings.adaptivePeriodEnabled()) {
+            LOGGER.info("  - Save period: adaptive, {}-{} seconds", settings.adaptiveMinPeriod(), settings.adaptiveMaxPeriod());
+        } else {
+            LOGGER.info("  - Save period: {} seconds", settings.preservationPeriod());
+        }
+        LOGGER.info("  - Death save enabled: {}", settings.deadSaveEnabled());
+        LOGGER.info("  - Join save enabled: {}", settings.joinSaveEnabled());
+        LOGGER.info("  - Quit save enabled: {}", settings.quitSaveEnabled());
+        LOGGER.info("  - Container close save enabled: {}", settings.containerCloseSaveEnabled());
+        LOGGER.info("  - Retention: {} days", settings.retentionDays());
+        LOGGER.info("  - Compression: {} (dictionary: {}), archive after: {}", settings.compressionEnabled(),
+            settings.compressionDictionary(),
+            settings.archiveAfterDays() > 0 ? settings.archiveAfterDays() + " days" : "never");
+        if (settings.virtualThreads()) {
+            LOGGER.info("  - Backup threads: virtual, max pending saves: {}", settings.maxPendingSaves());
+        } else {
+            LOGGER.info("  - Backup threads: {} write, {} read, {} maintenance (priority {}), max pending saves: {}",
+                settings.backupThreads(), settings.readThreads(), settings.maintenanceThreads(),
+                settings.backupThreadPriority(), settings.maxPendingSaves());
+        }
+
+        if (settings.enderChestEnabled()) {
             LOGGER.info("Ender Chest Backup Configuration:");
-            LOGGER.info("  - Ender chest tick save enabled: {}", PlayerTickHandler.enderChestTickSaveEnabled);
-            LOGGER.info("  - Ender chest death save enabled: {}", PlayerDeadEvent.enderChestDeadSaveEnabled);
-            LOGGER.info("  - Ender chest join save enabled: {}", PlayerConnectionEvent.enderChestJoinSaveEnabled);
-            LOGGER.info("  - Ender chest quit save enabled: {}", PlayerConnectionEvent.enderChestQuitSaveEnabled);
-            LOGGER.info("  - Ender chest open save enabled: {}", com.pocky.invbackups.events.EnderChestOpenEvent.enderChestOpenSaveEnabled);
+            LOGGER.info("  - Ender chest tick save enabled: {}", settings.enderChestTickSaveEnabled());
+            LOGGER.info("  - Ender chest death save enabled: {}", settings.enderChestDeadSaveEnabled());
+            LOGGER.info("  - Ender chest join save enabled: {}", settings.enderChestJoinSaveEnabled());
+            LOGGER.info("  - Ender chest quit save enabled: {}", settings.enderChestQuitSaveEnabled());
+            LOGGER.info("  - Ender chest open save enabled: {}", settings.enderChestOpenSaveEnabled());
         } else {
             LOGGER.info("  - Ender chest backups: DISABLED");
         }
+
+        if (settings.anomalyDetectionEnabled()) {
+            LOGGER.info("  - Anomaly detection: growth x{} above {} items",
+                settings.anomalyGrowthFactor(), settings.anomalyMinCount());
+        } else {
+            LOGGER.info("  - Anomaly detection: DISABLED");
+        }
+    }
+
+    @SubscribeEvent
+    public void onServerStopping(ServerStoppingEvent event) {
+        com.pocky.invbackups.utils.PlayerNameHistory.flush();
+        com.pocky.invbackups.live.EditAuditLog.flushNow();
+        com.pocky.invbackups.metrics.PrometheusExporter.stop();
+    }
+
+    @SubscribeEvent
+    public void onServerStopped(ServerStoppedEvent event) {
+        // After the quit saves of the players kicked on stop
+        com.pocky.invbackups.io.AsyncBackupExecutor.shutdown();
     }
 }
@@ -11,13 +11,24 @@ import com.mojang.brigadier.context.CommandContext;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
 import net.minecraft.network.chat.Component;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerPlayer;
 import com.pocky.invbackups.data.InventoryData;
 import com.pocky.invbackups.data.EnderChestData;
+import com.pocky.invbackups.InventoryBackupsMod;
+import com.pocky.invbackups.history.ItemTimeline;
+import com.pocky.invbackups.history.SnapshotDiff;
+import com.pocky.invbackups.index.ItemSearchIndex;
+import com.pocky.invbackups.io.AsyncBackupExecutor;
+import com.pocky.invbackups.restore.BackupRestorer;
+import com.pocky.invbackups.restore.BulkRestoreJob;
+import com.pocky.invbackups.restore.OfflinePlayerData;
 import com.pocky.invbackups.io.JsonFileHandler;
+import com.pocky.invbackups.live.LiveInventorySession;
+import com.pocky.invbackups.loadtest.LoadTestJob;
 import com.pocky.invbackups.ui.ChatUI;
 import com.pocky.invbackups.utils.PlayerResolver;
-import com.pocky.invbackups.utils.EnderChestUtil;
+import com.pocky.invbackups.config.BackupSettings;
 import com.pocky.invbackups.config.InventoryConfig;
 import net.minecraft.world.Container;
 import net.minecraft.world.MenuProvider;
@@ -36,13 +47,14 @@ import java.io.File;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.Files;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.CompletableFuture;
 import java.util.Optional;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Locale;
 import java.util.Map;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
@@ -139,6 +151,68 @@ public class InventoryCommand {
                                 .suggests(SUGGEST_PLAYERS)
                                 .executes(context -> command.openBackupBrowser(context.getSource(),
                                         StringArgumentType.getString(context, "target")))))
+
+                // /inventory search <item id|name:word|component:key> - Who held an item, across all players
+                .then(Commands.literal("search")
+                        .then(Commands.argument("query", StringArgumentType.greedyString())
+                                .executes(context -> command.search(context.getSource(),
+                                        StringArgumentType.getString(context, "query")))))
+
+                // /inventory trace <player> <item> - When did the count of an item change
+                .then(Commands.literal("trace")
+                        .then(Commands.argument("target", StringArgumentType.string())
+                                .suggests(SUGGEST_PLAYERS)
+                                .then(Commands.argument("item", StringArgumentType.greedyString())
+                                        .executes(context -> command.trace(context.getSource(),
+                                                StringArgumentType.getString(context, "target"),
+                                                StringArgumentType.getString(context, "item"))))))
+
+                // /inventory rollback-all <timestamp> [online|offline|name1,name2] - Server-wide rollback
+                .then(Commands.literal("rollback-all")
+                        .then(Commands.literal("confirm")
+                                .executes(context -> command.confirmRollbackAll(context.getSource())))
+                        .then(Commands.argument("timestamp", StringArgumentType.string())
+                                .executes(context -> command.rollbackAll(context.getSource(),
+                                        StringArgumentType.getString(context, "timestamp"), ""))
+                                .then(Commands.argument("filter", StringArgumentType.greedyString())
+                                        .executes(context -> command.rollbackAll(context.getSource(),
+                                                StringArgumentType.getString(context, "timestamp"),
+                                                StringArgumentType.getString(context, "filter"))))))
+
+                // /inventory stats - Backup subsystem metrics
+                .then(Commands.literal("stats")
+                        .executes(context -> {
+                            ChatUI.showStats(context.getSource().getPlayerOrException());
+                            return 1;
+                        }))
+
+                // /inventory profile - Server thread time spent in backup code
+                .then(Commands.literal("profile")
+                        .executes(context -> {
+                            ChatUI.showProfile(context.getSource().getPlayerOrException());
+                            return 1;
+                        }))
+
+                // /inventory loadtest <players> <seconds> | stop - Simulate fake players (config-gated)
+                .then(Commands.literal("loadtest")
+                        .then(Commands.literal("stop")
+                                .executes(context -> command.stopLoadTest(context.getSource())))
+                        .then(Commands.argument("players", IntegerArgumentType.integer(1, LoadTestJob.MAX_PLAYERS))
+                                .then(Commands.argument("seconds", IntegerArgumentType.integer(10, 3600))
+                                        .executes(context -> command.startLoadTest(context.getSource(),
+                                                IntegerArgumentType.getInteger(context, "players"),
+                                                IntegerArgumentType.getInteger(context, "seconds"))))))
+
+                // /inventory diff <player> <backupA> <backupB> - What changed between two backups
+                .then(Commands.literal("diff")
+                        .then(Commands.argument("target", StringArgumentType.string())
+                                .suggests(SUGGEST_PLAYERS)
+                                .then(Commands.argument("from", StringArgumentType.string())
+                                        .then(Commands.argument("to", StringArgumentType.string())
+                                                .executes(context -> command.diff(context.getSource(),
+                                                        StringArgumentType.getString(context, "target"),
+                                                        StringArgumentType.getString(context, "from"),
+                                                        StringArgumentType.getString(context, "to")))))))
         );
 
         // Ender Chest commands
@@ -232,19 +306,17 @@ public class InventoryCommand {
             return 0;
         }
 
-        // Only restore if player is online
+        // Offline players get their saved player data rewritten (or the restore queued for login)
         if (!resolved.isOnline()) {
-            ChatUI.showError(executor, com.pocky.invbackups.utils.TranslationHelper.translate(executor, "invbackups.error.player_offline_cannot_restore", resolved.getName()));
-            return 0;
+            OfflinePlayerData.restoreInventory(source.getServer(), executor, resolved.getUuid(), resolved.getName(), date, invData);
+            return 1;
         }
 
         ServerPlayer target = resolved.getOnlinePlayer();
-        target.getInventory().replaceWith(invData.getInventory(target));
-        
-        // Restore experience if available
+        BackupRestorer.restoreInventory(target, invData);
+
         com.pocky.invbackups.data.ExperienceData expData = invData.getExperienceData();
         if (expData != null && expData.hasExperience()) {
-            expData.applyToPlayer(target);
             ChatUI.showSuccess(executor, com.pocky.invbackups.utils.TranslationHelper.translate(executor, "invbackups.success.experience_restored", expData.getDisplayString()));
         }
         
@@ -354,6 +426,251 @@ public class InventoryCommand {
         return 1;
     }
 
+    /**
+     * Search all players' backups through the item search index
+     * The lookup runs on the backup threads, results are shown back on the server thread
+     */
+    public int search(CommandSourceStack source, String query) throws CommandSyntaxException {
+        ServerPlayer executor = source.getPlayerOrException();
+        MinecraftServer server = source.getServer();
+        String term = ItemSearchIndex.toTerm(query);
+
+        if (!ItemSearchIndex.isComplete()) {
+            ChatUI.showInfo(executor, com.pocky.invbackups.utils.TranslationHelper.translate(executor, "invbackups.info.search_index_building"));
+        }
+
+        AsyncBackupExecutor.readAsync(() -> ItemSearchIndex.search(term), "search " + term)
+                .thenAcceptAsync(postings -> {
+                    Map<UUID, String> names = new HashMap<>();
+                    for (ItemSearchIndex.Posting posting : postings) {
+                        names.computeIfAbsent(posting.getPlayer(), uuid -> PlayerResolver.resolvePlayer(server, uuid)
+                                .map(PlayerResolver.ResolvedPlayer::getName)
+                                .orElse(uuid.toString()));
+                    }
+                    ChatUI.showSearchResults(executor, term, postings, names);
+                }, server)
+                .exceptionally(e -> {
+                    InventoryBackupsMod.LOGGER.error("Item search failed: " + term, e);
+                    server.execute(() -> ChatUI.showError(executor,
+                            com.pocky.invbackups.utils.TranslationHelper.translate(executor, "invbackups.error.search_failed")));
+                    return null;
+                });
+
+        return 1;
+    }
+
+    /**
+     * Show added / removed / moved stacks between two inventory backups of a player
+     * Both backups are loaded and compared on the backup threads
+     */
+    public int diff(CommandSourceStack source, String targetName, String from, String to) throws CommandSyntaxException {
+        ServerPlayer executor = source.getPlayerOrException();
+        MinecraftServer server = source.getServer();
+
+        // Resolve player (online or offline)
+        Optional<PlayerResolver.ResolvedPlayer> resolvedOpt = PlayerResolver.resolvePlayer(server, targetName);
+
+        if (resolvedOpt.isEmpty()) {
+            ChatUI.showError(executor, com.pocky.invbackups.utils.TranslationHelper.translate(executor, "invbackups.error.player_not_found", targetName));
+            return 0;
+        }
+
+        PlayerResolver.ResolvedPlayer resolved = resolvedOpt.get();
+        String dir = "inventory/" + resolved.getUuid() + "/";
+
+        for (String backup : new String[]{from, to}) {
+            if (!Files.exists(BACKUP_DIR.resolve(dir + backup + ".json"))) {
+                ChatUI.showError(executor, com.pocky.invbackups.utils.TranslationHelper.translate(executor, "invbackups.error.backup_not_found", backup));
+                return 0;
+            }
+        }
+
+        AsyncBackupExecutor.readAsync(() -> {
+                    SnapshotDiff differ = new SnapshotDiff();
+                    return differ.diff(
+                            differ.snapshot(JsonFileHandler.load(dir, from, InventoryData.class)),
+                            differ.snapshot(JsonFileHandler.load(dir, to, InventoryData.class)));
+                }, "diff " + resolved.getUuid() + " " + from + ".." + to)
+                .thenAcceptAsync(changes -> ChatUI.showDiff(executor, resolved.getName(), from, to, changes), server)
+                .exceptionally(e -> {
+                    InventoryBackupsMod.LOGGER.error("Backup diff failed: " + from + ".." + to, e);
+                    server.execute(() -> ChatUI.showError(executor,
+                            com.pocky.invbackups.utils.TranslationHelper.translate(executor, "invbackups.error.diff_failed")));
+                    return null;
+                });
+
+        return 1;
+    }
+
+    /**
+     * Find the backup intervals in which a player's count of an item changed
+     * Uses the per-snapshot item index, walked on the backup threads
+     */
+    public int trace(CommandSourceStack source, String targetName, String item) throws CommandSyntaxException {
+        ServerPlayer executor = source.getPlayerOrException();
+        MinecraftServer server = source.getServer();
+
+        // Resolve player (online or offline)
+        Optional<PlayerResolver.ResolvedPlayer> resolvedOpt = PlayerResolver.resolvePlayer(server, targetName);
+
+        if (resolvedOpt.isEmpty()) {
+            ChatUI.showError(executor, com.pocky.invbackups.utils.TranslationHelper.translate(executor, "invbackups.error.player_not_found", targetName));
+            return 0;
+        }
+
+        // Only item ids are tracked per snapshot (names and components live in the search index)
+        String term = ItemSearchIndex.toTerm(item);
+        if (!term.startsWith("id:")) {
+            ChatUI.showError(executor, com.pocky.invbackups.utils.TranslationHelper.translate(executor, "invbackups.error.trace_item_id_only", item));
+            return 0;
+        }
+        String itemId = term.substring("id:".length());
+
+        PlayerResolver.ResolvedPlayer resolved = resolvedOpt.get();
+        final int MAX_TRANSITIONS = 8;
+
+        AsyncBackupExecutor.readAsync(() -> ItemTimeline.trace(resolved.getUuid(), itemId, MAX_TRANSITIONS),
+                        "trace " + resolved.getUuid() + " " + itemId)
+                .thenAcceptAsync(result -> ChatUI.showTrace(executor, resolved.getName(), itemId, result), server)
+                .exceptionally(e -> {
+                    InventoryBackupsMod.LOGGER.error("Item trace failed: " + itemId, e);
+                    server.execute(() -> ChatUI.showError(executor,
+                            com.pocky.invbackups.utils.TranslationHelper.translate(executor, "invbackups.error.trace_failed")));
+                    return null;
+                });
+
+        return 1;
+    }
+
+    /**
+     * Start simulating backup traffic of fake players (staging servers, loadTestEnabled)
+     */
+    public int startLoadTest(CommandSourceStack source, int players, int seconds) throws CommandSyntaxException {
+        ServerPlayer executor = source.getPlayerOrException();
+
+        if (!BackupSettings.get().loadTestEnabled()) {
+            ChatUI.showError(executor, com.pocky.invbackups.utils.TranslationHelper.translate(executor, "invbackups.error.loadtest_disabled"));
+            return 0;
+        }
+        if (!LoadTestJob.start(executor, source.getServer(), players, seconds)) {
+            ChatUI.showError(executor, com.pocky.invbackups.utils.TranslationHelper.translate(executor, "invbackups.error.loadtest_running"));
+            return 0;
+        }
+
+        ChatUI.showInfo(executor, com.pocky.invbackups.utils.TranslationHelper.translate(executor, "invbackups.info.loadtest_started",
+                String.valueOf(players), String.valueOf(seconds)));
+        return 1;
+    }
+
+    /**
+     * Stop the running load test and delete its backups
+     */
+    public int stopLoadTest(CommandSourceStack source) throws CommandSyntaxException {
+        ServerPlayer executor = source.getPlayerOrException();
+
+        if (!LoadTestJob.stop()) {
+            ChatUI.showError(executor, com.pocky.invbackups.utils.TranslationHelper.translate(executor, "invbackups.error.loadtest_not_running"));
+            return 0;
+        }
+
+        ChatUI.showInfo(executor, com.pocky.invbackups.utils.TranslationHelper.translate(executor, "invbackups.info.loadtest_stopping"));
+        return 1;
+    }
+
+    /**
+     * Plan a rollback of many players to their last backup before a timestamp
+     * Nothing is restored until the admin confirms with /inventory rollback-all confirm
+     */
+    public int rollbackAll(CommandSourceStack source, String timestampInput, String filter) throws CommandSyntaxException {
+        ServerPlayer executor = source.getPlayerOrException();
+        MinecraftServer server = source.getServer();
+
+        String timestamp = BulkRestoreJob.normalizeTimestamp(timestampInput);
+        if (timestamp == null) {
+            ChatUI.showError(executor, com.pocky.invbackups.utils.TranslationHelper.translate(executor, "invbackups.error.rollback_bad_timestamp", timestampInput));
+            return 0;
+        }
+
+        // Filter: "online", "offline" or a comma separated list of player names
+        Set<UUID> players = null;
+        Set<UUID> online = new HashSet<>();
+        server.getPlayerList().getPlayers().forEach(p -> online.add(p.getUUID()));
+        String mode = filter.trim().toLowerCase(Locale.ROOT);
+
+        if (mode.equals("online")) {
+            players = online;
+        } else if (!mode.isEmpty() && !mode.equals("offline")) {
+            players = new HashSet<>();
+            for (String name : filter.split(",")) {
+                Optional<PlayerResolver.ResolvedPlayer> resolved = PlayerResolver.resolvePlayer(server, name.trim());
+                if (resolved.isEmpty()) {
+                    ChatUI.showError(executor, com.pocky.invbackups.utils.TranslationHelper.translate(executor, "invbackups.error.player_not_found", name.trim()));
+                    return 0;
+                }
+                players.add(resolved.get().getUuid());
+            }
+        }
+
+        Set<UUID> selected = players;
+        boolean offlineOnly = mode.equals("offline");
+        boolean includeEnderChest = InventoryConfig.general.enderChestEnabled.get();
+
+        AsyncBackupExecutor.readAsync(() -> BulkRestoreJob.plan(timestamp, selected, includeEnderChest),
+                        "rollback-all plan " + timestamp)
+                .thenAcceptAsync(plans -> {
+                    if (offlineOnly) {
+                        plans.removeIf(plan -> online.contains(plan.player()));
+                    }
+                    if (plans.isEmpty()) {
+                        ChatUI.showError(executor, com.pocky.invbackups.utils.TranslationHelper.translate(executor, "invbackups.error.rollback_nothing", timestamp));
+                        return;
+                    }
+
+                    int onlineCount = (int) plans.stream()
+                            .filter(plan -> server.getPlayerList().getPlayer(plan.player()) != null)
+                            .count();
+                    BulkRestoreJob.prepare(executor.getUUID(),
+                            new BulkRestoreJob.Prepared(timestamp, plans, System.currentTimeMillis()));
+                    ChatUI.showRollbackPreview(executor, timestamp, plans.size(), onlineCount);
+                }, server)
+                .exceptionally(e -> {
+                    InventoryBackupsMod.LOGGER.error("Rollback planning failed: " + timestamp, e);
+                    server.execute(() -> ChatUI.showError(executor,
+                            com.pocky.invbackups.utils.TranslationHelper.translate(executor, "invbackups.error.rollback_failed")));
+                    return null;
+                });
+
+        return 1;
+    }
+
+    /**
+     * Start the rollback prepared by rollbackAll
+     */
+    public int confirmRollbackAll(CommandSourceStack source) throws CommandSyntaxException {
+        ServerPlayer executor = source.getPlayerOrException();
+        MinecraftServer server = source.getServer();
+
+        BulkRestoreJob.Prepared prepared = BulkRestoreJob.takePrepared(executor.getUUID());
+        if (prepared == null) {
+            ChatUI.showError(executor, com.pocky.invbackups.utils.TranslationHelper.translate(executor, "invbackups.error.rollback_not_prepared"));
+            return 0;
+        }
+
+        ChatUI.showInfo(executor, com.pocky.invbackups.utils.TranslationHelper.translate(executor, "invbackups.info.rollback_started",
+                String.valueOf(prepared.plans().size()), prepared.timestamp()));
+
+        AsyncBackupExecutor.readAsync(() -> BulkRestoreJob.load(prepared.plans()), "rollback-all load " + prepared.timestamp())
+                .thenAcceptAsync(loaded -> BulkRestoreJob.start(executor, prepared.timestamp(), loaded), server)
+                .exceptionally(e -> {
+                    InventoryBackupsMod.LOGGER.error("Rollback loading failed: " + prepared.timestamp(), e);
+                    server.execute(() -> ChatUI.showError(executor,
+                            com.pocky.invbackups.utils.TranslationHelper.translate(executor, "invbackups.error.rollback_failed")));
+                    return null;
+                });
+
+        return 1;
+    }
+
     /**
      * View and edit current inventory of a player (online only)
      */
@@ -380,24 +697,9 @@ public class InventoryCommand {
         ServerPlayer target = resolved.getOnlinePlayer();
 
         // Create an editable chest menu with player's inventory
+        // Slots 0-40 show the shared live session of the target, this only holds the buttons
         Container playerInventory = new SimpleContainer(54);
 
-        // Copy player's inventory to the chest
-        AtomicInteger slotId = new AtomicInteger();
-
-        // Main inventory (0-35)
-        for (int i = 0; i < target.getInventory().items.size() && slotId.get() < 36; i++) {
-            playerInventory.setItem(slotId.getAndIncrement(), target.getInventory().items.get(i).copy());
-        }
-
-        // Armor slots (36-39)
-        for (int i = 0; i < 4; i++) {
-            playerInventory.setItem(slotId.getAndIncrement(), target.getInventory().getArmor(i).copy());
-        }
-
-        // Offhand (40)
-        playerInventory.setItem(slotId.getAndIncrement(), target.getInventory().offhand.get(0).copy());
-
         MenuProvider chestMenuProvider = new SimpleMenuProvider(
                 (id, playerInv, playerEntity) -> new ChestEditableMenu(
                         MenuType.GENERIC_9x6, id, playerInv, playerInventory, 6, target, executor),
@@ -438,12 +740,12 @@ public class InventoryCommand {
         }
 
         if (!resolved.isOnline()) {
-            ChatUI.showError(executor, Component.translatable("invbackups.error.player_offline_cannot_restore", resolved.getName()).getString());
-            return 0;
+            OfflinePlayerData.restoreEnderChest(source.getServer(), executor, resolved.getUuid(), resolved.getName(), date, ecData);
+            return 1;
         }
 
         ServerPlayer target = resolved.getOnlinePlayer();
-        EnderChestUtil.restoreEnderChest(target, ecData.decode(executor.level().registryAccess()));
+        BackupRestorer.restoreEnderChest(target, ecData);
         ChatUI.showSuccess(executor, Component.translatable("invbackups.success.enderchest_restored",
                 Component.literal(date).withStyle(net.minecraft.ChatFormatting.WHITE),
                 Component.literal(target.getScoreboardName()).withStyle(net.minecraft.ChatFormatting.WHITE)).getString());
@@ -575,13 +877,9 @@ public class InventoryCommand {
         }
 
         ServerPlayer target = resolved.getOnlinePlayer();
-        SimpleContainer targetEnderChest = target.getEnderChestInventory();
 
-        // Create a copy for editing
-        SimpleContainer editableEnderChest = new SimpleContainer(27);
-        for (int i = 0; i < 27; i++) {
-            editableEnderChest.setItem(i, targetEnderChest.getItem(i).copy());
-        }
+        // Shared with every other admin editing this ender chest
+        Container editableEnderChest = LiveInventorySession.of(target, LiveInventorySession.Kind.ENDER_CHEST).getContainer();
 
         MenuProvider chestMenuProvider = new SimpleMenuProvider(
                 (id, playerInv, playerEntity) -> new EnderChestEditableMenu(
@@ -602,17 +900,14 @@ public class InventoryCommand {
      */
     private static class EnderChestEditableMenu extends ChestMenu {
         private final ServerPlayer targetPlayer;
-        private final Container chestContainer;
-        
-        // Real-time sync fields
-        private int tickCounter = 0;
-        private static final int SYNC_INTERVAL = 5; // 5 ticks = 0.25 seconds
+        private final LiveInventorySession session;
 
         public EnderChestEditableMenu(MenuType<?> menuType, int containerId, Inventory playerInv,
                                      Container container, int rows, ServerPlayer targetPlayer) {
             super(menuType, containerId, playerInv, container, rows);
             this.targetPlayer = targetPlayer;
-            this.chestContainer = container;
+            this.session = LiveInventorySession.of(targetPlayer, LiveInventorySession.Kind.ENDER_CHEST);
+            session.addViewer(this, (ServerPlayer) playerInv.player);
         }
 
         @Override
@@ -620,7 +915,7 @@ public class InventoryCommand {
             super.removed(player);
 
             // Final sync when closing
-            syncToTarget();
+            session.removeViewer(this, (ServerPlayer) player);
             
             if (targetPlayer != null && !targetPlayer.isRemoved()) {
                 ChatUI.showSuccess((ServerPlayer) player, Component.translatable("invbackups.success.enderchest_updated",
@@ -632,57 +927,6 @@ public class InventoryCommand {
         public boolean stillValid(Player player) {
             return targetPlayer != null && !targetPlayer.isRemoved();
         }
-        
-        // ✅ Real-time synchronization
-        @Override
-        public void broadcastChanges() {
-            super.broadcastChanges();
-            
-            tickCounter++;
-            if (tickCounter >= SYNC_INTERVAL) {
-                tickCounter = 0;
-                syncToTarget();      // GUI → Target ender chest
-                syncFromTarget();    // Target ender chest → GUI
-            }
-        }
-        
-        /**
-         * Sync changes from GUI to target player's ender chest
-         */
-        private void syncToTarget() {
-            if (targetPlayer == null || targetPlayer.isRemoved()) return;
-            
-            SimpleContainer targetEnderChest = targetPlayer.getEnderChestInventory();
-            
-            // Sync all 27 slots
-            for (int i = 0; i < 27; i++) {
-                ItemStack guiStack = this.chestContainer.getItem(i);
-                ItemStack targetStack = targetEnderChest.getItem(i);
-                
-                if (!ItemStack.matches(guiStack, targetStack)) {
-                    targetEnderChest.setItem(i, guiStack.copy());
-                }
-            }
-        }
-        
-        /**
-         * Sync changes from target player's ender chest to GUI
-         */
-        private void syncFromTarget() {
-            if (targetPlayer == null || targetPlayer.isRemoved()) return;
-            
-            SimpleContainer targetEnderChest = targetPlayer.getEnderChestInventory();
-            
-            // Sync all 27 slots
-            for (int i = 0; i < 27; i++) {
-                ItemStack targetStack = targetEnderChest.getItem(i);
-                ItemStack guiStack = this.chestContainer.getItem(i);
-                
-                if (!ItemStack.matches(targetStack, guiStack)) {
-                    this.chestContainer.setItem(i, targetStack.copy());
-                }
-            }
-        }
     }
 
     /**
@@ -692,10 +936,7 @@ public class InventoryCommand {
         private final ServerPlayer targetPlayer;
         private final Container chestContainer;
         private final ServerPlayer viewer;
-        
-        // Real-time sync fields
-        private int tickCounter = 0;
-        private static final int SYNC_INTERVAL = 5; // 5 ticks = 0.25 seconds
+        private final LiveInventorySession session;
 
         public ChestEditableMenu(MenuType<?> menuType, int containerId, Inventory playerInv,
                                 Container container, int rows, ServerPlayer targetPlayer, ServerPlayer viewer) {
@@ -703,6 +944,7 @@ public class InventoryCommand {
             this.targetPlayer = targetPlayer;
             this.chestContainer = container;
             this.viewer = viewer;
+            this.session = LiveInventorySession.of(targetPlayer, LiveInventorySession.Kind.INVENTORY);
             
             // Count Curios items
             Map<Integer, ItemStack> curiosItems = CuriosHelper.collectCuriosItems(targetPlayer);
@@ -758,13 +1000,24 @@ public class InventoryCommand {
             
             // Replace armor and button slots with validation slots
             replaceArmorSlots();
+            session.addViewer(this, (ServerPlayer) playerInv.player);
         }
         
         /**
-         * Replace armor slots (36-39) and button slot (48) with validation slots
+         * Point slots 0-40 at the shared live session and replace armor slots (36-39) and
+         * button slot (48) with validation slots
          * Prevents placing wrong armor types and protects button slot
          */
         private void replaceArmorSlots() {
+            Container live = session.getContainer();
+
+            // Main inventory (0-35) and offhand (40) - same numbering as the player's Inventory
+            for (int i = 0; i <= 40; i++) {
+                if (i >= 36 && i <= 39) continue;
+                Slot oldSlot = this.slots.get(i);
+                this.slots.set(i, new Slot(live, i, oldSlot.x, oldSlot.y));
+            }
+
             // Armor slot types in order: FEET, LEGS, CHEST, HEAD
             net.minecraft.world.entity.EquipmentSlot[] armorTypes = {
                 net.minecraft.world.entity.EquipmentSlot.FEET,   // 36: Boots
@@ -779,7 +1032,7 @@ public class InventoryCommand {
                 Slot oldSlot = this.slots.get(slotIndex);
                 
                 Slot newSlot = new ArmorSlot(
-                    this.chestContainer,
+                    live,
                     slotIndex,
                     oldSlot.x,
                     oldSlot.y,
@@ -875,7 +1128,7 @@ public class InventoryCommand {
             super.removed(player);
 
             // Final sync when closing (ensure no data loss)
-            syncToTarget();
+            session.removeViewer(this, (ServerPlayer) player);
             
             // Show success message
             if (targetPlayer != null && !targetPlayer.isRemoved()) {
@@ -889,107 +1142,6 @@ public class InventoryCommand {
             return targetPlayer != null && !targetPlayer.isRemoved();
         }
         
-        // ✅ Real-time synchronization: Called every tick
-        @Override
-        public void broadcastChanges() {
-            super.broadcastChanges();
-            
-            // Periodic sync every SYNC_INTERVAL ticks
-            tickCounter++;
-            if (tickCounter >= SYNC_INTERVAL) {
-                tickCounter = 0;
-                
-                // Bidirectional sync
-                syncToTarget();      // GUI → Target player
-                syncFromTarget();    // Target player → GUI
-            }
-        }
-        
-        /**
-         * Sync changes from GUI to target player's inventory
-         */
-        private void syncToTarget() {
-            if (targetPlayer == null || targetPlayer.isRemoved()) return;
-            
-            Inventory targetInv = targetPlayer.getInventory();
-            boolean changed = false;
-            
-            // Sync main inventory (slots 0-35)
-            for (int i = 0; i < 36; i++) {
-                ItemStack guiStack = this.chestContainer.getItem(i);
-                ItemStack targetStack = targetInv.items.get(i);
-                
-                // Only sync if different
-                if (!ItemStack.matches(guiStack, targetStack)) {
-                    targetInv.items.set(i, guiStack.copy());
-                    changed = true;
-                }
-            }
-            
-            // Sync armor (slots 36-39)
-            for (int i = 0; i < 4; i++) {
-                ItemStack guiStack = this.chestContainer.getItem(36 + i);
-                ItemStack targetStack = targetInv.armor.get(i);
-                
-                if (!ItemStack.matches(guiStack, targetStack)) {
-                    targetInv.armor.set(i, guiStack.copy());
-                    changed = true;
-                }
-            }
-            
-            // Sync offhand (slot 40)
-            ItemStack guiStack = this.chestContainer.getItem(40);
-            ItemStack targetStack = targetInv.offhand.get(0);
-            
-            if (!ItemStack.matches(guiStack, targetStack)) {
-                targetInv.offhand.set(0, guiStack.copy());
-                changed = true;
-            }
-            
-            // Notify client if changes occurred
-            if (changed) {
-                targetPlayer.inventoryMenu.broadcastChanges();
-            }
-        }
-        
-        /**
-         * Sync changes from target player's inventory to GUI
-         */
-        private void syncFromTarget() {
-            if (targetPlayer == null || targetPlayer.isRemoved()) return;
-            
-            Inventory targetInv = targetPlayer.getInventory();
-            
-            // Sync main inventory (slots 0-35)
-            for (int i = 0; i < 36; i++) {
-                ItemStack targetStack = targetInv.items.get(i);
-                ItemStack guiStack = this.chestContainer.getItem(i);
-                
-                // Only sync if different
-                if (!ItemStack.matches(targetStack, guiStack)) {
-                    this.chestContainer.setItem(i, targetStack.copy());
-                }
-            }
-            
-            // Sync armor (slots 36-39)
-            for (int i = 0; i < 4; i++) {
-                ItemStack targetStack = targetInv.armor.get(i);
-                ItemStack guiStack = this.chestContainer.getItem(36 + i);
-                
-                if (!ItemStack.matches(targetStack, guiStack)) {
-                    this.chestContainer.setItem(36 + i, targetStack.copy());
-                }
-            }
-            
-            // Sync offhand (slot 40)
-            ItemStack targetStack = targetInv.offhand.get(0);
-            ItemStack guiStack = this.chestContainer.getItem(40);
-            
-            if (!ItemStack.matches(targetStack, guiStack)) {
-                this.chestContainer.setItem(40, targetStack.copy());
-            }
-        }
-        
         /**
          * Custom armor slot that validates armor type
          * Only allows correct armor type for each slot (helmet, chestplate, leggings, boots)
@@ -1997,10 +2149,7 @@ public class InventoryCommand {
         private final ServerPlayer targetPlayer;
         private final ServerPlayer viewer;
         private final Container curiosContainer;
-        
-        // Real-time sync fields
-        private int tickCounter = 0;
-        private static final int SYNC_INTERVAL = 5; // 5 ticks = 0.25 seconds
+        private final LiveInventorySession session;
         
         public CuriosEditableMenu(MenuType<?> menuType, int containerId,
                                   Inventory playerInv,
@@ -2011,25 +2160,11 @@ public class InventoryCommand {
             this.viewer = viewer;
             this.curiosContainer = this.getContainer();
             
-            populateCuriosSlots();
+            this.session = LiveInventorySession.of(target, LiveInventorySession.Kind.CURIOS);
+            
             addNavigationButtons();
             replaceCuriosSlots(); // Replace with validation slots
-        }
-        
-        private void populateCuriosSlots() {
-            // Load current Curios items from target player
-            Map<Integer, ItemStack> curiosItems = CuriosHelper.collectCuriosItems(targetPlayer);
-            
-            // Populate slots with actual items only (no placeholders)
-            for (int i = 0; i < 18; i++) {
-                int curiosKey = 1000 + i;
-                ItemStack item = curiosItems.get(curiosKey);
-                
-                if (item != null && !item.isEmpty()) {
-                    this.curiosContainer.setItem(i, item.copy());
-                }
-                // Empty slots remain empty - no placeholder
-            }
+            session.addViewer(this, (ServerPlayer) playerInv.player);
         }
         
         private void addNavigationButtons() {
@@ -2088,7 +2223,7 @@ public class InventoryCommand {
         }
         
         /**
-         * Replace Curios slots (0-17) with validation slots
+         * Replace Curios slots (0-17) with validation slots on the shared live session
          * Prevents placing wrong item types in Curios slots
          */
         private void replaceCuriosSlots() {
@@ -2102,7 +2237,7 @@ public class InventoryCommand {
                 
                 if (slotType != null) {
                     Slot newSlot = new CuriosSlot(
-                        this.curiosContainer,
+                        session.getContainer(),
                         i,
                         oldSlot.x,
                         oldSlot.y,
@@ -2110,6 +2245,9 @@ public class InventoryCommand {
                         targetPlayer
                     );
                     this.slots.set(i, newSlot);
+                } else {
+                    // The player has fewer Curios slots - nothing to put items into
+                    this.slots.set(i, new ReadOnlySlot(session.getContainer(), i, oldSlot.x, oldSlot.y));
                 }
             }
             
@@ -2170,7 +2308,7 @@ public class InventoryCommand {
             super.removed(player);
             
             // Final sync when closing
-            syncToTarget();
+            session.removeViewer(this, (ServerPlayer) player);
             
             if (targetPlayer != null && !targetPlayer.isRemoved()) {
                 ChatUI.showSuccess((ServerPlayer) player, 
@@ -2185,57 +2323,6 @@ public class InventoryCommand {
             return targetPlayer != null && !targetPlayer.isRemoved();
         }
         
-        // ✅ Real-time synchronization
-        @Override
-        public void broadcastChanges() {
-            super.broadcastChanges();
-            
-            tickCounter++;
-            if (tickCounter >= SYNC_INTERVAL) {
-                tickCounter = 0;
-                syncToTarget();      // GUI → Target Curios
-                syncFromTarget();    // Target Curios → GUI
-            }
-        }
-        
-        /**
-         * Sync changes from GUI to target player's Curios
-         */
-        private void syncToTarget() {
-            if (targetPlayer == null || targetPlayer.isRemoved()) return;
-            
-            Map<Integer, ItemStack> curiosItems = new java.util.HashMap<>();
-            
-            // Collect items from GUI slots 0-17 (18 Curios slots)
-            for (int i = 0; i < 18; i++) {
-                ItemStack item = this.curiosContainer.getItem(i);
-                curiosItems.put(1000 + i, item.copy());
-            }
-            
-            // Restore to target player
-            CuriosHelper.restoreCuriosItems(targetPlayer, curiosItems);
-        }
-        
-        /**
-         * Sync changes from target player's Curios to GUI
-         */
-        private void syncFromTarget() {
-            if (targetPlayer == null || targetPlayer.isRemoved()) return;
-            
-            // Load current Curios items from target player
-            Map<Integer, ItemStack> curiosItems = CuriosHelper.collectCuriosItems(targetPlayer);
-            
-            // Update GUI slots 0-17
-            for (int i = 0; i < 18; i++) {
-                ItemStack targetStack = curiosItems.getOrDefault(1000 + i, ItemStack.EMPTY);
-                ItemStack guiStack = this.curiosContainer.getItem(i);
-                
-                if (!ItemStack.matches(targetStack, guiStack)) {
-                    this.curiosContainer.setItem(i, targetStack.copy());
-                }
-            }
-        }
-        
         /**
          * Custom Curios slot that validates item type using Curios API
          * Only allows items that can be equipped in the specific Curios slot type
@@ -2364,24 +2451,9 @@ public class InventoryCommand {
     private static void reopenPlayerInventory(ServerPlayer viewer,
                                               ServerPlayer target,
                                               ServerPlayer originalViewer) {
+        // Slots 0-40 show the shared live session of the target, this only holds the buttons
         Container playerInventory = new SimpleContainer(54);
         
-        // Copy player's inventory to the chest
-        AtomicInteger slotId = new AtomicInteger();
-        
-        // Main inventory (0-35)
-        for (int i = 0; i < target.getInventory().items.size() && slotId.get() < 36; i++) {
-            playerInventory.setItem(slotId.getAndIncrement(), target.getInventory().items.get(i).copy());
-        }
-        
-        // Armor slots (36-39)
-        for (int i = 0; i < 4; i++) {
-            playerInventory.setItem(slotId.getAndIncrement(), target.getInventory().getArmor(i).copy());
-        }
-        
-        // Offhand (40)
-        playerInventory.setItem(slotId.getAndIncrement(), target.getInventory().offhand.get(0).copy());
-        
         MenuProvider mainProvider = new SimpleMenuProvider(
             (id, playerInv, playerEntity) -> new ChestEditableMenu(
                 MenuType.GENERIC_9x6, id, playerInv, playerInventory, 6, target, viewer),
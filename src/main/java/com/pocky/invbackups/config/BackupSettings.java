@@ -0,0 +1,150 @@
+package com.pocky.invbackups.config;
+
+import net.neoforged.neoforge.common.ModConfigSpec;
+
+/**
+ * Immutable snapshot of the backup configuration
+ *
+ * Built from InventoryConfig when the config file is loaded and again whenever it changes
+ * on disk (ModConfigEvent.Reloading), then swapped in as a whole. Hot paths call get() once
+ * and read everything from that one snapshot - a single volatile read, and never half of an
+ * old config mixed with half of a new one.
+ */
+public record BackupSettings(
+        // Triggers
+        boolean tickSaveEnabled,
+        long preservationPeriod,
+        boolean deadSaveEnabled,
+        boolean joinSaveEnabled,
+        boolean quitSaveEnabled,
+        boolean containerCloseSaveEnabled,
+        int retentionDays,
+
+        // Ender chest
+        boolean enderChestEnabled,
+        boolean enderChestTickSaveEnabled,
+        boolean enderChestDeadSaveEnabled,
+        boolean enderChestJoinSaveEnabled,
+        boolean enderChestQuitSaveEnabled,
+        boolean enderChestOpenSaveEnabled,
+
+        // Adaptive save period
+        boolean adaptivePeriodEnabled,
+        long adaptiveMinPeriod,
+        long adaptiveMaxPeriod,
+        double adaptiveTargetMspt,
+
+        // Anomaly detection
+        boolean anomalyDetectionEnabled,
+        double anomalyGrowthFactor,
+        int anomalyMinCount,
+
+        // Load test
+        boolean loadTestEnabled,
+        int loadTestInventoryChangesPerHour,
+        int loadTestDeathsPerHour,
+        int loadTestReconnectsPerHour,
+        int loadTestContainerClosesPerHour,
+
+        // Compression
+        boolean compressionEnabled,
+        boolean compressionDictionary,
+        int archiveAfterDays,
+
+        // Backup threads
+        int backupThreads,
+        int readThreads,
+        int maintenanceThreads,
+        int backupThreadPriority,
+        boolean virtualThreads,
+        int maxPendingSaves,
+        long shutdownTimeoutSeconds,
+
+        // Metrics
+        long metricsLogIntervalMinutes,
+        boolean metricsHttpEnabled,
+        String metricsHttpHost,
+        int metricsHttpPort) {
+
+    // Defaults until the config file has been read
+    private static volatile BackupSettings current = read(true);
+
+    public static BackupSettings get() {
+        return current;
+    }
+
+    /**
+     * Read InventoryConfig into a new snapshot and make it current
+     * @return the previous snapshot
+     */
+    public static BackupSettings reload() {
+        BackupSettings previous = current;
+        current = read(false);
+        return previous;
+    }
+
+    /**
+     * Ender chest saves of one trigger - the trigger and the ender chest feature must both be on
+     */
+    public boolean enderChest(boolean triggerEnabled) {
+        return enderChestEnabled && triggerEnabled;
+    }
+
+    private static BackupSettings read(boolean defaults) {
+        InventoryConfig.General config = InventoryConfig.general;
+        // Bounds given the wrong way round still mean a range
+        long adaptiveMin = value(config.adaptiveMinPeriod, defaults);
+        long adaptiveMax = value(config.adaptiveMaxPeriod, defaults);
+        return new BackupSettings(
+            value(config.tickSaveEnabled, defaults),
+            value(config.preservationPeriod, defaults),
+            value(config.deadSaveEnabled, defaults),
+            value(config.joinSaveEnabled, defaults),
+            value(config.quitSaveEnabled, defaults),
+            value(config.containerCloseSaveEnabled, defaults),
+            value(config.retentionDays, defaults),
+
+            value(config.enderChestEnabled, defaults),
+            value(config.enderChestTickSaveEnabled, defaults),
+            value(config.enderChestDeadSaveEnabled, defaults),
+            value(config.enderChestJoinSaveEnabled, defaults),
+            value(config.enderChestQuitSaveEnabled, defaults),
+            value(config.enderChestOpenSaveEnabled, defaults),
+
+            value(config.adaptivePeriodEnabled, defaults),
+            Math.min(adaptiveMin, adaptiveMax),
+            Math.max(adaptiveMin, adaptiveMax),
+            value(config.adaptiveTargetMspt, defaults),
+
+            value(config.anomalyDetectionEnabled, defaults),
+            value(config.anomalyGrowthFactor, defaults),
+            value(config.anomalyMinCount, defaults),
+
+            value(config.loadTestEnabled, defaults),
+            value(config.loadTestInventoryChangesPerHour, defaults),
+            value(config.loadTestDeathsPerHour, defaults),
+            value(config.loadTestReconnectsPerHour, defaults),
+            value(config.loadTestContainerClosesPerHour, defaults),
+
+            value(config.compressionEnabled, defaults),
+            value(config.compressionDictionary, defaults),
+            value(config.archiveAfterDays, defaults),
+
+            value(config.backupThreads, defaults),
+            value(config.readThreads, defaults),
+            value(config.maintenanceThreads, defaults),
+            value(config.backupThreadPriority, defaults),
+            value(config.virtualThreads, defaults),
+            value(config.maxPendingSaves, defaults),
+            value(config.shutdownTimeoutSeconds, defaults),
+
+            value(config.metricsLogIntervalMinutes, defaults),
+            value(config.metricsHttpEnabled, defaults),
+            value(config.metricsHttpHost, defaults),
+            value(config.metricsHttpPort, defaults));
+    }
+
+    private static <T> T value(ModConfigSpec.ConfigValue<T> value, boolean defaults) {
+        return defaults ? value.getDefault() : value.get();
+    }
+}
@@ -26,6 +26,12 @@ public class InventoryConfig {
         public final ModConfigSpec.BooleanValue containerCloseSaveEnabled;
         public final ModConfigSpec.IntValue retentionDays;
 
+        // Adaptive save period settings
+        public final ModConfigSpec.BooleanValue adaptivePeriodEnabled;
+        public final ModConfigSpec.LongValue adaptiveMinPeriod;
+        public final ModConfigSpec.LongValue adaptiveMaxPeriod;
+        public final ModConfigSpec.DoubleValue adaptiveTargetMspt;
+
         // Ender Chest settings
         public final ModConfigSpec.BooleanValue enderChestEnabled;
         public final ModConfigSpec.BooleanValue enderChestTickSaveEnabled;
@@ -34,6 +40,38 @@ public class InventoryConfig {
         public final ModConfigSpec.BooleanValue enderChestQuitSaveEnabled;
         public final ModConfigSpec.BooleanValue enderChestOpenSaveEnabled;
 
+        // Anomaly detection settings
+        public final ModConfigSpec.BooleanValue anomalyDetectionEnabled;
+        public final ModConfigSpec.DoubleValue anomalyGrowthFactor;
+        public final ModConfigSpec.IntValue anomalyMinCount;
+
+        // Load test settings
+        public final ModConfigSpec.BooleanValue loadTestEnabled;
+        public final ModConfigSpec.IntValue loadTestInventoryChangesPerHour;
+        public final ModConfigSpec.IntValue loadTestDeathsPerHour;
+        public final ModConfigSpec.IntValue loadTestReconnectsPerHour;
+        public final ModConfigSpec.IntValue loadTestContainerClosesPerHour;
+
+        // Compression settings
+        public final ModConfigSpec.BooleanValue compressionEnabled;
+        public final ModConfigSpec.BooleanValue compressionDictionary;
+        public final ModConfigSpec.IntValue archiveAfterDays;
+
+        // Backup thread settings
+        public final ModConfigSpec.IntValue backupThreads;
+        public final ModConfigSpec.IntValue readThreads;
+        public final ModConfigSpec.IntValue maintenanceThreads;
+        public final ModConfigSpec.IntValue backupThreadPriority;
+        public final ModConfigSpec.BooleanValue virtualThreads;
+        public final ModConfigSpec.IntValue maxPendingSaves;
+        public final ModConfigSpec.LongValue shutdownTimeoutSeconds;
+
+        // Metrics settings
+        public final ModConfigSpec.IntValue metricsLogIntervalMinutes;
+        public final ModConfigSpec.BooleanValue metricsHttpEnabled;
+        public final ModConfigSpec.ConfigValue<String> metricsHttpHost;
+        public final ModConfigSpec.IntValue metricsHttpPort;
+
         General() {
             COMMON_BUILDER.push("general");
 
@@ -68,6 +106,28 @@ public class InventoryConfig {
 
             COMMON_BUILDER.pop();
 
+            COMMON_BUILDER.push("adaptive");
+
+            this.adaptivePeriodEnabled = COMMON_BUILDER
+                    .comment("true - tune the periodic save interval per player instead of using preservationPeriod",
+                             "Players whose inventory keeps changing are saved more often, idle players and players with",
+                             "expensive snapshots less often, and everyone less often while the server is lagging")
+                    .define("adaptivePeriodEnabled", false);
+
+            this.adaptiveMinPeriod = COMMON_BUILDER
+                    .comment("Shortest adaptive save interval in seconds")
+                    .defineInRange("adaptiveMinPeriod", 120, 10, 86400L);
+
+            this.adaptiveMaxPeriod = COMMON_BUILDER
+                    .comment("Longest adaptive save interval in seconds (swapped with adaptiveMinPeriod if smaller)")
+                    .defineInRange("adaptiveMaxPeriod", 1800, 10, 86400L);
+
+            this.adaptiveTargetMspt = COMMON_BUILDER
+                    .comment("Above this average tick time (ms) all intervals are stretched, up to 4x")
+                    .defineInRange("adaptiveTargetMspt", 40.0, 1.0, 1000.0);
+
+            COMMON_BUILDER.pop();
+
             COMMON_BUILDER.push("enderchest");
 
             this.enderChestEnabled = COMMON_BUILDER
@@ -95,6 +155,123 @@ public class InventoryConfig {
                     .define("enderChestOpenSaveEnabled", false);
 
             COMMON_BUILDER.pop();
+
+            COMMON_BUILDER.push("anomaly");
+
+            this.anomalyDetectionEnabled = COMMON_BUILDER
+                    .comment("true - flag abnormal item count growth between consecutive backups (possible duplication)",
+                             "Findings are written to InventoryLog/reports and shown to online operators")
+                    .define("anomalyDetectionEnabled", true);
+
+            this.anomalyGrowthFactor = COMMON_BUILDER
+                    .comment("Flag an item when its total grows by at least this factor between consecutive backups. 10 - tenfold.",
+                             "Items the player didn't have in the previous backup are not flagged")
+                    .defineInRange("anomalyGrowthFactor", 10.0, 2.0, 1000.0);
+
+            this.anomalyMinCount = COMMON_BUILDER
+                    .comment("Ignore items whose new total is below this count (avoids noise from small stacks)")
+                    .defineInRange("anomalyMinCount", 256, 1, Integer.MAX_VALUE);
+
+            COMMON_BUILDER.pop();
+
+            COMMON_BUILDER.push("loadtest");
+
+            this.loadTestEnabled = COMMON_BUILDER
+                    .comment("true - allow /inventory loadtest, which simulates fake players to measure backup overhead",
+                             "Use on a staging server only: the simulated backups are real disk writes (deleted afterwards)")
+                    .define("loadTestEnabled", false);
+
+            this.loadTestInventoryChangesPerHour = COMMON_BUILDER
+                    .comment("How often each fake player's inventory changes, per hour (unchanged inventories are not saved again)")
+                    .defineInRange("loadTestInventoryChangesPerHour", 120, 0, 72000);
+
+            this.loadTestDeathsPerHour = COMMON_BUILDER
+                    .comment("Deaths per fake player per hour")
+                    .defineInRange("loadTestDeathsPerHour", 2, 0, 72000);
+
+            this.loadTestReconnectsPerHour = COMMON_BUILDER
+                    .comment("Quit + join per fake player per hour")
+                    .defineInRange("loadTestReconnectsPerHour", 4, 0, 72000);
+
+            this.loadTestContainerClosesPerHour = COMMON_BUILDER
+                    .comment("Container closes per fake player per hour (only saves if containerCloseSaveEnabled)")
+                    .defineInRange("loadTestContainerClosesPerHour", 120, 0, 72000);
+
+            COMMON_BUILDER.pop();
+
+            COMMON_BUILDER.push("compression");
+
+            this.compressionEnabled = COMMON_BUILDER
+                    .comment("true - write new backups compressed (fast Deflate). Uncompressed backups stay readable,",
+                             "so this can be switched on and off at any time. Compressed files are no longer plain JSON")
+                    .define("compressionEnabled", false);
+
+            this.compressionDictionary = COMMON_BUILDER
+                    .comment("true - train a dictionary from existing backups (InventoryLog/dictionaries) and compress with it",
+                             "Makes small backups much smaller. Never delete dictionary files - backups written with them need them")
+                    .define("compressionDictionary", true);
+
+            this.archiveAfterDays = COMMON_BUILDER
+                    .comment("Recompress backups older than N days with the strongest compression (hourly, in the background). 0 - never",
+                             "Works independently of compressionEnabled")
+                    .defineInRange("archiveAfterDays", 0, 0, 365);
+
+            COMMON_BUILDER.pop();
+
+            COMMON_BUILDER.push("executor");
+
+            this.backupThreads = COMMON_BUILDER
+                    .comment("Threads that write backups. 1 - spinning disks, 2 - default, 4-8 - NVMe")
+                    .defineInRange("backupThreads", 2, 1, 64);
+
+            this.readThreads = COMMON_BUILDER
+                    .comment("Threads for loads an admin is waiting for (search, diff, trace, rollback preparation)")
+                    .defineInRange("readThreads", 2, 1, 64);
+
+            this.maintenanceThreads = COMMON_BUILDER
+                    .comment("Threads for background work (retention cleanup, index rebuild), at the lowest priority")
+                    .defineInRange("maintenanceThreads", 1, 1, 16);
+
+            this.backupThreadPriority = COMMON_BUILDER
+                    .comment("Java priority of the write and read threads (1-10, 5 - normal). 4 - slightly below the server thread")
+                    .defineInRange("backupThreadPriority", 4, Thread.MIN_PRIORITY, Thread.MAX_PRIORITY);
+
+            this.virtualThreads = COMMON_BUILDER
+                    .comment("true - run every backup task on its own virtual thread instead of the thread pools",
+                             "Parallelism is then only limited by maxPendingSaves; the thread counts and priority are ignored")
+                    .define("virtualThreads", false);
+
+            this.maxPendingSaves = COMMON_BUILDER
+                    .comment("Periodic and trigger saves waiting for a backup thread; further saves are skipped until the queue drains")
+                    .defineInRange("maxPendingSaves", 50, 1, 10000);
+
+            this.shutdownTimeoutSeconds = COMMON_BUILDER
+                    .comment("How long a stopping server waits for queued backups to be written")
+                    .defineInRange("shutdownTimeoutSeconds", 30, 1, 600);
+
+            COMMON_BUILDER.pop();
+
+            COMMON_BUILDER.push("metrics");
+
+            this.metricsLogIntervalMinutes = COMMON_BUILDER
+                    .comment("Log a line with backup statistics (snapshots, write latency, queue) every N minutes. 0 - never.",
+                             "The full statistics are always available with /inventory stats")
+                    .defineInRange("metricsLogIntervalMinutes", 10, 0, 1440);
+
+            this.metricsHttpEnabled = COMMON_BUILDER
+                    .comment("true - serve backup metrics in Prometheus text format on http://<metricsHttpHost>:<metricsHttpPort>/metrics",
+                             "The endpoint has no authentication - keep it on localhost or behind a firewall")
+                    .define("metricsHttpEnabled", false);
+
+            this.metricsHttpHost = COMMON_BUILDER
+                    .comment("Address the metrics endpoint listens on. 127.0.0.1 - only reachable from this machine")
+                    .define("metricsHttpHost", "127.0.0.1");
+
+            this.metricsHttpPort = COMMON_BUILDER
+                    .comment("Port of the metrics endpoint")
+                    .defineInRange("metricsHttpPort", 9465, 1, 65535);
+
+            COMMON_BUILDER.pop();
         }
     }
 }
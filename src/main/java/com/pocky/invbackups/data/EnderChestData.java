@@ -6,8 +6,13 @@ import net.minecraft.nbt.CompoundTag;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.block.entity.EnderChestBlockEntity;
 import net.neoforged.neoforge.common.util.JsonUtils;
+import com.pocky.invbackups.InventoryBackupsMod;
+import com.pocky.invbackups.index.BackupIndexer;
 import com.pocky.invbackups.io.JsonFileHandler;
 import com.pocky.invbackups.io.AsyncBackupExecutor;
+import com.pocky.invbackups.metrics.BackupEvents;
+import com.pocky.invbackups.metrics.BackupMetrics;
+import com.pocky.invbackups.metrics.TickProfiler;
 import net.minecraft.world.SimpleContainer;
 
 import java.io.Serializable;
@@ -45,7 +50,24 @@ public class EnderChestData implements Serializable {
         String path = "enderchest/" + playerUUID.toString() + "/";
 
         try {
-            new JsonFileHandler<>(this).save(path, fileName);
+            BackupEvents.Written event = new BackupEvents.Written();
+            event.begin();
+            long bytes = new JsonFileHandler<>(this).save(path, fileName);
+            if (bytes == 0) {
+                // Not written - don't count, trace or index a backup that doesn't exist
+                InventoryBackupsMod.LOGGER.warn("Ender chest backup {} of {} was not written", fileName, playerUUID);
+                return;
+            }
+            BackupMetrics.snapshot("enderchest", suffix);
+            if (event.shouldCommit()) {
+                event.player = playerUUID.toString();
+                event.type = "enderchest";
+                event.trigger = suffix != null && !suffix.isEmpty() ? suffix : "auto";
+                event.backup = fileName;
+                event.bytes = bytes;
+                event.commit();
+            }
+            BackupIndexer.onEnderChestSaved(playerUUID, fileName, this);
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -100,20 +122,34 @@ public class EnderChestData implements Serializable {
      * Encode a map of items to EnderChestData
      */
     public static EnderChestData encode(HolderLookup.Provider registryAccess, Map<Integer, ItemStack> map) {
-        List<ItemData> result = new ArrayList<>();
-
-        map.forEach((i, s) -> {
-            // Skip empty ItemStacks to avoid IllegalStateException
-            if (!s.isEmpty()) {
-                CompoundTag tag = (CompoundTag) s.save(registryAccess);
-                result.add(new ItemData(i, tag.toString()));
+        long profile = TickProfiler.begin();
+        BackupEvents.Encoded event = new BackupEvents.Encoded();
+        event.begin();
+        try {
+            long start = System.nanoTime();
+            List<ItemData> result = new ArrayList<>();
+
+            map.forEach((i, s) -> {
+                // Skip empty ItemStacks to avoid IllegalStateException
+                if (!s.isEmpty()) {
+                    CompoundTag tag = (CompoundTag) s.save(registryAccess);
+                    result.add(new ItemData(i, tag.toString()));
+                }
+            });
+
+            EnderChestData data = new EnderChestData();
+            data.setData(result);
+
+            BackupMetrics.ENCODE.recordNanos(System.nanoTime() - start);
+            if (event.shouldCommit()) {
+                event.type = "enderchest";
+                event.items = result.size();
+                event.commit();
             }
-        });
-
-        EnderChestData data = new EnderChestData();
-        data.setData(result);
-
-        return data;
+            return data;
+        } finally {
+            TickProfiler.end(TickProfiler.Section.ENCODE, profile);
+        }
     }
 
     /**
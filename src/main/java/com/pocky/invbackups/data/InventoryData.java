@@ -8,8 +8,13 @@ import net.minecraft.world.entity.player.Inventory;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.ItemStack;
 import net.neoforged.neoforge.common.util.JsonUtils;
+import com.pocky.invbackups.index.BackupIndexer;
 import com.pocky.invbackups.io.JsonFileHandler;
 import com.pocky.invbackups.io.AsyncBackupExecutor;
+import com.pocky.invbackups.metrics.BackupEvents;
+import com.pocky.invbackups.metrics.BackupMetrics;
+import com.pocky.invbackups.metrics.TickProfiler;
+import com.pocky.invbackups.io.BlobStore;
 import com.pocky.invbackups.utils.CuriosHelper;
 import com.pocky.invbackups.utils.SophisticatedBackpacksHelper;
 import com.pocky.invbackups.InventoryBackupsMod;
@@ -28,10 +33,17 @@ public class InventoryData implements Serializable {
     List<ItemData> data = new ArrayList<>();
     
     /**
-     * Stores backpack content snapshots (UUID -> NBT data)
+     * Stores backpack content snapshots (UUID -> NBT data or "blob:<sha256>" reference)
      * This ensures backpack contents are preserved even if the player modifies them later
+     * Newer backups store contents in the shared BlobStore; older ones inline the NBT
      */
     Map<String, String> backpackSnapshots = new HashMap<>();
+
+    /**
+     * Backpack contents captured at encode time that still have to be written as blobs
+     * Not serialized - resolved into backpackSnapshots references when saving
+     */
+    private transient Map<String, CompoundTag> pendingBackpacks = new HashMap<>();
     
     /**
      * Stores player experience data (level, progress, total)
@@ -57,11 +69,58 @@ public class InventoryData implements Serializable {
         String path = "inventory/" + playerUUID.toString() + "/";
 
         try {
-            new JsonFileHandler<>(this).save(path, fileName);
+            storePendingBackpacks();
+            BackupEvents.Written event = new BackupEvents.Written();
+            event.begin();
+            long bytes = new JsonFileHandler<>(this).save(path, fileName);
+            if (bytes == 0) {
+                // Not written - don't count, trace or index a backup that doesn't exist
+                InventoryBackupsMod.LOGGER.warn("Inventory backup {} of {} was not written", fileName, playerUUID);
+                return;
+            }
+            BackupMetrics.snapshot("inventory", suffix);
+            if (event.shouldCommit()) {
+                event.player = playerUUID.toString();
+                event.type = "inventory";
+                event.trigger = suffix != null && !suffix.isEmpty() ? suffix : "auto";
+                event.backup = fileName;
+                event.bytes = bytes;
+                event.commit();
+            }
+            BackupIndexer.onInventorySaved(playerUUID, fileName, this);
         } catch (Exception e) {
+            InventoryBackupsMod.LOGGER.error("Failed to save inventory backup for " + playerUUID, e);
         }
     }
 
+    /**
+     * Write captured backpack contents as shared blobs (backup threads)
+     * Unchanged contents have the same SHA-256 and just refresh the existing blob
+     */
+    private void storePendingBackpacks() {
+        backpackSnapshots.values().forEach(value -> {
+            if (BlobStore.isReference(value)) {
+                BlobStore.touch(BlobStore.idOf(value));
+            }
+        });
+
+        if (pendingBackpacks == null || pendingBackpacks.isEmpty()) {
+            return;
+        }
+
+        pendingBackpacks.forEach((uuid, contents) -> {
+            String snbt = contents.toString();
+            try {
+                backpackSnapshots.put(uuid, BlobStore.toReference(BlobStore.put(snbt)));
+            } catch (Exception e) {
+                // Fall back to inline storage so the backpack is never lost
+                InventoryBackupsMod.LOGGER.error("Failed to store backpack blob, storing inline: " + uuid, e);
+                backpackSnapshots.put(uuid, snbt);
+            }
+        });
+        pendingBackpacks.clear();
+    }
+
     /**
      * Save asynchronously (non-blocking)
      */
@@ -82,6 +141,15 @@ public class InventoryData implements Serializable {
     }
 
     public Map<Integer, ItemStack> decode(HolderLookup.Provider registryAccess) {
+        return decode(registryAccess, null);
+    }
+
+    /**
+     * Decode, but collect restored backpack contents (new UUID -> contents) instead of writing them
+     * to the backpack storage - for callers that may still abandon the result
+     * (SophisticatedBackpacksHelper.restoreBackpackSnapshot once committed)
+     */
+    public Map<Integer, ItemStack> decode(HolderLookup.Provider registryAccess, Map<UUID, CompoundTag> deferredBackpacks) {
 
         Map<Integer, ItemStack> map = new HashMap<>();
         
@@ -90,7 +158,7 @@ public class InventoryData implements Serializable {
             
             // If this is a backpack with a snapshot, restore it with a new UUID
             if (SophisticatedBackpacksHelper.isSophisticatedBackpack(stack)) {
-                stack = restoreBackpackFromSnapshot(stack, registryAccess);
+                stack = restoreBackpackFromSnapshot(stack, registryAccess, deferredBackpacks);
             }
             
             map.put(e.getIndex(), stack);
@@ -150,38 +218,50 @@ public class InventoryData implements Serializable {
      * @return InventoryData instance
      */
     public static InventoryData encode(HolderLookup.Provider registryAccess, Map<Integer, ItemStack> map, ServerPlayer player) {
-        List<ItemData> result = new ArrayList<>();
-        Map<String, String> backpackSnapshots = new HashMap<>();
-
-        map.forEach((i, s) -> {
-            // Skip empty ItemStacks to avoid IllegalStateException
-            if (!s.isEmpty()) {
-                CompoundTag tag = (CompoundTag) s.save(registryAccess);
-                result.add(new ItemData(i, tag.toString()));
+        long profile = TickProfiler.begin();
+        BackupEvents.Encoded event = new BackupEvents.Encoded();
+        event.begin();
+        try {
+            long start = System.nanoTime();
+            List<ItemData> result = new ArrayList<>();
+            List<ItemStack> backpacks = new ArrayList<>();
+
+            map.forEach((i, s) -> {
+                // Skip empty ItemStacks to avoid IllegalStateException
+                if (!s.isEmpty()) {
+                    CompoundTag tag = (CompoundTag) s.save(registryAccess);
+                    result.add(new ItemData(i, tag.toString()));
                 
-                // If this is a backpack, save its contents snapshot
-                if (SophisticatedBackpacksHelper.isSophisticatedBackpack(s)) {
-                    UUID backpackUuid = SophisticatedBackpacksHelper.getBackpackUuid(s);
-                    if (backpackUuid != null) {
-                        CompoundTag snapshot = SophisticatedBackpacksHelper.getBackpackSnapshot(backpackUuid);
-                        if (snapshot != null && !snapshot.isEmpty()) {
-                            backpackSnapshots.put(backpackUuid.toString(), snapshot.toString());
-                        }
+                    // Backpack contents are captured in one batch below
+                    if (SophisticatedBackpacksHelper.isSophisticatedBackpack(s)) {
+                        backpacks.add(s);
                     }
                 }
-            }
-        });
+            });
 
-        InventoryData data = new InventoryData();
-        data.setData(result);
-        data.setBackpackSnapshots(backpackSnapshots);
+            InventoryData data = new InventoryData();
+            data.setData(result);
+
+            if (!backpacks.isEmpty()) {
+                data.pendingBackpacks = SophisticatedBackpacksHelper.captureBackpackSnapshots(backpacks);
+            }
         
-        // Add experience data if player is provided
-        if (player != null) {
-            data.setExperienceData(ExperienceData.fromPlayer(player));
-        }
+            // Add experience data if player is provided
+            if (player != null) {
+                data.setExperienceData(ExperienceData.fromPlayer(player));
+            }
 
-        return data;
+            BackupMetrics.ENCODE.recordNanos(System.nanoTime() - start);
+            if (event.shouldCommit()) {
+                event.player = player != null ? player.getStringUUID() : null;
+                event.type = "inventory";
+                event.items = result.size();
+                event.commit();
+            }
+            return data;
+        } finally {
+            TickProfiler.end(TickProfiler.Section.ENCODE, profile);
+        }
     }
 
     private CompoundTag getTag(String nbt) {
@@ -207,6 +287,19 @@ public class InventoryData implements Serializable {
         this.backpackSnapshots = backpackSnapshots != null ? backpackSnapshots : new HashMap<>();
     }
     
+    /**
+     * Backpack contents for a backpack UUID, resolving blob references (null if none)
+     */
+    public String getBackpackSnapshot(String backpackUuid) {
+        if (pendingBackpacks != null) {
+            CompoundTag pending = pendingBackpacks.get(backpackUuid);
+            if (pending != null) {
+                return pending.toString();
+            }
+        }
+        return BlobStore.resolve(backpackSnapshots.get(backpackUuid));
+    }
+
     public ExperienceData getExperienceData() {
         return experienceData;
     }
@@ -232,7 +325,8 @@ public class InventoryData implements Serializable {
      * Restore a backpack from snapshot with a new UUID
      * This ensures the restored backpack doesn't conflict with existing ones
      */
-    private ItemStack restoreBackpackFromSnapshot(ItemStack originalBackpack, HolderLookup.Provider registryAccess) {
+    private ItemStack restoreBackpackFromSnapshot(ItemStack originalBackpack, HolderLookup.Provider registryAccess,
+                                                  Map<UUID, CompoundTag> deferredBackpacks) {
         UUID originalUuid = SophisticatedBackpacksHelper.getBackpackUuid(originalBackpack);
         
         // If no UUID, just return as-is (empty backpack)
@@ -241,7 +335,7 @@ public class InventoryData implements Serializable {
         }
         
         // Check if we have a snapshot for this UUID
-        String snapshotStr = backpackSnapshots.get(originalUuid.toString());
+        String snapshotStr = getBackpackSnapshot(originalUuid.toString());
         if (snapshotStr == null || snapshotStr.isEmpty()) {
             // No snapshot - remove UUID to make it a fresh backpack
             ItemStack freshBackpack = originalBackpack.copy();
@@ -281,7 +375,11 @@ public class InventoryData implements Serializable {
         SophisticatedBackpacksHelper.setBackpackUuid(newBackpack, newUuid);
         
         // Restore the snapshot to the new UUID
-        SophisticatedBackpacksHelper.restoreBackpackSnapshot(newUuid, snapshot);
+        if (deferredBackpacks != null) {
+            deferredBackpacks.put(newUuid, snapshot);
+        } else {
+            SophisticatedBackpacksHelper.restoreBackpackSnapshot(newUuid, snapshot);
+        }
         
         InventoryBackupsMod.LOGGER.debug("Restored backpack: {} -> {}", originalUuid, newUuid);
         
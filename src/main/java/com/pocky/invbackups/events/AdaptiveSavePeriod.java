@@ -0,0 +1,131 @@
+package com.pocky.invbackups.events;
+
+import com.pocky.invbackups.config.BackupSettings;
+import com.pocky.invbackups.data.ItemData;
+import com.pocky.invbackups.metrics.BackupMetrics;
+import net.minecraft.server.MinecraftServer;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Per-player periodic save interval, tuned between adaptiveMinPeriod and adaptiveMaxPeriod
+ *
+ * Every periodic check reports whether the inventory changed and what the snapshot cost:
+ * encode time measured on the server thread plus the expected serialize + write time
+ * (size of the snapshot times the average write cost per byte so far). From that:
+ * - players whose inventory keeps changing move towards the minimum period, idle ones
+ *   towards the maximum
+ * - players whose snapshots cost more than average are stretched, cheap ones shrunk (x0.5 - x2)
+ * - all periods are stretched while MSPT is above adaptiveTargetMspt (up to x4)
+ *
+ * Server thread only.
+ */
+public class AdaptiveSavePeriod {
+
+    // Weight of the newest observation in the moving averages
+    private static final double ALPHA = 0.3;
+    // The server-wide reference cost moves slower, so one heavy player doesn't shift everyone
+    private static final double REFERENCE_ALPHA = 0.05;
+
+    private static final Map<UUID, AdaptiveSavePeriod> PLAYERS = new HashMap<>();
+    private static double referenceCostMillis = -1;
+
+    // New players start as "active" and are saved at the minimum period until measured
+    private double changeRate = 1.0;
+    private double costMillis = -1;
+    private long periodTicks = BackupSettings.get().adaptiveMinPeriod() * 20;
+
+    private AdaptiveSavePeriod() {
+    }
+
+    public static AdaptiveSavePeriod of(UUID player) {
+        return PLAYERS.computeIfAbsent(player, uuid -> new AdaptiveSavePeriod());
+    }
+
+    public static void forget(UUID player) {
+        PLAYERS.remove(player);
+    }
+
+    /**
+     * Ticks until the next periodic check of this player, within the current bounds
+     * (they may have been changed by a config reload since the period was computed)
+     */
+    public long getPeriodTicks(BackupSettings settings) {
+        long minTicks = settings.adaptiveMinPeriod() * 20;
+        return Math.max(minTicks, Math.min(Math.max(minTicks, settings.adaptiveMaxPeriod() * 20), periodTicks));
+    }
+
+    /**
+     * Feed the outcome of a periodic check and compute the next period
+     * @param changed whether anything was saved (false - skipped as unchanged)
+     * @param encodeNanos time spent collecting and encoding on the server thread
+     * @param snapshotChars size of the encoded items, a proxy for the bytes written
+     */
+    public void observe(MinecraftServer server, BackupSettings settings, boolean changed, long encodeNanos,
+                        long snapshotChars) {
+        double cost = encodeNanos / 1_000_000.0 + snapshotChars * writeMillisPerByte();
+
+        changeRate = ALPHA * (changed ? 1.0 : 0.0) + (1 - ALPHA) * changeRate;
+        costMillis = costMillis < 0 ? cost : ALPHA * cost + (1 - ALPHA) * costMillis;
+        referenceCostMillis = referenceCostMillis < 0 ? cost
+            : REFERENCE_ALPHA * cost + (1 - REFERENCE_ALPHA) * referenceCostMillis;
+
+        long minPeriod = settings.adaptiveMinPeriod();
+        long maxPeriod = Math.max(minPeriod, settings.adaptiveMaxPeriod());
+        double period = minPeriod + (maxPeriod - minPeriod) * (1.0 - changeRate);
+        if (referenceCostMillis > 0) {
+            period *= clamp(Math.sqrt(costMillis / referenceCostMillis), 0.5, 2.0);
+        }
+        double mspt = server.getAverageTickTimeNanos() / 1_000_000.0;
+        if (mspt > settings.adaptiveTargetMspt()) {
+            period *= Math.min(mspt / settings.adaptiveTargetMspt(), 4.0);
+        }
+
+        periodTicks = Math.round(clamp(period, minPeriod, maxPeriod) * 20);
+    }
+
+    /**
+     * Number of characters of the encoded items
+     */
+    public static long sizeOf(List<ItemData> items) {
+        long size = 0;
+        for (ItemData item : items) {
+            size += item.getNbt().length();
+        }
+        return size;
+    }
+
+    /**
+     * Current periods in seconds - {players, min, average, max}, null if nobody is tracked
+     */
+    public static long[] summary() {
+        if (PLAYERS.isEmpty()) {
+            return null;
+        }
+        long min = Long.MAX_VALUE;
+        long max = 0;
+        long sum = 0;
+        for (AdaptiveSavePeriod state : PLAYERS.values()) {
+            long seconds = state.periodTicks / 20;
+            min = Math.min(min, seconds);
+            max = Math.max(max, seconds);
+            sum += seconds;
+        }
+        return new long[]{PLAYERS.size(), min, sum / PLAYERS.size(), max};
+    }
+
+    private static double writeMillisPerByte() {
+        long bytes = BackupMetrics.getBytesWritten();
+        if (bytes == 0) {
+            return 0;
+        }
+        return (BackupMetrics.SERIALIZE.getSumMillis() + BackupMetrics.WRITE.getSumMillis()) / bytes;
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
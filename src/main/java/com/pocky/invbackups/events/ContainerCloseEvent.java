@@ -1,6 +1,6 @@
 package com.pocky.invbackups.events;
 
-import com.pocky.invbackups.config.InventoryConfig;
+import com.pocky.invbackups.config.BackupSettings;
 import com.pocky.invbackups.data.InventoryData;
 import com.pocky.invbackups.utils.InventoryUtil;
 import net.minecraft.server.level.ServerPlayer;
@@ -14,11 +14,9 @@ import net.neoforged.neoforge.event.entity.player.PlayerContainerEvent;
  */
 public class ContainerCloseEvent {
 
-    public static boolean containerCloseSaveEnabled = false;
-
     @SubscribeEvent
     public void onContainerClose(PlayerContainerEvent.Close event) {
-        if (!containerCloseSaveEnabled) return;
+        if (!BackupSettings.get().containerCloseSaveEnabled()) return;
         
         // Exclude player's own inventory (E key)
         if (event.getContainer() instanceof InventoryMenu) {
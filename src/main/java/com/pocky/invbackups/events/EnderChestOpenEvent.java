@@ -1,6 +1,6 @@
 package com.pocky.invbackups.events;
 
-import com.pocky.invbackups.config.InventoryConfig;
+import com.pocky.invbackups.config.BackupSettings;
 import com.pocky.invbackups.data.EnderChestData;
 import com.pocky.invbackups.utils.EnderChestUtil;
 import net.minecraft.server.level.ServerPlayer;
@@ -10,12 +10,10 @@ import net.neoforged.neoforge.event.entity.player.PlayerContainerEvent;
 
 public class EnderChestOpenEvent {
 
-    public static boolean enderChestOpenSaveEnabled = false;
-
     @SubscribeEvent
     public void onEnderChestOpen(PlayerContainerEvent.Open event) {
-        if (!enderChestOpenSaveEnabled) return;
-        if (!InventoryConfig.general.enderChestEnabled.get()) return;
+        BackupSettings settings = BackupSettings.get();
+        if (!settings.enderChest(settings.enderChestOpenSaveEnabled())) return;
 
         if (event.getEntity() instanceof ServerPlayer player) {
             // Check if the opened container is an ender chest (3 rows container)
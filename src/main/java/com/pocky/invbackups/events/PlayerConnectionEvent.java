@@ -1,29 +1,35 @@
 package com.pocky.invbackups.events;
 
-import com.pocky.invbackups.config.InventoryConfig;
+import com.pocky.invbackups.config.BackupSettings;
 import net.minecraft.server.level.ServerPlayer;
 import net.neoforged.neoforge.event.entity.player.PlayerEvent;
 import net.neoforged.bus.api.SubscribeEvent;
 import com.pocky.invbackups.data.InventoryData;
 import com.pocky.invbackups.data.EnderChestData;
+import com.pocky.invbackups.restore.PendingRestores;
 import com.pocky.invbackups.utils.InventoryUtil;
 import com.pocky.invbackups.utils.EnderChestUtil;
+import com.pocky.invbackups.utils.PlayerNameHistory;
+import com.pocky.invbackups.utils.PlayerResolver;
 
 public class PlayerConnectionEvent {
 
-    public static boolean joinSaveEnabled = false;
-    public static boolean quitSaveEnabled = false;
-    public static boolean enderChestJoinSaveEnabled = false;
-    public static boolean enderChestQuitSaveEnabled = false;
-
     @SubscribeEvent
     public void onPlayerJoin(PlayerEvent.PlayerLoggedInEvent event) {
         if (event.getEntity() instanceof ServerPlayer player) {
-            if (joinSaveEnabled) {
+            // Keep name lookups fresh (players may have renamed since last visit)
+            PlayerResolver.invalidate(player.getUUID(), player.getScoreboardName());
+            PlayerNameHistory.record(player);
+
+            // Restores queued while the player was offline, before the join snapshot
+            PendingRestores.applyOnJoin(player);
+
+            BackupSettings settings = BackupSettings.get();
+            if (settings.joinSaveEnabled()) {
                 saveInventory(player, "join");
             }
 
-            if (enderChestJoinSaveEnabled && InventoryConfig.general.enderChestEnabled.get()) {
+            if (settings.enderChest(settings.enderChestJoinSaveEnabled())) {
                 saveEnderChest(player, "join");
             }
         }
@@ -32,11 +38,12 @@ public class PlayerConnectionEvent {
     @SubscribeEvent
     public void onPlayerQuit(PlayerEvent.PlayerLoggedOutEvent event) {
         if (event.getEntity() instanceof ServerPlayer player) {
-            if (quitSaveEnabled) {
+            BackupSettings settings = BackupSettings.get();
+            if (settings.quitSaveEnabled()) {
                 saveInventory(player, "quit");
             }
 
-            if (enderChestQuitSaveEnabled && InventoryConfig.general.enderChestEnabled.get()) {
+            if (settings.enderChest(settings.enderChestQuitSaveEnabled())) {
                 saveEnderChest(player, "quit");
             }
         }
@@ -1,6 +1,6 @@
 package com.pocky.invbackups.events;
 
-import com.pocky.invbackups.config.InventoryConfig;
+import com.pocky.invbackups.config.BackupSettings;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.player.Player;
 import net.neoforged.neoforge.event.entity.living.LivingDeathEvent;
@@ -13,19 +13,17 @@ import com.pocky.invbackups.utils.EnderChestUtil;
 
 public class PlayerDeadEvent {
 
-    public static boolean deadSaveEnabled = false;
-    public static boolean enderChestDeadSaveEnabled = false;
-
     @SubscribeEvent(priority = EventPriority.HIGHEST)
     public void onLivingDeath(LivingDeathEvent event) {
         if (event.getEntity() instanceof Player) {
             ServerPlayer player = (ServerPlayer) event.getEntity();
+            BackupSettings settings = BackupSettings.get();
 
-            if (deadSaveEnabled) {
+            if (settings.deadSaveEnabled()) {
                 saveInventory(player, true);
             }
 
-            if (enderChestDeadSaveEnabled && InventoryConfig.general.enderChestEnabled.get()) {
+            if (settings.enderChest(settings.enderChestDeadSaveEnabled())) {
                 saveEnderChest(player, true);
             }
         }
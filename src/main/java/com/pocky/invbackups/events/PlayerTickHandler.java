@@ -1,14 +1,17 @@
 package com.pocky.invbackups.events;
 
 import com.pocky.invbackups.InventoryBackupsMod;
-import com.pocky.invbackups.config.InventoryConfig;
+import com.pocky.invbackups.config.BackupSettings;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.player.Inventory;
 import net.minecraft.world.item.ItemStack;
+import net.neoforged.neoforge.event.entity.player.PlayerEvent;
 import net.neoforged.neoforge.event.tick.PlayerTickEvent;
 import net.neoforged.bus.api.SubscribeEvent;
 import com.pocky.invbackups.data.InventoryData;
 import com.pocky.invbackups.data.EnderChestData;
+import com.pocky.invbackups.metrics.BackupMetrics;
+import com.pocky.invbackups.metrics.TickProfiler;
 import com.pocky.invbackups.utils.InventoryUtil;
 import com.pocky.invbackups.utils.EnderChestUtil;
 
@@ -24,11 +27,6 @@ public class PlayerTickHandler {
     Map<ServerPlayer, InventoryData> lastInventory = new HashMap<>();
     Map<ServerPlayer, EnderChestData> lastEnderChest = new HashMap<>();
 
-    public static boolean tickSaveEnabled = false;
-    public static boolean enderChestTickSaveEnabled = false;
-
-    public static Long PERIOD = 60L;
-
     private static boolean loggedFirst = false;
 
     /**
@@ -37,11 +35,21 @@ public class PlayerTickHandler {
      */
     @SubscribeEvent
     public void onTickPlayerTick(PlayerTickEvent.Post event) {
+        long start = TickProfiler.begin();
+        try {
+            tick(event);
+        } finally {
+            TickProfiler.end(TickProfiler.Section.PLAYER_TICK, start);
+        }
+    }
+
+    private void tick(PlayerTickEvent.Post event) {
         if (!loggedFirst) {
             loggedFirst = true;
         }
 
-        if (!tickSaveEnabled) return;
+        BackupSettings settings = BackupSettings.get();
+        if (!settings.tickSaveEnabled()) return;
         if (!event.getEntity().level().isClientSide()) {
             ServerPlayer player = (ServerPlayer) event.getEntity();
 
@@ -52,18 +60,42 @@ public class PlayerTickHandler {
             long newValue = map.get(player) + 1;
             map.put(player, newValue);
 
-            if ((map.get(player) / 20) >= PERIOD) {
-                saveInventory(player);
-                saveEnderChest(player);
+            if (!settings.adaptivePeriodEnabled()) {
+                if ((map.get(player) / 20) >= settings.preservationPeriod()) {
+                    saveInventory(player);
+                    saveEnderChest(player, settings);
+                    map.put(player, 0L);
+                }
+                return;
+            }
+
+            AdaptiveSavePeriod period = AdaptiveSavePeriod.of(player.getUUID());
+            if (map.get(player) >= period.getPeriodTicks(settings)) {
+                long start = System.nanoTime();
+                long saved = saveInventory(player) + saveEnderChest(player, settings);
+                period.observe(player.server, settings, saved > 0, System.nanoTime() - start, saved);
                 map.put(player, 0L);
             }
         }
     }
 
-    private void saveInventory(ServerPlayer player) {
+    @SubscribeEvent
+    public void onPlayerQuit(PlayerEvent.PlayerLoggedOutEvent event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            map.remove(player);
+            lastInventory.remove(player);
+            lastEnderChest.remove(player);
+            AdaptiveSavePeriod.forget(player.getUUID());
+        }
+    }
+
+    /**
+     * @return size of the saved snapshot (AdaptiveSavePeriod.sizeOf), 0 if nothing was saved
+     */
+    private long saveInventory(ServerPlayer player) {
 
         if (InventoryUtil.isEmpty(player)) {
-            return;
+            return 0;
         }
 
         Map<Integer, ItemStack> itemStackMap = InventoryUtil.collectInventory(player);
@@ -71,7 +103,8 @@ public class PlayerTickHandler {
         var data = InventoryData.encode(player.level().registryAccess(), itemStackMap, player);
 
         if (data.equals(lastInventory.get(player))) {
-            return;
+            BackupMetrics.unchangedSkipped();
+            return 0;
         }
         lastInventory.put(player, data);
         
@@ -81,19 +114,16 @@ public class PlayerTickHandler {
                 InventoryBackupsMod.LOGGER.error("Failed to save inventory for " + player.getName().getString(), ex);
                 return null;
             });
+        return AdaptiveSavePeriod.sizeOf(data.getData());
     }
 
-    private void saveEnderChest(ServerPlayer player) {
-        if (!enderChestTickSaveEnabled) {
-            return;
-        }
-
-        if (!InventoryConfig.general.enderChestEnabled.get()) {
-            return;
+    private long saveEnderChest(ServerPlayer player, BackupSettings settings) {
+        if (!settings.enderChest(settings.enderChestTickSaveEnabled())) {
+            return 0;
         }
 
         if (EnderChestUtil.isEmpty(player)) {
-            return;
+            return 0;
         }
 
         Map<Integer, ItemStack> itemStackMap = EnderChestUtil.collectEnderChest(player);
@@ -101,7 +131,8 @@ public class PlayerTickHandler {
         var data = EnderChestData.encode(player.level().registryAccess(), itemStackMap);
 
         if (data.equals(lastEnderChest.get(player))) {
-            return;
+            BackupMetrics.unchangedSkipped();
+            return 0;
         }
         lastEnderChest.put(player, data);
         
@@ -111,5 +142,6 @@ public class PlayerTickHandler {
                 InventoryBackupsMod.LOGGER.error("Failed to save ender chest for " + player.getName().getString(), ex);
                 return null;
             });
+        return AdaptiveSavePeriod.sizeOf(data.getData());
     }
 }
@@ -1,6 +1,14 @@
 package com.pocky.invbackups.events;
 
+import com.pocky.invbackups.io.AsyncBackupExecutor;
+import com.pocky.invbackups.live.EditAuditLog;
+import com.pocky.invbackups.live.LiveInventorySession;
+import com.pocky.invbackups.loadtest.LoadTestJob;
+import com.pocky.invbackups.metrics.BackupMetrics;
+import com.pocky.invbackups.metrics.TickProfiler;
+import com.pocky.invbackups.restore.BulkRestoreJob;
 import com.pocky.invbackups.utils.BackupCleanupService;
+import com.pocky.invbackups.utils.PlayerNameHistory;
 import net.neoforged.neoforge.event.tick.ServerTickEvent;
 import net.neoforged.bus.api.SubscribeEvent;
 
@@ -8,16 +16,43 @@ public class ServerTickHandler {
 
     private static long tickCounter = 0;
     private static final long CLEANUP_INTERVAL = 72000L; // 1 hour in ticks (20 ticks/sec * 60 sec * 60 min)
+    private static final long NAME_HISTORY_FLUSH_INTERVAL = 6000L; // 5 minutes in ticks
+    private static final long AUDIT_FLUSH_INTERVAL = 100L; // 5 seconds in ticks
 
     @SubscribeEvent
     public void onServerTick(ServerTickEvent.Post event) {
 
         tickCounter++;
 
-        // Run cleanup every hour
+        // Server-wide rollbacks restore a few players per tick
+        BulkRestoreJob.tickAll(event.getServer());
+
+        // Simulated players for /inventory loadtest
+        LoadTestJob.tickAll(event.getServer());
+
+        // Mirror live edit GUIs with their players, once per target
+        LiveInventorySession.tickAll();
+
+        // Write batched edit audit records
+        if (tickCounter % AUDIT_FLUSH_INTERVAL == 0) {
+            EditAuditLog.flush();
+        }
+
+        // Periodic backup statistics log line
+        BackupMetrics.tick();
+
+        // Persist name history changes periodically
+        if (tickCounter % NAME_HISTORY_FLUSH_INTERVAL == 0) {
+            PlayerNameHistory.flushAsync();
+        }
+
+        // Run cleanup (and archiving) every hour, on the maintenance threads - it walks every backup on disk
         if (tickCounter >= CLEANUP_INTERVAL) {
             tickCounter = 0;
-            BackupCleanupService.cleanupOldBackups();
+            AsyncBackupExecutor.maintenanceAsync(BackupCleanupService::runMaintenance, "hourly maintenance");
         }
+
+        // Last - everything the mod did on the server thread this tick is measured by now
+        TickProfiler.endTick();
     }
 }
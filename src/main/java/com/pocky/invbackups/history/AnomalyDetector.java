@@ -0,0 +1,175 @@
+package com.pocky.invbackups.history;
+
+import com.pocky.invbackups.InventoryBackupsMod;
+import com.pocky.invbackups.config.BackupSettings;
+import com.pocky.invbackups.index.BackupIndexer;
+import com.pocky.invbackups.index.SnapshotIndex;
+import com.pocky.invbackups.ui.ChatUI;
+import com.pocky.invbackups.utils.PlayerResolver;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.neoforged.neoforge.server.ServerLifecycleHooks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Flags abnormal item count growth between consecutive snapshots (possible duplication)
+ *
+ * Fed incrementally by BackupIndexer as snapshots are written, so history is never rescanned.
+ * Inventory and ender chest totals are combined - moving items between them is not growth.
+ * Items the player didn't have before are never flagged - picking up a new bulk item is not a jump.
+ * Findings go to InventoryLog/reports/anomalies-<date>.log and to online operators.
+ */
+public class AnomalyDetector {
+
+    private static final Path DIR = Path.of("InventoryLog/reports");
+    private static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    // Forget everything beyond this many players - state is re-seeded from the index on demand
+    private static final int MAX_TRACKED_PLAYERS = 4096;
+
+    // player -> latest totals per backup type
+    private static final Map<UUID, PlayerState> LATEST = new ConcurrentHashMap<>();
+
+    private static class PlayerState {
+        // backup type -> latest totals
+        final Map<String, Map<String, Long>> totals = new HashMap<>();
+        // backup type -> name of the backup those totals came from
+        final Map<String, String> backups = new HashMap<>();
+    }
+
+    /**
+     * Suspicious growth of one item
+     */
+    public record Finding(String itemId, long before, long after) {
+    }
+
+    /**
+     * Check a freshly indexed snapshot against the previous state of the player
+     * Called on the backup worker right after the snapshot was indexed
+     */
+    public static void onSnapshotIndexed(String type, UUID player, String backup, Map<String, Long> totals) {
+        BackupSettings settings = BackupSettings.get();
+        if (!settings.anomalyDetectionEnabled()) {
+            return;
+        }
+
+        if (LATEST.size() > MAX_TRACKED_PLAYERS) {
+            LATEST.clear();
+        }
+
+        PlayerState state = LATEST.computeIfAbsent(player, uuid -> seed(uuid, type, backup));
+        List<Finding> findings;
+        synchronized (state) {
+            // Saves finish on several worker threads - one that finished after a newer one is not "the latest"
+            String latest = state.backups.get(type);
+            if (latest != null && backup.compareTo(latest) < 0) {
+                return;
+            }
+            // First snapshot of this type only sets the baseline
+            boolean known = state.totals.containsKey(type);
+            Map<String, Long> before = combined(state);
+            state.totals.put(type, totals);
+            state.backups.put(type, backup);
+            findings = known ? compare(before, combined(state), settings) : List.of();
+        }
+
+        if (!findings.isEmpty()) {
+            report(player, type, backup, findings);
+        }
+    }
+
+    /**
+     * Start a fresh baseline for a player (after a restore - the jump back is intended)
+     */
+    public static void reset(UUID player) {
+        LATEST.put(player, new PlayerState());
+    }
+
+    private static List<Finding> compare(Map<String, Long> before, Map<String, Long> after, BackupSettings settings) {
+        List<Finding> findings = new ArrayList<>();
+        after.forEach((itemId, count) -> {
+            if (count < settings.anomalyMinCount()) return;
+            long previous = before.getOrDefault(itemId, 0L);
+            if (previous > 0 && count >= settings.anomalyGrowthFactor() * previous) {
+                findings.add(new Finding(itemId, previous, count));
+            }
+        });
+        return findings;
+    }
+
+    private static Map<String, Long> combined(PlayerState state) {
+        Map<String, Long> combined = new HashMap<>();
+        state.totals.values().forEach(totals -> totals.forEach((itemId, count) -> combined.merge(itemId, count, Long::sum)));
+        return combined;
+    }
+
+    /**
+     * Latest known totals per type from the index, excluding the snapshot being checked
+     */
+    private static PlayerState seed(UUID player, String currentType, String currentBackup) {
+        PlayerState state = new PlayerState();
+        for (String type : new String[]{BackupIndexer.INVENTORY, BackupIndexer.ENDERCHEST}) {
+            List<SnapshotIndex.Entry> entries = SnapshotIndex.load(type, player);
+            for (int i = entries.size() - 1; i >= 0; i--) {
+                SnapshotIndex.Entry entry = entries.get(i);
+                if (type.equals(currentType) && entry.getBackup().compareTo(currentBackup) >= 0) continue;
+                state.totals.put(type, new HashMap<>(entry.getItems()));
+                state.backups.put(type, entry.getBackup());
+                break;
+            }
+        }
+        return state;
+    }
+
+    private static void report(UUID player, String type, String backup, List<Finding> findings) {
+        LocalDateTime now = LocalDateTime.now();
+        Path file = DIR.resolve("anomalies-" + now.format(DAY) + ".log");
+
+        try {
+            Files.createDirectories(DIR);
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (Finding finding : findings) {
+                    writer.write(now.format(TIME) + " player=" + player + " backup=" + type + "/" + backup
+                        + " item=" + finding.itemId() + " before=" + finding.before() + " after=" + finding.after());
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            InventoryBackupsMod.LOGGER.error("Failed to write anomaly report", e);
+        }
+
+        InventoryBackupsMod.LOGGER.warn("Abnormal item growth for {} in {}/{}: {}", player, type, backup, findings);
+
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if (server == null) {
+            return;
+        }
+
+        server.execute(() -> {
+            String name = PlayerResolver.resolvePlayer(server, player)
+                .map(PlayerResolver.ResolvedPlayer::getName)
+                .orElse(player.toString());
+            for (ServerPlayer admin : server.getPlayerList().getPlayers()) {
+                if (admin.hasPermissions(2)) {
+                    ChatUI.showAnomalyAlert(admin, name, backup, findings);
+                }
+            }
+        });
+    }
+}
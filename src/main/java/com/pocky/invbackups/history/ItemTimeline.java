@@ -0,0 +1,76 @@
+package com.pocky.invbackups.history;
+
+import com.pocky.invbackups.index.BackupIndexer;
+import com.pocky.invbackups.index.SnapshotIndex;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Finds the backup intervals in which a player's count of an item changed
+ *
+ * Works on SnapshotIndex summaries (nested containers included), so no backup file is opened
+ * unless it was never indexed. Walks newest to oldest and stops after enough transitions.
+ */
+public class ItemTimeline {
+
+    /**
+     * Count of the item changed from countBefore (in backup "before") to countAfter (in "after")
+     */
+    public record Transition(String type, String before, String after, long countBefore, long countAfter) {
+    }
+
+    /**
+     * Result of a trace: latest known count per backup type and the most recent transitions
+     */
+    public record Trace(long inventoryCount, long enderChestCount, int snapshotsScanned, List<Transition> transitions) {
+    }
+
+    /**
+     * Trace an item through inventory and ender chest history (call off the server thread)
+     * @param limit maximum transitions to report per backup type
+     */
+    public static Trace trace(UUID player, String itemId, int limit) {
+        List<Transition> transitions = new ArrayList<>();
+
+        List<SnapshotIndex.Entry> inventory = BackupIndexer.getEntries(BackupIndexer.INVENTORY, player);
+        List<SnapshotIndex.Entry> enderChest = BackupIndexer.getEntries(BackupIndexer.ENDERCHEST, player);
+
+        int scanned = walk(BackupIndexer.INVENTORY, inventory, itemId, limit, transitions)
+            + walk(BackupIndexer.ENDERCHEST, enderChest, itemId, limit, transitions);
+
+        transitions.sort(Comparator.comparing(Transition::after).reversed());
+
+        return new Trace(latestCount(inventory, itemId), latestCount(enderChest, itemId), scanned, transitions);
+    }
+
+    /**
+     * Walk entries (sorted oldest first) from the newest end
+     * @return number of snapshots looked at
+     */
+    private static int walk(String type, List<SnapshotIndex.Entry> entries, String itemId, int limit,
+                            List<Transition> out) {
+        int found = 0;
+        int scanned = 0;
+
+        for (int i = entries.size() - 1; i > 0 && found < limit; i--) {
+            SnapshotIndex.Entry newer = entries.get(i);
+            SnapshotIndex.Entry older = entries.get(i - 1);
+            scanned++;
+
+            long countAfter = newer.getCount(itemId);
+            long countBefore = older.getCount(itemId);
+            if (countAfter != countBefore) {
+                out.add(new Transition(type, older.getBackup(), newer.getBackup(), countBefore, countAfter));
+                found++;
+            }
+        }
+        return scanned;
+    }
+
+    private static long latestCount(List<SnapshotIndex.Entry> entries, String itemId) {
+        return entries.isEmpty() ? 0 : entries.get(entries.size() - 1).getCount(itemId);
+    }
+}
@@ -0,0 +1,226 @@
+package com.pocky.invbackups.history;
+
+import com.pocky.invbackups.data.InventoryData;
+import com.pocky.invbackups.data.ItemData;
+import com.pocky.invbackups.index.ContainerFlattener;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.NbtUtils;
+import net.minecraft.nbt.Tag;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Item-flow diff between two inventory snapshots
+ *
+ * Stacks are compared by parsed identity (item id + components, count excluded), so two
+ * snapshots that only differ in NBT key order produce no changes. Backpack contents are
+ * expanded into their own locations ("#5 > backpack[3]").
+ *
+ * One instance caches parsed item strings, so walking a whole day of snapshots parses each
+ * distinct stack only once. Not thread-safe - use one instance per job.
+ */
+public class SnapshotDiff {
+
+    private static final String BACKPACK_UUID = "sophisticatedcore:storage_uuid";
+
+    public enum Kind {
+        ADDED,
+        REMOVED,
+        MOVED,
+        CHANGED     // same slot, same item, different count
+    }
+
+    /**
+     * Single change between two snapshots
+     */
+    public record Change(Kind kind, String itemId, int count, String from, String to) {
+    }
+
+    /**
+     * Parsed snapshot: location -> stack
+     */
+    public static class Snapshot {
+        private final Map<String, Stack> stacks = new LinkedHashMap<>();
+
+        public int size() {
+            return stacks.size();
+        }
+    }
+
+    private record Stack(String raw, CompoundTag identity, String itemId, int count) {
+    }
+
+    private final Map<String, Stack> parseCache = new HashMap<>();
+
+    public Snapshot snapshot(InventoryData data) {
+        Snapshot snapshot = new Snapshot();
+        if (data == null || data.getData() == null) {
+            return snapshot;
+        }
+
+        for (ItemData item : data.getData()) {
+            String location = slotLabel(item.getIndex());
+            Stack stack = parse(item.getNbt());
+            if (stack == null) continue;
+            snapshot.stacks.put(location, stack);
+
+            // Backpack contents live outside the item - expand them as their own locations
+            if (stack.identity.contains("components", Tag.TAG_COMPOUND)) {
+                CompoundTag components = stack.identity.getCompound("components");
+                if (components.contains(BACKPACK_UUID)) {
+                    addBackpack(snapshot, location, components.get(BACKPACK_UUID), data);
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Changes from a to b
+     */
+    public List<Change> diff(Snapshot a, Snapshot b) {
+        List<Change> changes = new ArrayList<>();
+        Map<String, Stack> unmatchedA = new LinkedHashMap<>();
+        Map<String, Stack> unmatchedB = new LinkedHashMap<>(b.stacks);
+
+        // Pass 1: same location - raw string equality first, parsed identity second
+        for (Map.Entry<String, Stack> entry : a.stacks.entrySet()) {
+            String location = entry.getKey();
+            Stack before = entry.getValue();
+            Stack after = unmatchedB.get(location);
+
+            if (after != null && (after.raw.equals(before.raw) || after.identity.equals(before.identity))) {
+                unmatchedB.remove(location);
+                if (after.count != before.count) {
+                    changes.add(new Change(Kind.CHANGED, before.itemId, after.count - before.count, location, location));
+                }
+            } else {
+                unmatchedA.put(location, before);
+            }
+        }
+
+        // Pass 2: same identity at another location is a move
+        Map<CompoundTag, Deque<String>> addedByIdentity = new HashMap<>();
+        unmatchedB.forEach((location, stack) ->
+            addedByIdentity.computeIfAbsent(stack.identity, k -> new ArrayDeque<>()).add(location));
+
+        for (Map.Entry<String, Stack> entry : unmatchedA.entrySet()) {
+            Stack before = entry.getValue();
+            Deque<String> candidates = addedByIdentity.get(before.identity);
+
+            if (candidates != null && !candidates.isEmpty()) {
+                String to = candidates.poll();
+                Stack after = unmatchedB.remove(to);
+                changes.add(new Change(Kind.MOVED, before.itemId, after.count, entry.getKey(), to));
+                if (after.count != before.count) {
+                    changes.add(new Change(Kind.CHANGED, before.itemId, after.count - before.count, to, to));
+                }
+            } else {
+                changes.add(new Change(Kind.REMOVED, before.itemId, before.count, entry.getKey(), null));
+            }
+        }
+
+        // Pass 3: whatever is left in b is new
+        unmatchedB.forEach((location, stack) ->
+            changes.add(new Change(Kind.ADDED, stack.itemId, stack.count, null, location)));
+
+        return changes;
+    }
+
+    /**
+     * Net item count change per item id (positive = gained)
+     */
+    public static Map<String, Integer> netChanges(List<Change> changes) {
+        Map<String, Integer> net = new LinkedHashMap<>();
+        for (Change change : changes) {
+            int delta = switch (change.kind()) {
+                case ADDED, CHANGED -> change.count();
+                case REMOVED -> -change.count();
+                case MOVED -> 0;
+            };
+            if (delta != 0) {
+                net.merge(change.itemId(), delta, Integer::sum);
+            }
+        }
+        net.values().removeIf(delta -> delta == 0);
+        return net;
+    }
+
+    /**
+     * Human readable slot name: #0-#35, armor, offhand, curios
+     */
+    public static String slotLabel(int index) {
+        if (index >= 0 && index <= 35) {
+            return "#" + index;
+        }
+        return switch (index) {
+            case 100 -> "feet";
+            case 101 -> "legs";
+            case 102 -> "chest";
+            case 103 -> "head";
+            case -106 -> "offhand";
+            default -> index >= 1000 ? "curios#" + (index - 1000) : "slot" + index;
+        };
+    }
+
+    private void addBackpack(Snapshot snapshot, String location, Tag uuidTag, InventoryData data) {
+        String contents;
+        try {
+            contents = data.getBackpackSnapshot(NbtUtils.loadUUID(uuidTag).toString());
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+
+        CompoundTag tag = ContainerFlattener.parse(contents);
+        if (tag == null) {
+            return;
+        }
+
+        CompoundTag inventory = tag.contains("inventory", Tag.TAG_COMPOUND) ? tag.getCompound("inventory") : tag;
+        ListTag items = inventory.getList("Items", Tag.TAG_COMPOUND);
+        for (int i = 0; i < items.size(); i++) {
+            CompoundTag item = items.getCompound(i);
+            int slot = item.contains("Slot", Tag.TAG_ANY_NUMERIC) ? item.getInt("Slot") : i;
+            CompoundTag copy = item.copy();
+            copy.remove("Slot");
+            Stack stack = toStack(copy.toString(), copy);
+            if (stack != null) {
+                snapshot.stacks.put(location + " > backpack[" + slot + "]", stack);
+            }
+        }
+    }
+
+    private Stack parse(String raw) {
+        if (raw == null) {
+            return null;
+        }
+        Stack cached = parseCache.get(raw);
+        if (cached != null) {
+            return cached;
+        }
+
+        Stack stack = toStack(raw, ContainerFlattener.parse(raw));
+        if (stack != null) {
+            parseCache.put(raw, stack);
+        }
+        return stack;
+    }
+
+    private static Stack toStack(String raw, CompoundTag tag) {
+        if (tag == null || !tag.contains("id", Tag.TAG_STRING)) {
+            return null;
+        }
+        int count = ContainerFlattener.countOf(tag);
+        CompoundTag identity = tag.copy();
+        identity.remove("count");
+        identity.remove("Count");
+        return new Stack(raw, identity, tag.getString("id"), count);
+    }
+}
@@ -0,0 +1,222 @@
+package com.pocky.invbackups.index;
+
+import com.pocky.invbackups.InventoryBackupsMod;
+import com.pocky.invbackups.data.EnderChestData;
+import com.pocky.invbackups.data.InventoryData;
+import com.pocky.invbackups.data.ItemData;
+import com.pocky.invbackups.history.AnomalyDetector;
+import com.pocky.invbackups.io.AsyncBackupExecutor;
+import com.pocky.invbackups.io.JsonFileHandler;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Builds SnapshotIndex entries and ItemSearchIndex postings when backups are written
+ *
+ * Runs on the backup worker that wrote the snapshot; synchronous saves (death, join, quit)
+ * hand the work to the executor so the server thread never parses NBT for indexing.
+ */
+public class BackupIndexer {
+
+    public static final String INVENTORY = "inventory";
+    public static final String ENDERCHEST = "enderchest";
+
+    /**
+     * Index a freshly written inventory backup
+     */
+    public static void onInventorySaved(UUID player, String backup, InventoryData data) {
+        runOffThread(() -> index(INVENTORY, player, backup, data.getData(), data::getBackpackSnapshot),
+            player + "/index/inventory");
+    }
+
+    /**
+     * Index a freshly written ender chest backup
+     */
+    public static void onEnderChestSaved(UUID player, String backup, EnderChestData data) {
+        runOffThread(() -> index(ENDERCHEST, player, backup, data.getData(), uuid -> null),
+            player + "/index/enderchest");
+    }
+
+    /**
+     * Walk a snapshot once, feeding both the per-snapshot totals and the search postings
+     */
+    private static void index(String type, UUID player, String backup, List<ItemData> items,
+                              Function<String, String> backpackContents) {
+        ContainerFlattener flattener = new ContainerFlattener(backpackContents);
+        Map<String, Long> totals = new LinkedHashMap<>();
+        ItemSearchIndex.Builder postings = ItemSearchIndex.builder(player, type, backup);
+
+        for (ItemData item : items) {
+            int slot = item.getIndex();
+            flattener.forEachItem(ContainerFlattener.parse(item.getNbt()), stack -> {
+                totals.merge(stack.getString("id"), (long) ContainerFlattener.countOf(stack), Long::sum);
+                postings.add(slot, stack);
+            });
+        }
+
+        SnapshotIndex.append(type, player, new SnapshotIndex.Entry(backup, totals));
+        postings.write();
+        AnomalyDetector.onSnapshotIndexed(type, player, backup, totals);
+    }
+
+    public static SnapshotIndex.Entry summarize(String backup, InventoryData data) {
+        return summarize(backup, data.getData(), data::getBackpackSnapshot);
+    }
+
+    public static SnapshotIndex.Entry summarize(String backup, EnderChestData data) {
+        // Ender chest backups do not carry backpack snapshots
+        return summarize(backup, data.getData(), uuid -> null);
+    }
+
+    private static SnapshotIndex.Entry summarize(String backup, List<ItemData> items,
+                                                 Function<String, String> backpackContents) {
+        ContainerFlattener flattener = new ContainerFlattener(backpackContents);
+        Map<String, Long> totals = new LinkedHashMap<>();
+        for (ItemData item : items) {
+            flattener.addItem(ContainerFlattener.parse(item.getNbt()), totals);
+        }
+        return new SnapshotIndex.Entry(backup, totals);
+    }
+
+    /**
+     * Indexed snapshots of a player, indexing backups written before the index existed first
+     * Reads backup files - call off the server thread
+     */
+    public static List<SnapshotIndex.Entry> getEntries(String type, UUID player) {
+        List<SnapshotIndex.Entry> entries = SnapshotIndex.load(type, player);
+
+        File[] backupFiles = new File("InventoryLog/" + type + "/" + player + "/")
+            .listFiles((dir, name) -> name.endsWith(".json"));
+        if (backupFiles == null) {
+            return entries;
+        }
+
+        Set<String> indexed = new HashSet<>();
+        entries.forEach(entry -> indexed.add(entry.getBackup()));
+
+        int added = 0;
+        for (File backupFile : backupFiles) {
+            String backup = backupFile.getName().replace(".json", "");
+            if (indexed.contains(backup)) continue;
+
+            SnapshotIndex.Entry entry = summarizeFile(type, player, backup);
+            if (entry != null) {
+                SnapshotIndex.append(type, player, entry);
+                added++;
+            }
+        }
+
+        if (added > 0) {
+            InventoryBackupsMod.LOGGER.debug("Indexed {} older {} backups of {}", added, type, player);
+            entries = SnapshotIndex.load(type, player);
+        }
+        return entries;
+    }
+
+    /**
+     * Build search postings for every backup on disk if that never completed
+     * (first start with the index, or a crash during the previous rebuild)
+     */
+    public static void rebuildSearchIndexIfNeeded() {
+        if (ItemSearchIndex.isComplete()) {
+            return;
+        }
+
+        AsyncBackupExecutor.maintenanceAsync(() -> {
+            ItemSearchIndex.clear();
+            int indexed = 0;
+            for (String type : new String[]{INVENTORY, ENDERCHEST}) {
+                File[] playerDirs = new File("InventoryLog/" + type + "/").listFiles(File::isDirectory);
+                if (playerDirs == null) continue;
+
+                for (File playerDir : playerDirs) {
+                    UUID player;
+                    try {
+                        player = UUID.fromString(playerDir.getName());
+                    } catch (IllegalArgumentException e) {
+                        continue;
+                    }
+
+                    File[] backupFiles = playerDir.listFiles((dir, name) -> name.endsWith(".json"));
+                    if (backupFiles == null) continue;
+
+                    // Oldest first, so runs of unchanged snapshots are posted once
+                    Arrays.sort(backupFiles);
+                    for (File backupFile : backupFiles) {
+                        if (indexPostingsFromFile(type, player, backupFile.getName().replace(".json", ""))) {
+                            indexed++;
+                        }
+                    }
+                }
+            }
+            ItemSearchIndex.markComplete();
+            InventoryBackupsMod.LOGGER.info("Item search index built from {} existing backups", indexed);
+        }, "index/search-rebuild");
+    }
+
+    private static boolean indexPostingsFromFile(String type, UUID player, String backup) {
+        try {
+            String dir = type + "/" + player + "/";
+            List<ItemData> items;
+            Function<String, String> backpackContents;
+            if (INVENTORY.equals(type)) {
+                InventoryData data = JsonFileHandler.load(dir, backup, InventoryData.class);
+                if (data == null) return false;
+                items = data.getData();
+                backpackContents = data::getBackpackSnapshot;
+            } else {
+                EnderChestData data = JsonFileHandler.load(dir, backup, EnderChestData.class);
+                if (data == null) return false;
+                items = data.getData();
+                backpackContents = uuid -> null;
+            }
+
+            ContainerFlattener flattener = new ContainerFlattener(backpackContents);
+            ItemSearchIndex.Builder postings = ItemSearchIndex.builder(player, type, backup);
+            for (ItemData item : items) {
+                int slot = item.getIndex();
+                flattener.forEachItem(ContainerFlattener.parse(item.getNbt()), stack -> postings.add(slot, stack));
+            }
+            postings.write();
+            return true;
+        } catch (Exception e) {
+            InventoryBackupsMod.LOGGER.warn("Failed to index backup {}/{}: {}", player, backup, e.getMessage());
+            return false;
+        }
+    }
+
+    private static SnapshotIndex.Entry summarizeFile(String type, UUID player, String backup) {
+        try {
+            String dir = type + "/" + player + "/";
+            if (INVENTORY.equals(type)) {
+                InventoryData data = JsonFileHandler.load(dir, backup, InventoryData.class);
+                return data != null ? summarize(backup, data) : null;
+            }
+            EnderChestData data = JsonFileHandler.load(dir, backup, EnderChestData.class);
+            return data != null ? summarize(backup, data) : null;
+        } catch (Exception e) {
+            InventoryBackupsMod.LOGGER.warn("Failed to index backup {}/{}: {}", player, backup, e.getMessage());
+            return null;
+        }
+    }
+
+    private static void runOffThread(Runnable task, String description) {
+        if (AsyncBackupExecutor.isWorkerThread()) {
+            try {
+                task.run();
+            } catch (Exception e) {
+                InventoryBackupsMod.LOGGER.error("Failed to index backup: " + description, e);
+            }
+        } else {
+            AsyncBackupExecutor.saveAsync(task, description);
+        }
+    }
+}
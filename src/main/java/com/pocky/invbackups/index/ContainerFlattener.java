@@ -0,0 +1,159 @@
+package com.pocky.invbackups.index;
+
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.NbtUtils;
+import net.minecraft.nbt.Tag;
+import net.minecraft.nbt.TagParser;
+
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Flattens stored items (and everything nested inside them) into item id -> count totals,
+ * or visits every nested item compound one by one
+ *
+ * Works purely on NBT so it can run on backup worker threads without touching registries.
+ * Understands:
+ * - shulker boxes and other containers (minecraft:container component)
+ * - bundles (minecraft:bundle_contents component)
+ * - Sophisticated Backpacks (contents looked up from the snapshot's backpack data)
+ */
+public class ContainerFlattener {
+
+    private static final String CONTAINER = "minecraft:container";
+    private static final String BUNDLE_CONTENTS = "minecraft:bundle_contents";
+    private static final String BACKPACK_UUID = "sophisticatedcore:storage_uuid";
+
+    // Guards against absurd nesting (bundle in shulker in backpack in ...)
+    private static final int MAX_DEPTH = 8;
+
+    private final Function<String, String> backpackContents;
+
+    /**
+     * @param backpackContents backpack UUID -> contents SNBT (may return null)
+     */
+    public ContainerFlattener(Function<String, String> backpackContents) {
+        this.backpackContents = backpackContents;
+    }
+
+    /**
+     * Parse a stored SNBT item string, null if it cannot be parsed
+     */
+    public static CompoundTag parse(String snbt) {
+        if (snbt == null || snbt.isEmpty()) {
+            return null;
+        }
+        try {
+            return TagParser.parseTag(snbt);
+        } catch (CommandSyntaxException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Add an item and all of its nested contents to the totals
+     */
+    public void addItem(CompoundTag item, Map<String, Long> totals) {
+        forEachItem(item, stack -> {
+            int count = countOf(stack);
+            if (count > 0) {
+                totals.merge(stack.getString("id"), (long) count, Long::sum);
+            }
+        });
+    }
+
+    /**
+     * Visit an item and every item nested inside it (the item itself first)
+     */
+    public void forEachItem(CompoundTag item, Consumer<CompoundTag> visitor) {
+        visit(item, visitor, 0);
+    }
+
+    /**
+     * Stack size; backpack storage may keep oversized stacks under the legacy "Count" key
+     */
+    public static int countOf(CompoundTag item) {
+        if (item.contains("count", Tag.TAG_ANY_NUMERIC)) {
+            return item.getInt("count");
+        }
+        return item.contains("Count", Tag.TAG_ANY_NUMERIC) ? item.getInt("Count") : 1;
+    }
+
+    private void visit(CompoundTag item, Consumer<CompoundTag> visitor, int depth) {
+        if (item == null || depth > MAX_DEPTH || !item.contains("id", Tag.TAG_STRING)) {
+            return;
+        }
+
+        visitor.accept(item);
+
+        if (!item.contains("components", Tag.TAG_COMPOUND)) {
+            return;
+        }
+        CompoundTag components = item.getCompound("components");
+
+        // Shulker boxes, chests with NBT etc: [{slot: 0, item: {...}}, ...]
+        if (components.contains(CONTAINER, Tag.TAG_LIST)) {
+            ListTag slots = components.getList(CONTAINER, Tag.TAG_COMPOUND);
+            for (int i = 0; i < slots.size(); i++) {
+                visit(slots.getCompound(i).getCompound("item"), visitor, depth + 1);
+            }
+        }
+
+        // Bundles: [{id, count, ...}, ...]
+        if (components.contains(BUNDLE_CONTENTS, Tag.TAG_LIST)) {
+            ListTag stacks = components.getList(BUNDLE_CONTENTS, Tag.TAG_COMPOUND);
+            for (int i = 0; i < stacks.size(); i++) {
+                visit(stacks.getCompound(i), visitor, depth + 1);
+            }
+        }
+
+        // Sophisticated Backpacks keep contents outside the item, in the snapshot's backpack data
+        if (components.contains(BACKPACK_UUID)) {
+            visitBackpack(components.get(BACKPACK_UUID), visitor, depth + 1);
+        }
+    }
+
+    private void visitBackpack(Tag uuidTag, Consumer<CompoundTag> visitor, int depth) {
+        String uuid;
+        try {
+            uuid = NbtUtils.loadUUID(uuidTag).toString();
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+
+        CompoundTag contents = parse(backpackContents.apply(uuid));
+        if (contents == null) {
+            return;
+        }
+
+        // Only the real inventory - upgrade filters also contain item stacks but they are templates
+        Tag inventory = contents.contains("inventory", Tag.TAG_COMPOUND) ? contents.get("inventory") : contents;
+        collectItems(inventory, visitor, depth);
+    }
+
+    /**
+     * Generic walk for item handler NBT ({Items: [{Slot, id, count}]} and similar shapes)
+     */
+    private void collectItems(Tag tag, Consumer<CompoundTag> visitor, int depth) {
+        if (depth > MAX_DEPTH) {
+            return;
+        }
+
+        if (tag instanceof CompoundTag compound) {
+            if (compound.contains("id", Tag.TAG_STRING)) {
+                visit(compound, visitor, depth);
+                return;
+            }
+            for (String key : compound.getAllKeys()) {
+                collectItems(compound.get(key), visitor, depth + 1);
+            }
+        } else if (tag instanceof ListTag list) {
+            for (Tag element : list) {
+                collectItems(element, visitor, depth + 1);
+            }
+        }
+    }
+}
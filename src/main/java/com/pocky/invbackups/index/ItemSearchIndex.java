@@ -0,0 +1,490 @@
+package com.pocky.invbackups.index;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.pocky.invbackups.InventoryBackupsMod;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.Tag;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cross-player inverted index: search term -> (player, backup type, backup, slot) postings
+ *
+ * Terms:
+ * - "id:minecraft:diamond"              item id
+ * - "name:excalibur"                    lowercase word of a custom name
+ * - "component:minecraft:enchantments"  data component present on the item
+ *
+ * Postings are appended to InventoryLog/index/search/<shard>.jsonl, the shard is picked by
+ * term hash so a lookup reads a single file. Items nested in shulker boxes, bundles and
+ * backpacks are posted under the slot of the outermost container.
+ *
+ * A snapshot with the same items in the same slots as the previous one of the player is not
+ * posted again: postings name the first backup of a run of unchanged snapshots, and a
+ * "snapshot" marker per posted backup tells prune where each run ends.
+ */
+public class ItemSearchIndex {
+
+    private static final Path DIR = SnapshotIndex.getDirectory().resolve("search");
+    private static final Path COMPLETE_MARKER = DIR.resolve("complete");
+    private static final int SHARDS = 32;
+    private static final Gson GSON = new Gson();
+    private static final String SNAPSHOT_TERM = "snapshot";
+
+    // Forget everything beyond this many players - the next snapshot of a forgotten player is posted in full
+    private static final int MAX_TRACKED = 4096;
+
+    // type/player -> postings of the current run and the newest backup seen in it
+    private static final Map<String, Run> RUNS = new ConcurrentHashMap<>();
+
+    private record Run(String latest, Map<String, Long> counts) {
+    }
+
+    private static final Object[] LOCKS = new Object[SHARDS];
+    static {
+        for (int i = 0; i < SHARDS; i++) {
+            LOCKS[i] = new Object();
+        }
+    }
+
+    /**
+     * Single occurrence of a term
+     */
+    public static class Posting {
+        String t;       // term
+        String p;       // player UUID
+        String k;       // backup type (inventory / enderchest)
+        String b;       // backup name
+        int s;          // slot of the outermost stack
+        long c;         // item count
+
+        Posting() {
+        }
+
+        Posting(String term, UUID player, String type, String backup, int slot, long count) {
+            this.t = term;
+            this.p = player.toString();
+            this.k = type;
+            this.b = backup;
+            this.s = slot;
+            this.c = count;
+        }
+
+        public String getTerm() {
+            return t;
+        }
+
+        public UUID getPlayer() {
+            return UUID.fromString(p);
+        }
+
+        public String getType() {
+            return k;
+        }
+
+        public String getBackup() {
+            return b;
+        }
+
+        public int getSlot() {
+            return s;
+        }
+
+        public long getCount() {
+            return c;
+        }
+
+        String backupKey() {
+            return backupKey(k, p, b);
+        }
+    }
+
+    /**
+     * Collects postings of one snapshot and appends them shard by shard
+     */
+    public static class Builder {
+        private final UUID player;
+        private final String type;
+        private final String backup;
+        // term + slot -> posting, so three diamond stacks in one shulker become one posting
+        private final Map<String, Posting> postings = new LinkedHashMap<>();
+
+        Builder(UUID player, String type, String backup) {
+            this.player = player;
+            this.type = type;
+            this.backup = backup;
+        }
+
+        /**
+         * Add a (possibly nested) item found in the given slot
+         */
+        public void add(int slot, CompoundTag item) {
+            long count = ContainerFlattener.countOf(item);
+            for (String term : termsOf(item)) {
+                postings.computeIfAbsent(term + "#" + slot,
+                    k -> new Posting(term, player, type, backup, slot, 0)).c += count;
+            }
+        }
+
+        public void write() {
+            if (!startsRun()) {
+                // Same items as the previous snapshot - the postings of its run already cover this one
+                return;
+            }
+
+            Map<Integer, List<Posting>> byShard = new HashMap<>();
+            for (Posting posting : postings.values()) {
+                byShard.computeIfAbsent(shardOf(posting.t), k -> new ArrayList<>()).add(posting);
+            }
+            byShard.computeIfAbsent(shardOf(SNAPSHOT_TERM), k -> new ArrayList<>())
+                .add(new Posting(SNAPSHOT_TERM, player, type, backup, -1, 0));
+            byShard.forEach(ItemSearchIndex::append);
+        }
+
+        private boolean startsRun() {
+            Map<String, Long> counts = new HashMap<>();
+            postings.forEach((key, posting) -> counts.put(key, posting.c));
+
+            if (RUNS.size() > MAX_TRACKED) {
+                RUNS.clear();
+            }
+
+            boolean[] post = {true};
+            RUNS.compute(type + "/" + player, (key, run) -> {
+                if (run == null) {
+                    return new Run(backup, counts);
+                }
+                // Saves finish on several worker threads - a late older one is posted in full and leaves the run alone
+                if (backup.compareTo(run.latest()) < 0) {
+                    return run;
+                }
+                post[0] = !run.counts().equals(counts);
+                return new Run(backup, post[0] ? counts : run.counts());
+            });
+            return post[0];
+        }
+    }
+
+    public static Builder builder(UUID player, String type, String backup) {
+        return new Builder(player, type, backup);
+    }
+
+    /**
+     * Turn user input into a term: "diamond" / "minecraft:diamond" -> id, "name:foo", "component:bar"
+     */
+    public static String toTerm(String query) {
+        String q = query.trim().toLowerCase(Locale.ROOT);
+        if (q.startsWith("name:") || q.startsWith("component:") || q.startsWith("id:")) {
+            if (q.startsWith("component:") && q.indexOf(':', "component:".length()) < 0) {
+                return "component:minecraft:" + q.substring("component:".length());
+            }
+            if (q.startsWith("id:") && q.indexOf(':', "id:".length()) < 0) {
+                return "id:minecraft:" + q.substring("id:".length());
+            }
+            return q;
+        }
+        return "id:" + (q.contains(":") ? q : "minecraft:" + q);
+    }
+
+    /**
+     * All postings of a term, newest backups first
+     */
+    public static List<Posting> search(String term) {
+        int shard = shardOf(term);
+        // A backup indexed twice (save racing the initial rebuild) must only show up once
+        Map<String, Posting> results = new LinkedHashMap<>();
+        // Postings are serialized term first, so lines of other terms are skipped without parsing
+        String prefix = "{\"t\":" + GSON.toJson(term) + ",";
+
+        synchronized (LOCKS[shard]) {
+            Path path = shardPath(shard);
+            if (!Files.exists(path)) {
+                return new ArrayList<>();
+            }
+
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.startsWith(prefix)) continue;
+                    Posting posting = parse(line);
+                    if (posting != null && term.equals(posting.t)) {
+                        results.put(posting.backupKey() + "#" + posting.s, posting);
+                    }
+                }
+            } catch (IOException e) {
+                InventoryBackupsMod.LOGGER.error("Failed to read search index shard " + shard, e);
+            }
+        }
+
+        List<Posting> sorted = new ArrayList<>(results.values());
+        sorted.sort(Comparator.comparing(Posting::getBackup).reversed());
+        return sorted;
+    }
+
+    /**
+     * Remove postings of deleted backups (keys from backupKey)
+     *
+     * A deleted backup whose run of unchanged snapshots continues into a kept backup hands its
+     * postings over to that backup. Only shards that reference a deleted backup are rewritten.
+     */
+    public static void prune(Set<String> removedBackups) {
+        if (removedBackups.isEmpty()) {
+            return;
+        }
+
+        RUNS.entrySet().removeIf(entry -> removedBackups.contains(entry.getKey() + "/" + entry.getValue().latest()));
+        Map<String, String> successors = runSuccessors(removedBackups);
+
+        for (int shard = 0; shard < SHARDS; shard++) {
+            synchronized (LOCKS[shard]) {
+                Path path = shardPath(shard);
+                if (!Files.exists(path)) continue;
+
+                try {
+                    if (!references(path, removedBackups)) continue;
+
+                    Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+                    int kept = 0;
+                    try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+                         BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                        String line;
+                        while ((line = reader.readLine()) != null) {
+                            Posting posting = parse(line);
+                            if (posting == null) continue;
+
+                            String key = posting.backupKey();
+                            if (removedBackups.contains(key)) {
+                                String successor = successors.get(key);
+                                if (successor == null) continue;
+                                posting.b = successor;
+                                line = GSON.toJson(posting);
+                            }
+                            writer.write(line);
+                            writer.newLine();
+                            kept++;
+                        }
+                    }
+
+                    if (kept == 0) {
+                        Files.delete(tmp);
+                        Files.delete(path);
+                    } else {
+                        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    }
+                } catch (IOException e) {
+                    InventoryBackupsMod.LOGGER.error("Failed to prune search index shard " + shard, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Deleted backups that started a run which continues into a kept backup -> the oldest such backup
+     */
+    private static Map<String, String> runSuccessors(Set<String> removedBackups) {
+        // type/player -> backups posted on their own, each one starts a run
+        Map<String, TreeSet<String>> posted = new HashMap<>();
+        for (Posting marker : search(SNAPSHOT_TERM)) {
+            posted.computeIfAbsent(marker.k + "/" + marker.p, k -> new TreeSet<>()).add(marker.b);
+        }
+
+        Map<String, TreeSet<String>> kept = new HashMap<>();
+        Map<String, String> successors = new HashMap<>();
+        for (String removed : removedBackups) {
+            int split = removed.lastIndexOf('/');
+            String owner = removed.substring(0, split);
+            String backup = removed.substring(split + 1);
+
+            TreeSet<String> runs = posted.get(owner);
+            if (runs == null || !runs.contains(backup)) continue;
+
+            // The run ends where the next posted backup starts its own
+            String next = kept.computeIfAbsent(owner, ItemSearchIndex::backupsOnDisk).higher(backup);
+            String nextRun = runs.higher(backup);
+            if (next != null && (nextRun == null || next.compareTo(nextRun) < 0)) {
+                successors.put(removed, next);
+            }
+        }
+        return successors;
+    }
+
+    private static TreeSet<String> backupsOnDisk(String owner) {
+        TreeSet<String> backups = new TreeSet<>();
+        File[] files = new File("InventoryLog/" + owner + "/").listFiles((dir, name) -> name.endsWith(".json"));
+        if (files != null) {
+            for (File file : files) {
+                backups.add(file.getName().replace(".json", ""));
+            }
+        }
+        return backups;
+    }
+
+    private static boolean references(Path path, Set<String> removedBackups) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Posting posting = parse(line);
+                if (posting == null || removedBackups.contains(posting.backupKey())) {
+                    // Torn lines are dropped by the rewrite as well
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether backups written before the index existed have been indexed
+     */
+    public static boolean isComplete() {
+        return Files.exists(COMPLETE_MARKER);
+    }
+
+    /**
+     * Drop all postings (before a full rebuild)
+     */
+    public static void clear() {
+        RUNS.clear();
+        for (int shard = 0; shard < SHARDS; shard++) {
+            synchronized (LOCKS[shard]) {
+                try {
+                    Files.deleteIfExists(shardPath(shard));
+                } catch (IOException e) {
+                    InventoryBackupsMod.LOGGER.error("Failed to clear search index shard " + shard, e);
+                }
+            }
+        }
+        try {
+            Files.deleteIfExists(COMPLETE_MARKER);
+        } catch (IOException e) {
+            InventoryBackupsMod.LOGGER.error("Failed to clear search index marker", e);
+        }
+    }
+
+    public static void markComplete() {
+        try {
+            Files.createDirectories(DIR);
+            Files.writeString(COMPLETE_MARKER, String.valueOf(System.currentTimeMillis()));
+        } catch (IOException e) {
+            InventoryBackupsMod.LOGGER.error("Failed to write search index marker", e);
+        }
+    }
+
+    public static String backupKey(String type, String player, String backup) {
+        return type + "/" + player + "/" + backup;
+    }
+
+    private static void append(int shard, List<Posting> postings) {
+        synchronized (LOCKS[shard]) {
+            Path path = shardPath(shard);
+            try {
+                Files.createDirectories(path.getParent());
+                try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    for (Posting posting : postings) {
+                        writer.write(GSON.toJson(posting));
+                        writer.newLine();
+                    }
+                }
+            } catch (IOException e) {
+                InventoryBackupsMod.LOGGER.error("Failed to append search index shard " + shard, e);
+            }
+        }
+    }
+
+    private static Set<String> termsOf(CompoundTag item) {
+        Set<String> terms = new LinkedHashSet<>();
+        terms.add("id:" + item.getString("id"));
+
+        if (item.contains("components", Tag.TAG_COMPOUND)) {
+            CompoundTag components = item.getCompound("components");
+            for (String key : components.getAllKeys()) {
+                terms.add("component:" + key);
+            }
+
+            if (components.contains("minecraft:custom_name", Tag.TAG_STRING)) {
+                String name = plainText(components.getString("minecraft:custom_name"));
+                for (String word : name.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+                    if (!word.isEmpty()) {
+                        terms.add("name:" + word);
+                    }
+                }
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Plain text of a serialized text component, without needing registry access
+     */
+    private static String plainText(String json) {
+        try {
+            StringBuilder text = new StringBuilder();
+            appendText(JsonParser.parseString(json), text);
+            return text.toString();
+        } catch (JsonParseException e) {
+            return json;
+        }
+    }
+
+    private static void appendText(JsonElement element, StringBuilder text) {
+        if (element.isJsonPrimitive()) {
+            text.append(element.getAsString()).append(' ');
+        } else if (element.isJsonArray()) {
+            element.getAsJsonArray().forEach(child -> appendText(child, text));
+        } else if (element.isJsonObject()) {
+            JsonObject object = element.getAsJsonObject();
+            if (object.has("text")) {
+                appendText(object.get("text"), text);
+            }
+            if (object.has("extra")) {
+                appendText(object.get("extra"), text);
+            }
+        }
+    }
+
+    private static Posting parse(String line) {
+        if (line.isBlank()) {
+            return null;
+        }
+        try {
+            Posting posting = GSON.fromJson(line, Posting.class);
+            return posting != null && posting.t != null && posting.p != null ? posting : null;
+        } catch (JsonParseException e) {
+            // Torn line from a crash mid-append
+            return null;
+        }
+    }
+
+    private static int shardOf(String term) {
+        return Math.floorMod(term.hashCode(), SHARDS);
+    }
+
+    private static Path shardPath(int shard) {
+        return DIR.resolve(String.format("%02d.jsonl", shard));
+    }
+}
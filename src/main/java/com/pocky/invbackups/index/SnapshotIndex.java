@@ -0,0 +1,168 @@
+package com.pocky.invbackups.index;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.pocky.invbackups.InventoryBackupsMod;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-snapshot item totals, one append-only file per player and backup type
+ *
+ * Layout: InventoryLog/index/<inventory|enderchest>/<uuid>.jsonl
+ * Each line: {"backup":"2025-01-01-12-00-00-death","items":{"minecraft:diamond":64,...}}
+ * Totals include everything nested in shulker boxes, bundles and backpacks.
+ */
+public class SnapshotIndex {
+
+    private static final Path DIR = Path.of("InventoryLog/index");
+    private static final Gson GSON = new Gson();
+
+    // One lock per index file - both backup workers may append for the same player
+    private static final Map<Path, Object> LOCKS = new ConcurrentHashMap<>();
+
+    /**
+     * Indexed snapshot: backup name and flattened item totals
+     */
+    public static class Entry {
+        String backup;
+        Map<String, Long> items = new LinkedHashMap<>();
+
+        Entry() {
+        }
+
+        public Entry(String backup, Map<String, Long> items) {
+            this.backup = backup;
+            this.items = items;
+        }
+
+        public String getBackup() {
+            return backup;
+        }
+
+        public Map<String, Long> getItems() {
+            return items != null ? items : Map.of();
+        }
+
+        public long getCount(String itemId) {
+            return getItems().getOrDefault(itemId, 0L);
+        }
+    }
+
+    /**
+     * Append an indexed snapshot
+     */
+    public static void append(String type, UUID player, Entry entry) {
+        Path path = pathOf(type, player);
+        synchronized (lockOf(path)) {
+            try {
+                Files.createDirectories(path.getParent());
+                try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    writer.write(GSON.toJson(entry));
+                    writer.newLine();
+                }
+            } catch (IOException e) {
+                InventoryBackupsMod.LOGGER.error("Failed to append snapshot index for " + player, e);
+            }
+        }
+    }
+
+    /**
+     * All indexed snapshots of a player, oldest first
+     * Backup names sort chronologically, so file order does not matter
+     */
+    public static List<Entry> load(String type, UUID player) {
+        Path path = pathOf(type, player);
+        List<Entry> entries = new ArrayList<>();
+
+        synchronized (lockOf(path)) {
+            if (!Files.exists(path)) {
+                return entries;
+            }
+
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                Map<String, Entry> byBackup = new LinkedHashMap<>();
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) continue;
+                    try {
+                        Entry entry = GSON.fromJson(line, Entry.class);
+                        if (entry != null && entry.backup != null) {
+                            // A re-indexed backup replaces the older line
+                            byBackup.put(entry.backup, entry);
+                        }
+                    } catch (JsonParseException e) {
+                        // Torn line from a crash mid-append, skip it
+                    }
+                }
+                entries.addAll(byBackup.values());
+            } catch (IOException e) {
+                InventoryBackupsMod.LOGGER.error("Failed to read snapshot index for " + player, e);
+            }
+        }
+
+        entries.sort(Comparator.comparing(Entry::getBackup));
+        return entries;
+    }
+
+    /**
+     * Drop entries for deleted backups (rewrites the file)
+     */
+    public static void prune(String type, UUID player, Set<String> removedBackups) {
+        if (removedBackups.isEmpty()) {
+            return;
+        }
+
+        Path path = pathOf(type, player);
+        synchronized (lockOf(path)) {
+            List<Entry> kept = load(type, player);
+            kept.removeIf(entry -> removedBackups.contains(entry.backup));
+
+            try {
+                if (kept.isEmpty()) {
+                    Files.deleteIfExists(path);
+                    return;
+                }
+
+                Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+                try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                    for (Entry entry : kept) {
+                        writer.write(GSON.toJson(entry));
+                        writer.newLine();
+                    }
+                }
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                InventoryBackupsMod.LOGGER.error("Failed to prune snapshot index for " + player, e);
+            }
+        }
+    }
+
+    public static Path pathOf(String type, UUID player) {
+        return DIR.resolve(type).resolve(player + ".jsonl");
+    }
+
+    public static Path getDirectory() {
+        return DIR;
+    }
+
+    private static Object lockOf(Path path) {
+        return LOCKS.computeIfAbsent(path, p -> new Object());
+    }
+}
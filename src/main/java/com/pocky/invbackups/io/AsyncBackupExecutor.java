@@ -1,87 +1,366 @@
 package com.pocky.invbackups.io;
 
 import com.pocky.invbackups.InventoryBackupsMod;
+import com.pocky.invbackups.config.BackupSettings;
+import com.pocky.invbackups.metrics.BackupEvents;
+import com.pocky.invbackups.metrics.BackupMetrics;
 
+import java.util.Locale;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 /**
  * Asynchronous backup executor to prevent TPS drops from disk I/O
+ *
+ * Work is split into lanes with their own threads, so a long retention sweep or index
+ * rebuild never delays snapshot writes, and neither delays what an admin is waiting for:
+ * - WRITE: snapshots and other small writes (saveAsync, submitAsync) - backupThreads
+ * - READ: interactive loads, searches and restore preparation (readAsync) - readThreads
+ * - MAINTENANCE: cleanup, index rebuilds (maintenanceAsync) - maintenanceThreads, lowest priority
+ *
+ * Each lane is a fixed pool at backupThreadPriority (maintenance: minimum priority), or a
+ * virtual thread per task with virtualThreads. Pools are created on first use and replaced on
+ * config reload if their kind changed - the old pool finishes what it was given. Drained on
+ * server stop (shutdown), new pools are created if the server starts again.
  */
 public class AsyncBackupExecutor {
-    
-    // Dedicated thread pool for backups (max 2 threads - disk I/O doesn't benefit from many threads)
-    private static final ExecutorService BACKUP_EXECUTOR = Executors.newFixedThreadPool(
-        2,
-        r -> {
-            Thread t = new Thread(r, "InventoryBackup-IO-Worker");
-            t.setDaemon(true);  // Shutdown with server
-            t.setPriority(Thread.NORM_PRIORITY - 1);  // Lower priority
-            return t;
-        }
-    );
-    
-    // Pending tasks counter
-    private static final AtomicInteger pendingTasks = new AtomicInteger(0);
-    private static final int MAX_PENDING_TASKS = 50;  // Maximum queued tasks
-    
+
+    public enum Lane {
+        WRITE("Write", BackupMetrics.QUEUE_WAIT, BackupMetrics.SAVE_TASK),
+        READ("Read", BackupMetrics.READ_WAIT, BackupMetrics.READ_TASK),
+        MAINTENANCE("Maintenance", BackupMetrics.MAINTENANCE_WAIT, BackupMetrics.MAINTENANCE_TASK);
+
+        private final String threadName;
+        private final BackupMetrics.Histogram waitTime;
+        private final BackupMetrics.Histogram taskTime;
+
+        // Tasks waiting or running
+        private final AtomicInteger pending = new AtomicInteger(0);
+        // Tasks finished (successfully or not), since start
+        private final AtomicLong completed = new AtomicLong(0);
+
+        // Guarded by AsyncBackupExecutor.class - null until first use and after shutdown
+        private ExecutorService executor;
+        // Settings the current pool was built with
+        private BackupSettings poolSettings;
+
+        Lane(String name, BackupMetrics.Histogram waitTime, BackupMetrics.Histogram taskTime) {
+            this.threadName = "InventoryBackup-" + name + "-";
+            this.waitTime = waitTime;
+            this.taskTime = taskTime;
+        }
+
+        public String id() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        public int getPendingTaskCount() {
+            return pending.get();
+        }
+
+        public long getCompletedTaskCount() {
+            return completed.get();
+        }
+
+        private int threads(BackupSettings settings) {
+            return switch (this) {
+                case WRITE -> settings.backupThreads();
+                case READ -> settings.readThreads();
+                case MAINTENANCE -> settings.maintenanceThreads();
+            };
+        }
+
+        private int priority(BackupSettings settings) {
+            return this == MAINTENANCE ? Thread.MIN_PRIORITY : settings.backupThreadPriority();
+        }
+    }
+
+    private static final Lane[] LANES = Lane.values();
+
+    // Saves skipped because the queue was full, since start
+    private static final AtomicLong rejectedTasks = new AtomicLong(0);
+
     /**
-     * Save backup asynchronously
+     * Save backup asynchronously (WRITE lane)
+     * Skipped when maxPendingSaves tasks are already waiting - the next save catches up
      */
     public static CompletableFuture<Void> saveAsync(Runnable saveTask, String description) {
+        AtomicInteger pendingTasks = Lane.WRITE.pending;
         // Reject if too many pending tasks
-        if (pendingTasks.get() > MAX_PENDING_TASKS) {
-            InventoryBackupsMod.LOGGER.warn("Too many pending backups ({}), skipping: {}", 
+        if (pendingTasks.get() > BackupSettings.get().maxPendingSaves()) {
+            InventoryBackupsMod.LOGGER.warn("Too many pending backups ({}), skipping: {}",
                 pendingTasks.get(), description);
+            rejectedTasks.incrementAndGet();
+            BackupEvents.Dropped dropped = new BackupEvents.Dropped();
+            if (dropped.shouldCommit()) {
+                dropped.task = description;
+                dropped.queueDepth = pendingTasks.get();
+                dropped.commit();
+            }
             return CompletableFuture.completedFuture(null);
         }
-        
-        pendingTasks.incrementAndGet();
-        
-        return CompletableFuture.runAsync(() -> {
+
+        return run(Lane.WRITE, () -> {
+            long startTime = System.currentTimeMillis();
+            saveTask.run();
+            long duration = System.currentTimeMillis() - startTime;
+
+            if (duration > 50) {
+                InventoryBackupsMod.LOGGER.warn(
+                    "Slow backup save: {} took {}ms", description, duration);
+            } else {
+                InventoryBackupsMod.LOGGER.debug(
+                    "Backup saved: {} ({}ms)", description, duration);
+            }
+        }, "Failed to save backup: " + description, description);
+    }
+
+    /**
+     * Run a read-only job (index lookups, backup scans) on the READ lane
+     * Never rejected - an admin is waiting for the answer
+     */
+    public static <T> CompletableFuture<T> readAsync(Supplier<T> readTask, String description) {
+        return CompletableFuture.supplyAsync(measured(Lane.READ, () -> {
+            long startTime = System.currentTimeMillis();
+            T result = readTask.get();
+            InventoryBackupsMod.LOGGER.debug("Backup read: {} ({}ms)",
+                description, System.currentTimeMillis() - startTime);
+            return result;
+        }, description), executorOf(Lane.READ));
+    }
+
+    /**
+     * Run admin-issued work (pending restores, audit log) on the WRITE lane
+     * Never rejected - unlike periodic saves it can't simply be retried later
+     */
+    public static CompletableFuture<Void> submitAsync(Runnable task, String description) {
+        return run(Lane.WRITE, task, "Failed to run backup task: " + description, description);
+    }
+
+    /**
+     * Run long background work (retention cleanup, index rebuilds) on the MAINTENANCE lane
+     * Never rejected, never delays saves or reads
+     */
+    public static CompletableFuture<Void> maintenanceAsync(Runnable task, String description) {
+        return run(Lane.MAINTENANCE, task, "Failed to run maintenance task: " + description, description);
+    }
+
+    private static CompletableFuture<Void> run(Lane lane, Runnable task, String errorMessage, String description) {
+        return CompletableFuture.supplyAsync(measured(lane, () -> {
             try {
-                long startTime = System.currentTimeMillis();
-                saveTask.run();
-                long duration = System.currentTimeMillis() - startTime;
-                
-                if (duration > 50) {
-                    InventoryBackupsMod.LOGGER.warn(
-                        "Slow backup save: {} took {}ms", description, duration);
-                } else {
-                    InventoryBackupsMod.LOGGER.debug(
-                        "Backup saved: {} ({}ms)", description, duration);
-                }
+                task.run();
             } catch (Exception e) {
-                InventoryBackupsMod.LOGGER.error("Failed to save backup: " + description, e);
+                InventoryBackupsMod.LOGGER.error(errorMessage, e);
+            }
+            return null;
+        }, description), executorOf(lane));
+    }
+
+    /**
+     * Count the task as pending from now on, and record its wait and run time in the lane's histograms
+     */
+    private static <T> Supplier<T> measured(Lane lane, Supplier<T> task, String description) {
+        int depth = lane.pending.incrementAndGet();
+        if (lane == Lane.WRITE) {
+            BackupMetrics.queueDepth(depth);
+            BackupEvents.Queued queued = new BackupEvents.Queued();
+            if (queued.shouldCommit()) {
+                queued.task = description;
+                queued.queueDepth = depth;
+                queued.commit();
+            }
+        }
+        long submitted = System.nanoTime();
+
+        return () -> {
+            long startNanos = System.nanoTime();
+            lane.waitTime.recordNanos(startNanos - submitted);
+            try {
+                return task.get();
             } finally {
-                pendingTasks.decrementAndGet();
+                lane.taskTime.recordNanos(System.nanoTime() - startNanos);
+                lane.pending.decrementAndGet();
+                lane.completed.incrementAndGet();
+            }
+        };
+    }
+
+    /**
+     * Hands tasks to the lane's current pool - locked so the pool can't be swapped out in between
+     */
+    private static Executor executorOf(Lane lane) {
+        return task -> {
+            synchronized (AsyncBackupExecutor.class) {
+                if (lane.executor == null) {
+                    lane.poolSettings = BackupSettings.get();
+                    lane.executor = create(lane, lane.poolSettings);
+                }
+                try {
+                    lane.executor.execute(task);
+                } catch (RejectedExecutionException e) {
+                    // Counted as pending by measured(), but will never run
+                    lane.pending.decrementAndGet();
+                    throw e;
+                }
+            }
+        };
+    }
+
+    private static ExecutorService create(Lane lane, BackupSettings settings) {
+        if (settings.virtualThreads()) {
+            // No pool to size - concurrency is bounded by maxPendingSaves for saves only
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(lane.threadName, 1).factory());
+        }
+
+        AtomicInteger number = new AtomicInteger(1);
+        int threads = lane.threads(settings);
+        int priority = lane.priority(settings);
+        return new ThreadPoolExecutor(
+            threads, threads,
+            0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+            r -> {
+                Thread t = new Thread(r, lane.threadName + number.getAndIncrement());
+                t.setDaemon(true);  // Never keeps the JVM alive - shutdown drains it first
+                t.setPriority(priority);
+                return t;
+            }
+        );
+    }
+
+    /**
+     * Apply changed [executor] settings (config reload) - running tasks are never interrupted
+     */
+    public static synchronized void applySettings(BackupSettings settings) {
+        for (Lane lane : LANES) {
+            if (lane.executor == null || lane.poolSettings == null) {
+                continue;  // Created with the current settings on first use
             }
-        }, BACKUP_EXECUTOR);
+
+            int threads = lane.threads(settings);
+            if (settings.virtualThreads() != lane.poolSettings.virtualThreads()
+                    || lane.priority(settings) != lane.priority(lane.poolSettings)) {
+                // Threads can't be converted - new tasks go to a new pool, the old one drains and ends
+                lane.executor.shutdown();
+                lane.executor = create(lane, settings);
+                InventoryBackupsMod.LOGGER.info("Backup {} executor replaced ({})", lane.id(), describe(lane, settings));
+            } else if (lane.executor instanceof ThreadPoolExecutor pool && threads != pool.getCorePoolSize()) {
+                // Core may never exceed max, so grow max first and shrink it last
+                if (threads > pool.getMaximumPoolSize()) {
+                    pool.setMaximumPoolSize(threads);
+                    pool.setCorePoolSize(threads);
+                } else {
+                    pool.setCorePoolSize(threads);
+                    pool.setMaximumPoolSize(threads);
+                }
+                InventoryBackupsMod.LOGGER.info("Backup {} executor resized ({})", lane.id(), describe(lane, settings));
+            }
+            lane.poolSettings = settings;
+        }
     }
-    
+
+    private static String describe(Lane lane, BackupSettings settings) {
+        return settings.virtualThreads() ? "virtual threads"
+            : lane.threads(settings) + " threads, priority " + lane.priority(settings);
+    }
+
     /**
-     * Shutdown executor and wait for all tasks to complete
+     * Stop accepting tasks, let queued ones finish within shutdownTimeoutSeconds (server stopped)
+     * Whatever hasn't started by then is abandoned and reported.
      */
     public static void shutdown() {
-        InventoryBackupsMod.LOGGER.info("Shutting down backup executor, waiting for {} pending tasks...", 
-            pendingTasks.get());
-        
-        BACKUP_EXECUTOR.shutdown();
-        try {
-            if (!BACKUP_EXECUTOR.awaitTermination(10, TimeUnit.SECONDS)) {
-                InventoryBackupsMod.LOGGER.warn("Forcing backup executor shutdown");
-                BACKUP_EXECUTOR.shutdownNow();
+        ExecutorService[] executors = new ExecutorService[LANES.length];
+        synchronized (AsyncBackupExecutor.class) {
+            for (Lane lane : LANES) {
+                executors[lane.ordinal()] = lane.executor;
+                lane.executor = null;
+                lane.poolSettings = null;
             }
-        } catch (InterruptedException e) {
-            BACKUP_EXECUTOR.shutdownNow();
-            Thread.currentThread().interrupt();
+        }
+
+        long timeout = BackupSettings.get().shutdownTimeoutSeconds();
+        InventoryBackupsMod.LOGGER.info("Shutting down backup executor, waiting up to {}s for {} writes, {} reads, {} maintenance tasks...",
+            timeout, Lane.WRITE.pending.get(), Lane.READ.pending.get(), Lane.MAINTENANCE.pending.get());
+
+        long[] completedBefore = new long[LANES.length];
+        for (Lane lane : LANES) {
+            completedBefore[lane.ordinal()] = lane.completed.get();
+            if (executors[lane.ordinal()] != null) {
+                executors[lane.ordinal()].shutdown();
+            }
+        }
+
+        // One deadline for all lanes, they drain in parallel
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeout);
+        long completed = 0;
+        int abandoned = 0;
+        for (Lane lane : LANES) {
+            ExecutorService executor = executors[lane.ordinal()];
+            if (executor == null) {
+                continue;
+            }
+            int dropped = 0;
+            try {
+                if (!executor.awaitTermination(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS)) {
+                    dropped = executor.shutdownNow().size();
+                    InventoryBackupsMod.LOGGER.warn("Forcing backup {} executor shutdown", lane.id());
+                }
+            } catch (InterruptedException e) {
+                dropped = executor.shutdownNow().size();
+                Thread.currentThread().interrupt();
+            }
+            // Dropped tasks never reach the decrement in measured() - a server started again in this JVM
+            // (integrated server) would otherwise reject saves against a queue that no longer exists
+            lane.pending.addAndGet(-dropped);
+            abandoned += dropped;
+            completed += lane.completed.get() - completedBefore[lane.ordinal()];
+        }
+
+        if (abandoned > 0) {
+            InventoryBackupsMod.LOGGER.warn("Backup executor stopped: {} tasks completed during shutdown, {} never started",
+                completed, abandoned);
+        } else {
+            InventoryBackupsMod.LOGGER.info("Backup executor drained: {} tasks completed during shutdown", completed);
         }
     }
-    
+
     /**
-     * Get number of pending tasks
+     * Whether the calling thread is one of the backup workers (any lane)
+     * Lets follow-up work (indexing etc.) run inline instead of queueing another task
+     */
+    public static boolean isWorkerThread() {
+        String name = Thread.currentThread().getName();
+        for (Lane lane : LANES) {
+            if (name.startsWith(lane.threadName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get number of pending tasks on the WRITE lane
      */
     public static int getPendingTaskCount() {
-        return pendingTasks.get();
+        return Lane.WRITE.pending.get();
+    }
+
+    /**
+     * Number of tasks finished since server start, all lanes
+     */
+    public static long getCompletedTaskCount() {
+        long completed = 0;
+        for (Lane lane : LANES) {
+            completed += lane.completed.get();
+        }
+        return completed;
+    }
+
+    /**
+     * Number of saves skipped because the queue was full, since server start
+     */
+    public static long getRejectedTaskCount() {
+        return rejectedTasks.get();
     }
 }
@@ -0,0 +1,275 @@
+package com.pocky.invbackups.io;
+
+import com.pocky.invbackups.InventoryBackupsMod;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Adler32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compression of backup files
+ *
+ * A compressed backup keeps its .json name and starts with a 5 byte header - "IBZ", format
+ * version, level - followed by a zlib stream. Anything else is read as plain JSON, so old
+ * backups stay readable and compression can be turned on and off at any time.
+ *
+ * The zlib stream may use a preset dictionary trained from existing backups: item ids and
+ * component keys repeat in every snapshot, and a dictionary lets even a single small file
+ * refer to them. Dictionaries live in InventoryLog/dictionaries/<adler32>.dict and are never
+ * deleted - the id in each zlib header tells which one a file needs.
+ */
+public class BackupCodec {
+
+    public enum Level {
+        NONE(0),
+        FAST(Deflater.BEST_SPEED),              // New snapshots - cheap on the write path
+        HIGH(Deflater.BEST_COMPRESSION);        // Archived snapshots - recompressed in the background
+
+        private final int deflaterLevel;
+
+        Level(int deflaterLevel) {
+            this.deflaterLevel = deflaterLevel;
+        }
+    }
+
+    private static final byte[] MAGIC = {'I', 'B', 'Z', 1};
+    public static final int HEADER_LENGTH = MAGIC.length + 1;
+
+    private static final Path DICTIONARY_DIR = Path.of("InventoryLog/dictionaries");
+    // Deflate can only look back 32 KiB, a longer dictionary is never used
+    private static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+    private static final int TRAINING_SAMPLES = 200;
+    private static final int MIN_TRAINING_SAMPLES = 20;
+
+    // Dictionary used for new files, null - none
+    private static volatile byte[] activeDictionary;
+    // Every dictionary seen, by Adler-32 - files written with an older one stay readable
+    private static final Map<Integer, byte[]> DICTIONARIES = new ConcurrentHashMap<>();
+
+    /**
+     * Compress file content, unchanged for Level.NONE
+     */
+    public static byte[] encode(byte[] content, Level level, boolean useDictionary) {
+        if (level == Level.NONE) {
+            return content;
+        }
+
+        Deflater deflater = new Deflater(level.deflaterLevel);
+        try {
+            byte[] dictionary = activeDictionary;
+            if (useDictionary && dictionary != null) {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(content);
+            deflater.finish();
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 4 + 64);
+            out.write(MAGIC, 0, MAGIC.length);
+            out.write(level.ordinal());
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * File content as written by encode, or as is if it isn't compressed
+     */
+    public static byte[] decode(byte[] data) throws IOException {
+        if (!isCompressed(data)) {
+            return data;
+        }
+
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, HEADER_LENGTH, data.length - HEADER_LENGTH);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && !inflater.finished()) {
+                    if (inflater.needsDictionary()) {
+                        inflater.setDictionary(dictionary(inflater.getAdler()));
+                    } else if (inflater.needsInput()) {
+                        throw new IOException("Truncated compressed backup");
+                    } else {
+                        // No progress and nothing to feed it - would loop forever
+                        throw new IOException("Compressed backup stream is stuck");
+                    }
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt compressed backup", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Whether data starts with the compressed header - the header alone is enough (levelOf reads only that)
+     */
+    public static boolean isCompressed(byte[] data) {
+        return data.length >= HEADER_LENGTH && Arrays.equals(data, 0, MAGIC.length, MAGIC, 0, MAGIC.length);
+    }
+
+    /**
+     * Level a file was written with, NONE for plain JSON
+     */
+    public static Level levelOf(byte[] data) {
+        if (!isCompressed(data)) {
+            return Level.NONE;
+        }
+        int level = data[MAGIC.length];
+        return level > 0 && level < Level.values().length ? Level.values()[level] : Level.FAST;
+    }
+
+    /**
+     * Make the newest dictionary on disk the one used for new files (server start)
+     */
+    public static void loadDictionary() {
+        File[] files = DICTIONARY_DIR.toFile().listFiles((dir, name) -> name.endsWith(".dict"));
+        if (files == null || files.length == 0) {
+            return;
+        }
+        File newest = Arrays.stream(files).max(Comparator.comparingLong(File::lastModified)).get();
+        try {
+            activate(Files.readAllBytes(newest.toPath()));
+        } catch (IOException e) {
+            InventoryBackupsMod.LOGGER.error("Failed to read compression dictionary " + newest, e);
+        }
+    }
+
+    public static boolean hasDictionary() {
+        return activeDictionary != null;
+    }
+
+    /**
+     * Build a dictionary from the newest backups on disk and use it for new files
+     * Does nothing until there are enough backups to learn from. Maintenance threads.
+     */
+    public static void trainDictionary() {
+        List<File> samples = newestBackups(TRAINING_SAMPLES);
+        if (samples.size() < MIN_TRAINING_SAMPLES) {
+            InventoryBackupsMod.LOGGER.debug("Not enough backups to train a compression dictionary yet ({})", samples.size());
+            return;
+        }
+
+        // Count the pieces between JSON/SNBT delimiters - item ids, component keys, common values
+        Map<String, Integer> counts = new HashMap<>();
+        for (File sample : samples) {
+            try {
+                String json = new String(decode(Files.readAllBytes(sample.toPath())), StandardCharsets.UTF_8);
+                for (String piece : json.split("(?<=[,{}\\[\\]])")) {
+                    String trimmed = piece.strip();
+                    if (trimmed.length() >= 6 && trimmed.length() <= 256) {
+                        counts.merge(trimmed, 1, Integer::sum);
+                    }
+                }
+            } catch (IOException e) {
+                InventoryBackupsMod.LOGGER.debug("Skipping {} for dictionary training: {}", sample, e.getMessage());
+            }
+        }
+
+        // Most bytes saved first, then written in reverse - deflate finds the best pieces at the shortest distance
+        List<Map.Entry<String, Integer>> pieces = new ArrayList<>(counts.entrySet());
+        pieces.removeIf(entry -> entry.getValue() < 2);
+        pieces.sort(Comparator.comparingLong((Map.Entry<String, Integer> entry) ->
+            (long) entry.getValue() * entry.getKey().length()).reversed());
+
+        List<String> chosen = new ArrayList<>();
+        int size = 0;
+        for (Map.Entry<String, Integer> entry : pieces) {
+            int length = entry.getKey().getBytes(StandardCharsets.UTF_8).length;
+            if (size + length > MAX_DICTIONARY_SIZE) {
+                continue;
+            }
+            chosen.add(entry.getKey());
+            size += length;
+        }
+        if (chosen.isEmpty()) {
+            return;
+        }
+
+        StringBuilder dictionary = new StringBuilder(size);
+        for (int i = chosen.size() - 1; i >= 0; i--) {
+            dictionary.append(chosen.get(i));
+        }
+        byte[] bytes = dictionary.toString().getBytes(StandardCharsets.UTF_8);
+        int id = adler(bytes);
+
+        try {
+            Files.createDirectories(DICTIONARY_DIR);
+            Files.write(pathOf(id), bytes);
+            activate(bytes);
+            InventoryBackupsMod.LOGGER.info("Trained compression dictionary {} ({} bytes) from {} backups",
+                Integer.toHexString(id), bytes.length, samples.size());
+        } catch (IOException e) {
+            InventoryBackupsMod.LOGGER.error("Failed to store compression dictionary", e);
+        }
+    }
+
+    private static void activate(byte[] dictionary) {
+        DICTIONARIES.put(adler(dictionary), dictionary);
+        activeDictionary = dictionary;
+    }
+
+    private static byte[] dictionary(int id) throws IOException {
+        byte[] dictionary = DICTIONARIES.get(id);
+        if (dictionary != null) {
+            return dictionary;
+        }
+        Path path = pathOf(id);
+        if (!Files.exists(path)) {
+            throw new IOException("Compression dictionary " + Integer.toHexString(id) + " is missing from " + DICTIONARY_DIR);
+        }
+        dictionary = Files.readAllBytes(path);
+        DICTIONARIES.put(id, dictionary);
+        return dictionary;
+    }
+
+    private static List<File> newestBackups(int limit) {
+        List<File> files = new ArrayList<>();
+        for (String type : new String[]{"inventory", "enderchest"}) {
+            File[] playerDirs = new File("InventoryLog/" + type).listFiles(File::isDirectory);
+            if (playerDirs == null) continue;
+            for (File playerDir : playerDirs) {
+                File[] backups = playerDir.listFiles((dir, name) -> name.endsWith(".json"));
+                if (backups != null) {
+                    files.addAll(Arrays.asList(backups));
+                }
+            }
+        }
+        files.sort(Comparator.comparingLong(File::lastModified).reversed());
+        return files.size() > limit ? files.subList(0, limit) : files;
+    }
+
+    private static int adler(byte[] bytes) {
+        Adler32 adler = new Adler32();
+        adler.update(bytes);
+        return (int) adler.getValue();
+    }
+
+    private static Path pathOf(int id) {
+        return DICTIONARY_DIR.resolve(String.format("%08x.dict", id));
+    }
+}
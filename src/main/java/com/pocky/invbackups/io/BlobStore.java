@@ -0,0 +1,130 @@
+package com.pocky.invbackups.io;
+
+import com.pocky.invbackups.InventoryBackupsMod;
+import com.pocky.invbackups.metrics.BackupMetrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Content-addressed storage for large payloads shared between backups (backpack contents)
+ *
+ * Layout: InventoryLog/blobs/<first 2 hex chars>/<sha256>.snbt
+ * Snapshots reference a blob as "blob:<sha256>". Blobs are touched whenever a new
+ * snapshot references them, so retention can simply look at the last-modified time.
+ */
+public class BlobStore {
+
+    public static final String REF_PREFIX = "blob:";
+
+    private static final Path DIR = Path.of("InventoryLog/blobs");
+
+    /**
+     * Store content (if not stored yet) and return its id
+     */
+    public static String put(String content) throws IOException {
+        String id = hash(content);
+        Path path = pathOf(id);
+
+        if (Files.exists(path)) {
+            BackupMetrics.cacheHit(BackupMetrics.CACHE_BLOB_STORE);
+            touch(id);
+            return id;
+        }
+        BackupMetrics.cacheMiss(BackupMetrics.CACHE_BLOB_STORE);
+
+        Files.createDirectories(path.getParent());
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp" + Thread.currentThread().getId());
+        Files.writeString(tmp, content, StandardCharsets.UTF_8);
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return id;
+    }
+
+    /**
+     * Read blob content, null if missing
+     */
+    public static String get(String id) {
+        if (!isValidId(id)) {
+            return null;
+        }
+
+        try {
+            return Files.readString(pathOf(id), StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            InventoryBackupsMod.LOGGER.warn("Referenced backup blob is missing: {}", id);
+        } catch (IOException e) {
+            InventoryBackupsMod.LOGGER.error("Failed to read backup blob: " + id, e);
+        }
+        return null;
+    }
+
+    /**
+     * Refresh last-modified time of a blob that a new snapshot references
+     * @return false if the blob does not exist anymore
+     */
+    public static boolean touch(String id) {
+        try {
+            Files.setLastModifiedTime(pathOf(id), FileTime.fromMillis(System.currentTimeMillis()));
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public static boolean isReference(String value) {
+        return value != null && value.startsWith(REF_PREFIX);
+    }
+
+    public static String toReference(String id) {
+        return REF_PREFIX + id;
+    }
+
+    public static String idOf(String reference) {
+        return reference.substring(REF_PREFIX.length());
+    }
+
+    /**
+     * Resolve a stored value: blob references are loaded, inline values returned as-is
+     */
+    public static String resolve(String value) {
+        return isReference(value) ? get(idOf(value)) : value;
+    }
+
+    public static Path getDirectory() {
+        return DIR;
+    }
+
+    private static Path pathOf(String id) {
+        return DIR.resolve(id.substring(0, 2)).resolve(id + ".snbt");
+    }
+
+    private static boolean isValidId(String id) {
+        if (id == null || id.length() != 64) {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String hash(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
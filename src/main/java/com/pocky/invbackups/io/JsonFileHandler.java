@@ -3,8 +3,11 @@ package com.pocky.invbackups.io;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.pocky.invbackups.InventoryBackupsMod;
+import com.pocky.invbackups.config.BackupSettings;
+import com.pocky.invbackups.metrics.BackupMetrics;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
@@ -18,12 +21,19 @@ public class JsonFileHandler<T extends Serializable> {
         this.obj = obj;
     }
 
-    public void save(String dir, String fileName) {
+    /**
+     * @return bytes written, 0 if writing failed
+     */
+    public long save(String dir, String fileName) {
         Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        long serializeStart = System.nanoTime();
         String json = gson.toJson(this.obj);
+        BackupMetrics.SERIALIZE.recordNanos(System.nanoTime() - serializeStart);
         Path path = DIR.resolve(Path.of(dir).resolve(fileName + ".json"));
 
         try {
+            long writeStart = System.nanoTime();
+
             // Создаем директорию, если ее нет
             Files.createDirectories(path.getParent());
 
@@ -32,15 +42,21 @@ public class JsonFileHandler<T extends Serializable> {
                 Files.createFile(path);
             }
 
-            // Записываем JSON в файл
-            FileWriter writer = new FileWriter(path.toFile());
-            writer.write(json);
-            writer.close();
+            // Записываем JSON в файл (сжатый, если включено)
+            BackupSettings settings = BackupSettings.get();
+            byte[] bytes = BackupCodec.encode(json.getBytes(StandardCharsets.UTF_8),
+                settings.compressionEnabled() ? BackupCodec.Level.FAST : BackupCodec.Level.NONE,
+                settings.compressionDictionary());
+            Files.write(path, bytes);
+            BackupMetrics.WRITE.recordNanos(System.nanoTime() - writeStart);
+            BackupMetrics.written(bytes.length);
+            return bytes.length;
         } catch (IOException e) {
             e.printStackTrace();
         } catch (Exception e) {
             e.printStackTrace();
         }
+        return 0;
     }
 
     public static <T> T load(String dir, String fileName, Class<T> clazz) {
@@ -51,10 +67,9 @@ public class JsonFileHandler<T extends Serializable> {
         try {
             // Создаем директорию, если ее нет
             Files.createDirectories(path.getParent());
-            // Читаем JSON из файла и возвращаем объект класса clazz
-            try (BufferedReader reader = new BufferedReader(new FileReader(path.toFile()))) {
-                return gson.fromJson(reader, clazz);
-            }
+            // Читаем JSON из файла (сжатый или нет) и возвращаем объект класса clazz
+            byte[] content = BackupCodec.decode(Files.readAllBytes(path));
+            return gson.fromJson(new String(content, StandardCharsets.UTF_8), clazz);
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -0,0 +1,67 @@
+package com.pocky.invbackups.live;
+
+import com.pocky.invbackups.utils.CuriosHelper;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.Map;
+
+/**
+ * Live Curios slots of a player (GUI slot i = Curios index 1000 + i)
+ *
+ * Curios stack handlers have no change events, so the target side is still polled, but only
+ * every POLL_INTERVAL ticks and against one collected snapshot. GUI edits are event-driven;
+ * before they are written the Curios are collected again, and only the edited slots are set.
+ */
+public class CuriosTarget implements LiveInventorySession.Target {
+
+    private static final int CURIOS_START = 1000;
+    private static final int POLL_INTERVAL = 5; // 5 ticks = 0.25 seconds
+
+    private final ServerPlayer player;
+    private Map<Integer, ItemStack> current;
+    private int ticks = 0;
+
+    public CuriosTarget(ServerPlayer player) {
+        this.player = player;
+        this.current = CuriosHelper.collectCuriosItems(player);
+    }
+
+    @Override
+    public ItemStack get(int slot) {
+        return current.getOrDefault(CURIOS_START + slot, ItemStack.EMPTY);
+    }
+
+    @Override
+    public void set(int slot, ItemStack stack) {
+        current.put(CURIOS_START + slot, stack);
+        CuriosHelper.setCuriosItem(player, CURIOS_START + slot, stack);
+    }
+
+    @Override
+    public boolean isValid() {
+        return !player.isRemoved();
+    }
+
+    @Override
+    public void poll(LiveInventorySession session) {
+        if (++ticks < POLL_INTERVAL) {
+            return;
+        }
+        refresh(session);
+    }
+
+    @Override
+    public void beforeWrite(LiveInventorySession session) {
+        // The last poll may be up to POLL_INTERVAL ticks old - changes since then must win, not be reverted
+        refresh(session);
+    }
+
+    private void refresh(LiveInventorySession session) {
+        ticks = 0;
+        current = CuriosHelper.collectCuriosItems(player);
+        for (int slot = 0; slot < session.size(); slot++) {
+            session.checkTarget(slot);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.pocky.invbackups.live;
+
+import com.pocky.invbackups.InventoryBackupsMod;
+import com.pocky.invbackups.io.AsyncBackupExecutor;
+import net.minecraft.world.item.ItemStack;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Audit trail of admin edits made through live edit GUIs
+ *
+ * Records are written into preallocated primitive arrays on the server thread - no
+ * allocation per edit. Two buffers take turns: while one is appended to, the other is
+ * written to InventoryLog/audit/<date>.log on the backup threads. If both are busy,
+ * records are dropped and counted rather than blocking the tick.
+ */
+public class EditAuditLog {
+
+    private static final int CAPACITY = 4096;
+    private static final Path DIR = Path.of("InventoryLog/audit");
+    private static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final LiveInventorySession.Kind[] KINDS = LiveInventorySession.Kind.values();
+
+    private static final class Buffer {
+        final long[] time = new long[CAPACITY];
+        final int[] tick = new int[CAPACITY];
+        final long[] viewerMost = new long[CAPACITY];
+        final long[] viewerLeast = new long[CAPACITY];
+        final long[] targetMost = new long[CAPACITY];
+        final long[] targetLeast = new long[CAPACITY];
+        final byte[] kind = new byte[CAPACITY];
+        final byte[] slot = new byte[CAPACITY];
+        final int[] before = new int[CAPACITY];
+        final int[] after = new int[CAPACITY];
+        int size = 0;
+        // Records dropped before this batch
+        long lost = 0;
+    }
+
+    // Server thread only
+    private static Buffer active = new Buffer();
+    // Null while being written
+    private static final AtomicReference<Buffer> SPARE = new AtomicReference<>(new Buffer());
+    // Handed to the backup threads but not written yet - whoever takes it out writes it
+    private static final AtomicReference<Buffer> IN_FLIGHT = new AtomicReference<>();
+    // Appends from a backup thread and from flushNow never interleave
+    private static final Object FILE_LOCK = new Object();
+    private static long dropped = 0;
+
+    /**
+     * Record one slot change pushed from a GUI to a player (server thread)
+     */
+    public static void record(UUID viewer, UUID target, LiveInventorySession.Kind kind, int slot,
+                              ItemStack before, ItemStack after, int tick) {
+        if (active.size == CAPACITY) {
+            flush();
+            if (active.size == CAPACITY) {
+                dropped++;
+                return;
+            }
+        }
+
+        Buffer buffer = active;
+        int i = buffer.size++;
+        buffer.time[i] = System.currentTimeMillis();
+        buffer.tick[i] = tick;
+        buffer.viewerMost[i] = viewer.getMostSignificantBits();
+        buffer.viewerLeast[i] = viewer.getLeastSignificantBits();
+        buffer.targetMost[i] = target.getMostSignificantBits();
+        buffer.targetLeast[i] = target.getLeastSignificantBits();
+        buffer.kind[i] = (byte) kind.ordinal();
+        buffer.slot[i] = (byte) slot;
+        buffer.before[i] = hash(before);
+        buffer.after[i] = hash(after);
+    }
+
+    /**
+     * Hand the filled buffer to the backup threads (server thread, called periodically)
+     */
+    public static void flush() {
+        if (active.size == 0) {
+            return;
+        }
+        Buffer free = SPARE.getAndSet(null);
+        if (free == null) {
+            // Previous batch still being written
+            return;
+        }
+
+        Buffer full = active;
+        full.lost = dropped;
+        active = free;
+        dropped = 0;
+        IN_FLIGHT.set(full);
+        try {
+            AsyncBackupExecutor.submitAsync(() -> {
+                if (IN_FLIGHT.compareAndSet(full, null)) {
+                    writeAndRelease(full);
+                }
+            }, "audit");
+        } catch (RejectedExecutionException e) {
+            // Keep appending to the full buffer's records - the next flush tries again
+            IN_FLIGHT.set(null);
+            active = full;
+            dropped = full.lost;
+            SPARE.set(free);
+        }
+    }
+
+    /**
+     * Write what's buffered on the calling thread (server stopping)
+     * Includes a batch handed to the backup threads that hasn't been written yet.
+     */
+    public static void flushNow() {
+        Buffer inFlight = IN_FLIGHT.getAndSet(null);
+        if (inFlight != null) {
+            writeAndRelease(inFlight);
+        }
+        active.lost = dropped;
+        dropped = 0;
+        write(active);
+        active.size = 0;
+    }
+
+    /**
+     * Write a batch and make it the spare buffer again, even if writing failed
+     */
+    private static void writeAndRelease(Buffer buffer) {
+        try {
+            write(buffer);
+        } finally {
+            buffer.size = 0;
+            SPARE.set(buffer);
+        }
+    }
+
+    private static void write(Buffer buffer) {
+        long lost = buffer.lost;
+        buffer.lost = 0;
+        if (buffer.size == 0 && lost == 0) {
+            return;
+        }
+        synchronized (FILE_LOCK) {
+            append(buffer, lost);
+        }
+    }
+
+    private static void append(Buffer buffer, long lost) {
+
+        Path file = DIR.resolve(LocalDateTime.now().format(DAY) + ".log");
+        try {
+            Files.createDirectories(DIR);
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (int i = 0; i < buffer.size; i++) {
+                    writer.write(LocalDateTime.ofInstant(Instant.ofEpochMilli(buffer.time[i]), ZoneId.systemDefault()).format(TIME)
+                        + " tick=" + buffer.tick[i]
+                        + " viewer=" + new UUID(buffer.viewerMost[i], buffer.viewerLeast[i])
+                        + " target=" + new UUID(buffer.targetMost[i], buffer.targetLeast[i])
+                        + " kind=" + KINDS[buffer.kind[i]]
+                        + " slot=" + buffer.slot[i]
+                        + " before=" + Integer.toHexString(buffer.before[i])
+                        + " after=" + Integer.toHexString(buffer.after[i]));
+                    writer.newLine();
+                }
+                if (lost > 0) {
+                    writer.write(LocalDateTime.now().format(TIME) + " dropped=" + lost);
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            InventoryBackupsMod.LOGGER.error("Failed to write edit audit log", e);
+        }
+    }
+
+    /**
+     * Item, components and count - 0 for an empty slot
+     */
+    private static int hash(ItemStack stack) {
+        return stack.isEmpty() ? 0 : 31 * ItemStack.hashItemAndComponents(stack) + stack.getCount();
+    }
+}
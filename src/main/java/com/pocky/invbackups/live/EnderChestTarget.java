@@ -0,0 +1,70 @@
+package com.pocky.invbackups.live;
+
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.Container;
+import net.minecraft.world.ContainerListener;
+import net.minecraft.world.inventory.PlayerEnderChestContainer;
+import net.minecraft.world.item.ItemStack;
+
+/**
+ * Live ender chest of a player
+ *
+ * The ender chest tells its listeners when anything in it changed (not which slot), so the
+ * 27 slots are only compared after such a notification.
+ */
+public class EnderChestTarget implements LiveInventorySession.Target {
+
+    private final ServerPlayer player;
+    private boolean changed = false;
+    private final ContainerListener listener = (Container container) -> changed = true;
+
+    public EnderChestTarget(ServerPlayer player) {
+        this.player = player;
+    }
+
+    private PlayerEnderChestContainer enderChest() {
+        return player.getEnderChestInventory();
+    }
+
+    @Override
+    public ItemStack get(int slot) {
+        return enderChest().getItem(slot);
+    }
+
+    @Override
+    public void set(int slot, ItemStack stack) {
+        enderChest().setItem(slot, stack);
+    }
+
+    @Override
+    public boolean isValid() {
+        return !player.isRemoved();
+    }
+
+    @Override
+    public void attach(LiveInventorySession session) {
+        enderChest().addListener(listener);
+    }
+
+    @Override
+    public void detach(LiveInventorySession session) {
+        enderChest().removeListener(listener);
+    }
+
+    @Override
+    public void poll(LiveInventorySession session) {
+        if (!changed) {
+            return;
+        }
+        changed = false;
+        for (int slot = 0; slot < session.size(); slot++) {
+            session.checkTarget(slot);
+        }
+    }
+
+    @Override
+    public void written() {
+        // Our own setItem calls notified the listener - nothing new to look at
+        changed = false;
+    }
+}
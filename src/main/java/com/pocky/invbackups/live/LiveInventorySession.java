@@ -0,0 +1,357 @@
+package com.pocky.invbackups.live;
+
+import com.pocky.invbackups.data.EnderChestData;
+import com.pocky.invbackups.data.InventoryData;
+import com.pocky.invbackups.metrics.TickProfiler;
+import com.pocky.invbackups.utils.EnderChestUtil;
+import com.pocky.invbackups.utils.InventoryUtil;
+import net.minecraft.core.NonNullList;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.Container;
+import net.minecraft.world.SimpleContainer;
+import net.minecraft.world.inventory.AbstractContainerMenu;
+import net.minecraft.world.inventory.ContainerListener;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Shared live view of one player's inventory, ender chest or Curios (server thread only)
+ *
+ * Every admin editing the same target gets a menu on the same container, like several
+ * players looking into one chest - their edits are serialized by vanilla and never
+ * overwrite each other. The session mirrors that container with the target once per tick
+ * (tickAll), no matter how many viewers there are.
+ *
+ * Both sides report which slots changed instead of being compared in full: the GUI through
+ * slot listeners on the viewers' menus (fed by the per-slot diff vanilla already does in
+ * broadcastChanges), the target through its Target implementation. Only dirty slots are
+ * copied. If both sides changed a slot since the last tick the target wins - that change
+ * already happened in the world.
+ *
+ * The first edit of a session saves a "preedit" backup of the target, and every slot
+ * pushed to the target is recorded in EditAuditLog with the viewer who changed it.
+ */
+public class LiveInventorySession {
+
+    /**
+     * What a session mirrors - container slot i is target slot i
+     */
+    public enum Kind {
+        INVENTORY(41),      // 0-35 main, 36-39 armor, 40 offhand (Inventory numbering)
+        ENDER_CHEST(27),
+        CURIOS(18);         // Curios index 1000 + i
+
+        private final int size;
+
+        Kind(int size) {
+            this.size = size;
+        }
+    }
+
+    /**
+     * The live side of the session
+     */
+    public interface Target {
+        ItemStack get(int slot);
+
+        void set(int slot, ItemStack stack);
+
+        boolean isValid();
+
+        /**
+         * Start reporting changes through LiveInventorySession.targetChanged
+         */
+        default void attach(LiveInventorySession session) {
+        }
+
+        default void detach(LiveInventorySession session) {
+        }
+
+        /**
+         * Called once per tick, for changes that have no event (LiveInventorySession.checkTarget)
+         */
+        default void poll(LiveInventorySession session) {
+        }
+
+        /**
+         * Called before dirty GUI slots are written, for polled targets to report what changed since the last poll
+         */
+        default void beforeWrite(LiveInventorySession session) {
+        }
+
+        /**
+         * Called after dirty GUI slots were written
+         */
+        default void written() {
+        }
+    }
+
+    private record Key(UUID player, Kind kind) {
+    }
+
+    public static final String PRE_EDIT_SUFFIX = "preedit";
+
+    private static final Map<Key, LiveInventorySession> SESSIONS = new HashMap<>();
+
+    private final ServerPlayer player;
+    private final Kind kind;
+    private final Target target;
+    private final SimpleContainer container;
+
+    // Last state both sides agreed on, per slot
+    private final NonNullList<ItemStack> synced;
+    private final BitSet guiDirty = new BitSet();
+    private final BitSet targetDirty = new BitSet();
+    // Viewer whose menu first reported the pending change of a slot
+    private final UUID[] editors;
+    private final Map<AbstractContainerMenu, ContainerListener> viewers = new LinkedHashMap<>();
+    private boolean snapshotTaken = false;
+    private boolean closed = false;
+
+    private LiveInventorySession(ServerPlayer player, Kind kind, Target target) {
+        this.player = player;
+        this.kind = kind;
+        this.target = target;
+        this.container = new SimpleContainer(kind.size);
+        this.synced = NonNullList.withSize(kind.size, ItemStack.EMPTY);
+        this.editors = new UUID[kind.size];
+        for (int i = 0; i < kind.size; i++) {
+            ItemStack stack = target.get(i).copy();
+            synced.set(i, stack);
+            container.setItem(i, stack.copy());
+        }
+        target.attach(this);
+    }
+
+    /**
+     * The session for a target, created on first use
+     */
+    public static LiveInventorySession of(ServerPlayer player, Kind kind) {
+        Key key = new Key(player.getUUID(), kind);
+        LiveInventorySession session = SESSIONS.get(key);
+        if (session != null && session.player != player) {
+            // The player relogged - the old session mirrors a removed entity
+            session.dispose();
+            session = null;
+        }
+        if (session == null) {
+            session = new LiveInventorySession(player, kind, createTarget(player, kind));
+            SESSIONS.put(key, session);
+        }
+        return session;
+    }
+
+    private static Target createTarget(ServerPlayer player, Kind kind) {
+        return switch (kind) {
+            case INVENTORY -> new PlayerInventoryTarget(player);
+            case ENDER_CHEST -> new EnderChestTarget(player);
+            case CURIOS -> new CuriosTarget(player);
+        };
+    }
+
+    /**
+     * Mirror every session with its target (called every server tick)
+     */
+    public static void tickAll() {
+        if (SESSIONS.isEmpty()) {
+            return;
+        }
+        long start = TickProfiler.begin();
+        try {
+            Iterator<LiveInventorySession> iterator = SESSIONS.values().iterator();
+            while (iterator.hasNext()) {
+                LiveInventorySession session = iterator.next();
+                if (!session.target.isValid()) {
+                    // Viewers' menus close by themselves (stillValid), stop mirroring now
+                    session.closeQuietly();
+                    iterator.remove();
+                    continue;
+                }
+                session.flush();
+            }
+        } finally {
+            TickProfiler.end(TickProfiler.Section.LIVE_SYNC, start);
+        }
+    }
+
+    /**
+     * Container all viewers' menus show - slots 0..size-1 mirror the target
+     */
+    public Container getContainer() {
+        return container;
+    }
+
+    public int size() {
+        return kind.size;
+    }
+
+    /**
+     * Start reporting a viewer's edits - call after the menu's slots are final
+     */
+    public void addViewer(AbstractContainerMenu menu, ServerPlayer viewer) {
+        UUID viewerId = viewer.getUUID();
+        ContainerListener listener = new ContainerListener() {
+            @Override
+            public void slotChanged(AbstractContainerMenu changedMenu, int menuSlot, ItemStack stack) {
+                if (menuSlot < 0 || menuSlot >= changedMenu.slots.size()
+                        || changedMenu.getSlot(menuSlot).container != container) {
+                    return;
+                }
+                int slot = changedMenu.getSlot(menuSlot).getContainerSlot();
+                if (slot < kind.size && !ItemStack.matches(stack, synced.get(slot))) {
+                    // The clicking viewer's menu broadcasts right after the click, so it reports first
+                    if (!guiDirty.get(slot)) {
+                        editors[slot] = viewerId;
+                    }
+                    guiDirty.set(slot);
+                }
+            }
+
+            @Override
+            public void dataChanged(AbstractContainerMenu changedMenu, int id, int value) {
+            }
+        };
+        viewers.put(menu, listener);
+        menu.addSlotListener(listener);
+    }
+
+    /**
+     * Push the viewer's outstanding edits and stop listening (menu closed)
+     * Compares all slots once - the menu won't broadcast again to report the last clicks
+     */
+    public void removeViewer(AbstractContainerMenu menu, ServerPlayer viewer) {
+        ContainerListener listener = viewers.remove(menu);
+        if (listener == null) {
+            return;
+        }
+        menu.removeSlotListener(listener);
+
+        for (int slot = 0; slot < kind.size; slot++) {
+            if (!guiDirty.get(slot) && !ItemStack.matches(container.getItem(slot), synced.get(slot))) {
+                editors[slot] = viewer.getUUID();
+                guiDirty.set(slot);
+            }
+        }
+        flush();
+
+        if (viewers.isEmpty()) {
+            dispose();
+        }
+    }
+
+    /**
+     * Report a changed target slot (from the target's listener)
+     */
+    public void targetChanged(int slot, ItemStack stack) {
+        if (slot >= 0 && slot < kind.size && !ItemStack.matches(stack, synced.get(slot))) {
+            targetDirty.set(slot);
+        }
+    }
+
+    /**
+     * Compare one target slot against the synced state (targets without events)
+     */
+    public void checkTarget(int slot) {
+        targetChanged(slot, target.get(slot));
+    }
+
+    private void flush() {
+        if (closed || !target.isValid()) {
+            return;
+        }
+
+        target.poll(this);
+        if (!guiDirty.isEmpty()) {
+            target.beforeWrite(this);
+        }
+
+        // Target wins conflicts
+        for (int slot = targetDirty.nextSetBit(0); slot >= 0; slot = targetDirty.nextSetBit(slot + 1)) {
+            ItemStack stack = target.get(slot).copy();
+            synced.set(slot, stack);
+            container.setItem(slot, stack.copy());
+            if (guiDirty.get(slot)) {
+                discardEdit(slot);
+                guiDirty.clear(slot);
+            }
+        }
+
+        if (!guiDirty.isEmpty() && !snapshotTaken) {
+            savePreEditSnapshot();
+            snapshotTaken = true;
+        }
+
+        boolean wrote = false;
+        int tick = player.server.getTickCount();
+        for (int slot = guiDirty.nextSetBit(0); slot >= 0; slot = guiDirty.nextSetBit(slot + 1)) {
+            ItemStack stack = container.getItem(slot).copy();
+            UUID editor = editors[slot];
+            EditAuditLog.record(editor != null ? editor : player.getUUID(), player.getUUID(), kind, slot,
+                synced.get(slot), stack, tick);
+            editors[slot] = null;
+            synced.set(slot, stack);
+            target.set(slot, stack.copy());
+            wrote = true;
+        }
+        if (wrote) {
+            target.written();
+        }
+
+        targetDirty.clear();
+        guiDirty.clear();
+    }
+
+    /**
+     * A GUI edit lost against a target change - take back what the editor picked up from the slot,
+     * or it would exist twice (on the cursor and again in the reset slot)
+     */
+    private void discardEdit(int slot) {
+        UUID editor = editors[slot];
+        editors[slot] = null;
+        ServerPlayer viewer = editor != null ? player.server.getPlayerList().getPlayer(editor) : null;
+        if (viewer == null || !viewers.containsKey(viewer.containerMenu)) {
+            return;
+        }
+        if (!viewer.containerMenu.getCarried().isEmpty()) {
+            viewer.containerMenu.setCarried(ItemStack.EMPTY);
+            viewer.containerMenu.sendAllDataToRemote();
+        }
+    }
+
+    /**
+     * Back up the target as it was before the first admin edit of this session
+     */
+    private void savePreEditSnapshot() {
+        if (kind == Kind.ENDER_CHEST) {
+            EnderChestData.encode(player.level().registryAccess(), EnderChestUtil.collectEnderChest(player))
+                .saveAsync(player.getUUID(), PRE_EDIT_SUFFIX);
+        } else {
+            InventoryData.encode(player.level().registryAccess(), InventoryUtil.collectInventory(player), player)
+                .saveAsync(player.getUUID(), PRE_EDIT_SUFFIX);
+        }
+    }
+
+    private void dispose() {
+        closeQuietly();
+        SESSIONS.remove(new Key(player.getUUID(), kind), this);
+    }
+
+    private void closeQuietly() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        List<AbstractContainerMenu> menus = new ArrayList<>(viewers.keySet());
+        menus.forEach(menu -> menu.removeSlotListener(viewers.get(menu)));
+        viewers.clear();
+        target.detach(this);
+    }
+}
@@ -0,0 +1,103 @@
+package com.pocky.invbackups.live;
+
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.player.Inventory;
+import net.minecraft.world.inventory.AbstractContainerMenu;
+import net.minecraft.world.inventory.ContainerListener;
+import net.minecraft.world.inventory.Slot;
+import net.minecraft.world.item.ItemStack;
+
+/**
+ * Live main inventory, armor and offhand of a player (slots 0-35, 36-39, 40 - Inventory numbering)
+ *
+ * Changes are reported by a slot listener on whatever menu the player has open, which vanilla
+ * diffs every tick anyway. Container menus don't show armor and offhand, so those five slots
+ * are compared directly while one is open.
+ */
+public class PlayerInventoryTarget implements LiveInventorySession.Target {
+
+    private static final int ARMOR_START = 36;
+
+    private final ServerPlayer player;
+    private LiveInventorySession session;
+    private AbstractContainerMenu listenedMenu;
+
+    private final ContainerListener listener = new ContainerListener() {
+        @Override
+        public void slotChanged(AbstractContainerMenu menu, int menuSlot, ItemStack stack) {
+            if (session == null || menuSlot < 0 || menuSlot >= menu.slots.size()) return;
+            Slot slot = menu.getSlot(menuSlot);
+            if (slot.container == player.getInventory()) {
+                session.targetChanged(slot.getContainerSlot(), stack);
+            }
+        }
+
+        @Override
+        public void dataChanged(AbstractContainerMenu menu, int id, int value) {
+        }
+    };
+
+    public PlayerInventoryTarget(ServerPlayer player) {
+        this.player = player;
+    }
+
+    @Override
+    public ItemStack get(int slot) {
+        return player.getInventory().getItem(slot);
+    }
+
+    @Override
+    public void set(int slot, ItemStack stack) {
+        player.getInventory().setItem(slot, stack);
+    }
+
+    @Override
+    public boolean isValid() {
+        return !player.isRemoved();
+    }
+
+    @Override
+    public void attach(LiveInventorySession session) {
+        this.session = session;
+        listenTo(player.containerMenu);
+    }
+
+    @Override
+    public void detach(LiveInventorySession session) {
+        if (listenedMenu != null) {
+            listenedMenu.removeSlotListener(listener);
+            listenedMenu = null;
+        }
+        this.session = null;
+    }
+
+    @Override
+    public void poll(LiveInventorySession session) {
+        if (player.containerMenu != listenedMenu) {
+            // Player opened or closed a screen - changes in between went unreported
+            listenTo(player.containerMenu);
+            for (int slot = 0; slot < session.size(); slot++) {
+                session.checkTarget(slot);
+            }
+        } else if (listenedMenu != player.inventoryMenu) {
+            for (int slot = ARMOR_START; slot < session.size(); slot++) {
+                session.checkTarget(slot);
+            }
+        }
+    }
+
+    @Override
+    public void written() {
+        // Push the new stacks to the player's client right away
+        player.containerMenu.broadcastChanges();
+    }
+
+    private void listenTo(AbstractContainerMenu menu) {
+        if (listenedMenu != null) {
+            listenedMenu.removeSlotListener(listener);
+        }
+        listenedMenu = menu;
+        // addSlotListener broadcasts, so pending changes arrive immediately
+        menu.addSlotListener(listener);
+    }
+}
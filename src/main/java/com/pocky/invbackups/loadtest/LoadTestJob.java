@@ -0,0 +1,354 @@
+package com.pocky.invbackups.loadtest;
+
+import com.mojang.authlib.GameProfile;
+import com.pocky.invbackups.InventoryBackupsMod;
+import com.pocky.invbackups.config.BackupSettings;
+import com.pocky.invbackups.events.AdaptiveSavePeriod;
+import com.pocky.invbackups.events.ContainerCloseEvent;
+import com.pocky.invbackups.events.PlayerConnectionEvent;
+import com.pocky.invbackups.events.PlayerDeadEvent;
+import com.pocky.invbackups.events.PlayerTickHandler;
+import com.pocky.invbackups.history.AnomalyDetector;
+import com.pocky.invbackups.index.BackupIndexer;
+import com.pocky.invbackups.index.ItemSearchIndex;
+import com.pocky.invbackups.index.SnapshotIndex;
+import com.pocky.invbackups.io.AsyncBackupExecutor;
+import com.pocky.invbackups.metrics.BackupMetrics;
+import com.pocky.invbackups.ui.ChatUI;
+import com.pocky.invbackups.utils.PlayerNameHistory;
+import com.pocky.invbackups.utils.TranslationHelper;
+import net.minecraft.core.Holder;
+import net.minecraft.core.component.DataComponents;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.Container;
+import net.minecraft.world.inventory.ChestMenu;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.item.component.ItemContainerContents;
+import net.minecraft.world.item.enchantment.EnchantmentHelper;
+import net.neoforged.neoforge.common.util.FakePlayer;
+import net.neoforged.neoforge.event.entity.living.LivingDeathEvent;
+import net.neoforged.neoforge.event.entity.player.PlayerContainerEvent;
+import net.neoforged.neoforge.event.entity.player.PlayerEvent;
+import net.neoforged.neoforge.event.tick.PlayerTickEvent;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Simulates fake players to measure what backups cost before going to production
+ *
+ * Spawns FakePlayers with random inventories and feeds them through fresh instances of the
+ * real handlers (PlayerTickHandler, PlayerDeadEvent, PlayerConnectionEvent,
+ * ContainerCloseEvent) every tick, at the rates from the [loadtest] config. Nothing is posted
+ * on the event bus, so other mods never see the fake players. Measures MSPT, the server
+ * thread time spent in the handlers, the AsyncBackupExecutor queue and bytes written. The
+ * fake players' backups are deleted once the queue has drained.
+ */
+public class LoadTestJob {
+
+    public static final int MAX_PLAYERS = 1000;
+    private static final long TICKS_PER_HOUR = 72000L;
+
+    /**
+     * Measurements of a finished run
+     */
+    public record Report(int players, long ticks, double baselineMspt, double averageMspt, double maxMspt,
+                         double averageHandlerMs, double maxHandlerMs, double averageQueue, int maxQueue,
+                         long rejected, double drainSeconds, long files, long bytes,
+                         int changes, int deaths, int reconnects, int containerCloses) {
+    }
+
+    private static LoadTestJob active;
+
+    private final ServerPlayer executor;
+    private final List<FakePlayer> players = new ArrayList<>();
+    private final RandomSource random = RandomSource.create();
+    private final long durationTicks;
+
+    // Own handler instances - their per-player state must not mix with real players
+    private final PlayerTickHandler tickHandler = new PlayerTickHandler();
+    private final PlayerDeadEvent deadHandler = new PlayerDeadEvent();
+    private final PlayerConnectionEvent connectionHandler = new PlayerConnectionEvent();
+    private final ContainerCloseEvent closeHandler = new ContainerCloseEvent();
+
+    // Chance per player per tick
+    private final float changeChance;
+    private final float deathChance;
+    private final float reconnectChance;
+    private final float closeChance;
+
+    private final double baselineMspt;
+    private final long rejectedAtStart;
+    private final long filesAtStart;
+    private final long bytesAtStart;
+
+    private long ticks = 0;
+    private double msptSum = 0;
+    private double maxMspt = 0;
+    private long handlerNanosSum = 0;
+    private long maxHandlerNanos = 0;
+    private long queueSum = 0;
+    private int maxQueue = 0;
+    private int changes = 0;
+    private int deaths = 0;
+    private int reconnects = 0;
+    private int containerCloses = 0;
+    private long drainStart = -1;
+
+    private LoadTestJob(ServerPlayer executor, MinecraftServer server, int count, int seconds) {
+        this.executor = executor;
+        this.durationTicks = seconds * 20L;
+        BackupSettings settings = BackupSettings.get();
+        this.changeChance = perTick(settings.loadTestInventoryChangesPerHour());
+        this.deathChance = perTick(settings.loadTestDeathsPerHour());
+        this.reconnectChance = perTick(settings.loadTestReconnectsPerHour());
+        this.closeChance = perTick(settings.loadTestContainerClosesPerHour());
+
+        this.baselineMspt = server.getAverageTickTimeNanos() / 1_000_000.0;
+        this.rejectedAtStart = AsyncBackupExecutor.getRejectedTaskCount();
+        this.filesAtStart = BackupMetrics.getFilesWritten();
+        this.bytesAtStart = BackupMetrics.getBytesWritten();
+
+        for (int i = 0; i < count; i++) {
+            // Not FakePlayerFactory - it caches players until the level unloads, these go away with the job
+            FakePlayer player = new FakePlayer(server.overworld(), profileOf(i));
+            randomize(player);
+            players.add(player);
+        }
+    }
+
+    /**
+     * Start a run (server thread)
+     * @return false if another run is still active
+     */
+    public static boolean start(ServerPlayer executor, MinecraftServer server, int count, int seconds) {
+        if (active != null) {
+            return false;
+        }
+        active = new LoadTestJob(executor, server, count, seconds);
+        InventoryBackupsMod.LOGGER.info("{} started a load test: {} fake players for {} seconds",
+            executor.getScoreboardName(), count, seconds);
+
+        // Everyone joins at once, like after a restart
+        long start = System.nanoTime();
+        active.players.forEach(player -> active.connectionHandler.onPlayerJoin(new PlayerEvent.PlayerLoggedInEvent(player)));
+        InventoryBackupsMod.LOGGER.info("Load test: {} joins took {}ms on the server thread",
+            count, (System.nanoTime() - start) / 1_000_000);
+        return true;
+    }
+
+    /**
+     * End the simulation early - measurements so far are still reported
+     * @return false if no run is active
+     */
+    public static boolean stop() {
+        if (active == null) {
+            return false;
+        }
+        if (active.drainStart < 0) {
+            active.drainStart = System.nanoTime();
+        }
+        return true;
+    }
+
+    public static boolean isRunning() {
+        return active != null;
+    }
+
+    /**
+     * Advance the active run (called every server tick)
+     */
+    public static void tickAll(MinecraftServer server) {
+        if (active == null) {
+            return;
+        }
+        if (active.tick(server)) {
+            active.finish();
+            active = null;
+        }
+    }
+
+    /**
+     * @return true when the simulation is over and the backup queue has drained
+     */
+    private boolean tick(MinecraftServer server) {
+        if (drainStart >= 0) {
+            return AsyncBackupExecutor.getPendingTaskCount() == 0;
+        }
+
+        double mspt = server.getAverageTickTimeNanos() / 1_000_000.0;
+        msptSum += mspt;
+        maxMspt = Math.max(maxMspt, mspt);
+        int queue = AsyncBackupExecutor.getPendingTaskCount();
+        queueSum += queue;
+        maxQueue = Math.max(maxQueue, queue);
+
+        long handlerNanos = 0;
+        for (FakePlayer player : players) {
+            if (random.nextFloat() < changeChance) {
+                changeSlot(player);
+                changes++;
+            }
+
+            long start = System.nanoTime();
+            tickHandler.onTickPlayerTick(new PlayerTickEvent.Post(player));
+
+            if (random.nextFloat() < deathChance) {
+                deadHandler.onLivingDeath(new LivingDeathEvent(player, player.damageSources().generic()));
+                deaths++;
+            }
+            if (random.nextFloat() < reconnectChance) {
+                connectionHandler.onPlayerQuit(new PlayerEvent.PlayerLoggedOutEvent(player));
+                connectionHandler.onPlayerJoin(new PlayerEvent.PlayerLoggedInEvent(player));
+                reconnects++;
+            }
+            if (random.nextFloat() < closeChance) {
+                closeHandler.onContainerClose(new PlayerContainerEvent.Close(player, ChestMenu.threeRows(0, player.getInventory())));
+                containerCloses++;
+            }
+            handlerNanos += System.nanoTime() - start;
+        }
+        handlerNanosSum += handlerNanos;
+        maxHandlerNanos = Math.max(maxHandlerNanos, handlerNanos);
+
+        if (++ticks >= durationTicks) {
+            drainStart = System.nanoTime();
+        }
+        return false;
+    }
+
+    private void finish() {
+        double drainSeconds = (System.nanoTime() - drainStart) / 1_000_000_000.0;
+        long measured = Math.max(ticks, 1);
+        Report report = new Report(players.size(), ticks, baselineMspt, msptSum / measured, maxMspt,
+            handlerNanosSum / 1_000_000.0 / measured, maxHandlerNanos / 1_000_000.0,
+            (double) queueSum / measured, maxQueue,
+            AsyncBackupExecutor.getRejectedTaskCount() - rejectedAtStart, drainSeconds,
+            BackupMetrics.getFilesWritten() - filesAtStart, BackupMetrics.getBytesWritten() - bytesAtStart,
+            changes, deaths, reconnects, containerCloses);
+
+        InventoryBackupsMod.LOGGER.info("Load test finished: {}", report);
+        if (!executor.hasDisconnected()) {
+            ChatUI.showLoadTestReport(executor, report);
+        }
+
+        Set<UUID> uuids = new HashSet<>();
+        players.forEach(player -> {
+            uuids.add(player.getUUID());
+            AnomalyDetector.reset(player.getUUID());
+            AdaptiveSavePeriod.forget(player.getUUID());
+        });
+        players.clear();
+        AsyncBackupExecutor.maintenanceAsync(() -> deleteBackups(uuids), "loadtest cleanup");
+    }
+
+    /**
+     * Remove everything the fake players left behind (backup threads)
+     */
+    private static void deleteBackups(Set<UUID> uuids) {
+        Set<String> removedBackups = new HashSet<>();
+        for (UUID uuid : uuids) {
+            for (String type : new String[]{BackupIndexer.INVENTORY, BackupIndexer.ENDERCHEST}) {
+                Path dir = Path.of("InventoryLog", type, uuid.toString());
+                String[] names = dir.toFile().list((d, name) -> name.endsWith(".json"));
+                if (names != null) {
+                    for (String name : names) {
+                        removedBackups.add(ItemSearchIndex.backupKey(type, uuid.toString(),
+                            name.substring(0, name.length() - ".json".length())));
+                    }
+                }
+                try {
+                    deleteRecursively(dir);
+                    Files.deleteIfExists(SnapshotIndex.pathOf(type, uuid));
+                } catch (IOException e) {
+                    InventoryBackupsMod.LOGGER.warn("Failed to delete load test backups in {}", dir);
+                }
+            }
+            PlayerNameHistory.forget(uuid);
+        }
+        ItemSearchIndex.prune(removedBackups);
+        InventoryBackupsMod.LOGGER.info("Load test: deleted {} backups of {} fake players", removedBackups.size(), uuids.size());
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static GameProfile profileOf(int index) {
+        UUID uuid = UUID.nameUUIDFromBytes(("invbackups-loadtest-" + index).getBytes(StandardCharsets.UTF_8));
+        return new GameProfile(uuid, "loadtest-" + index);
+    }
+
+    private static float perTick(int perHour) {
+        return (float) perHour / TICKS_PER_HOUR;
+    }
+
+    private void randomize(ServerPlayer player) {
+        fill(player, player.getInventory(), 0.7F);
+        fill(player, player.getEnderChestInventory(), 0.5F);
+        player.experienceLevel = random.nextInt(60);
+        player.experienceProgress = random.nextFloat();
+        player.totalExperience = player.experienceLevel * 20;
+    }
+
+    private void fill(ServerPlayer player, Container container, float density) {
+        container.clearContent();
+        for (int slot = 0; slot < container.getContainerSize(); slot++) {
+            if (random.nextFloat() < density) {
+                container.setItem(slot, randomStack(player, true));
+            }
+        }
+    }
+
+    private void changeSlot(ServerPlayer player) {
+        int slot = random.nextInt(player.getInventory().getContainerSize());
+        player.getInventory().setItem(slot, random.nextInt(4) == 0 ? ItemStack.EMPTY : randomStack(player, true));
+    }
+
+    /**
+     * Random item, sometimes enchanted, sometimes a shulker box full of items
+     */
+    private ItemStack randomStack(ServerPlayer player, boolean allowShulker) {
+        if (allowShulker && random.nextInt(10) == 0) {
+            List<ItemStack> contents = new ArrayList<>();
+            for (int i = 0; i < 27; i++) {
+                contents.add(randomStack(player, false));
+            }
+            ItemStack shulker = new ItemStack(Items.SHULKER_BOX);
+            shulker.set(DataComponents.CONTAINER, ItemContainerContents.fromItems(contents));
+            return shulker;
+        }
+
+        Item item = BuiltInRegistries.ITEM.getRandom(random).map(Holder::value).orElse(Items.STONE);
+        if (item == Items.AIR) {
+            item = Items.STONE;
+        }
+        ItemStack stack = new ItemStack(item, 1 + random.nextInt(item.getDefaultMaxStackSize()));
+        if (stack.isEnchantable() && random.nextInt(3) == 0) {
+            stack = EnchantmentHelper.enchantItem(random, stack, 30, player.registryAccess(), Optional.empty());
+        }
+        return stack;
+    }
+}
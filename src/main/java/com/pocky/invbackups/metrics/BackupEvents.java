@@ -0,0 +1,134 @@
+package com.pocky.invbackups.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events of the backup lifecycle
+ *
+ * Captured -> Encoded -> Queued -> Written (or Dropped), plus Cleanup and Restored. They
+ * show up under "Inventory Backups" in JDK Mission Control next to GC and tick events.
+ * When no recording is running, creating and committing an event costs next to nothing.
+ * Usage: create, begin(), do the work, then set fields and commit() if shouldCommit().
+ */
+public final class BackupEvents {
+
+    private static final String CATEGORY = "Inventory Backups";
+
+    private BackupEvents() {
+    }
+
+    @Name("invbackups.SnapshotCaptured")
+    @Label("Snapshot Captured")
+    @Description("Player inventory collected on the server thread (including Curios)")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class Captured extends Event {
+        @Label("Player")
+        public String player;
+
+        @Label("Slots")
+        public int slots;
+    }
+
+    @Name("invbackups.SnapshotEncoded")
+    @Label("Snapshot Encoded")
+    @Description("Items serialized to NBT strings on the server thread")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class Encoded extends Event {
+        @Label("Player")
+        public String player;
+
+        @Label("Type")
+        public String type;
+
+        @Label("Items")
+        public int items;
+    }
+
+    @Name("invbackups.SnapshotQueued")
+    @Label("Snapshot Queued")
+    @Description("Save handed to the backup threads")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class Queued extends Event {
+        @Label("Task")
+        public String task;
+
+        @Label("Queue Depth")
+        public int queueDepth;
+    }
+
+    @Name("invbackups.SnapshotDropped")
+    @Label("Snapshot Dropped")
+    @Description("Save skipped because the backup queue was full")
+    @Category(CATEGORY)
+    public static class Dropped extends Event {
+        @Label("Task")
+        public String task;
+
+        @Label("Queue Depth")
+        public int queueDepth;
+    }
+
+    @Name("invbackups.SnapshotWritten")
+    @Label("Snapshot Written")
+    @Description("Backup file written on a backup thread")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class Written extends Event {
+        @Label("Player")
+        public String player;
+
+        @Label("Type")
+        public String type;
+
+        @Label("Trigger")
+        public String trigger;
+
+        @Label("Backup")
+        public String backup;
+
+        @Label("Size")
+        @DataAmount
+        public long bytes;
+    }
+
+    @Name("invbackups.Cleanup")
+    @Label("Backup Cleanup")
+    @Description("Retention cleanup run")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class Cleanup extends Event {
+        @Label("Backups Deleted")
+        public int backups;
+
+        @Label("Blobs Deleted")
+        public int blobs;
+    }
+
+    @Name("invbackups.Restored")
+    @Label("Backup Restored")
+    @Description("Backup applied to a player, online or by rewriting their player file")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class Restored extends Event {
+        @Label("Player")
+        public String player;
+
+        @Label("Type")
+        public String type;
+
+        @Label("Items")
+        public int items;
+
+        @Label("Offline")
+        public boolean offline;
+    }
+}
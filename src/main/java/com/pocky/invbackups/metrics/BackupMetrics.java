@@ -0,0 +1,268 @@
+package com.pocky.invbackups.metrics;
+
+import com.pocky.invbackups.InventoryBackupsMod;
+import com.pocky.invbackups.config.BackupSettings;
+import com.pocky.invbackups.io.AsyncBackupExecutor;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counters, gauges and latency histograms of the backup subsystem
+ *
+ * Updated from the server thread and the backup threads, lock-free. Everything counts from
+ * server start. Shown by /inventory stats and logged every metricsLogIntervalMinutes.
+ */
+public class BackupMetrics {
+
+    /**
+     * Latency histogram with fixed millisecond buckets
+     */
+    public static final class Histogram {
+        // Upper bounds in ms, the last bucket is everything above
+        public static final double[] BOUNDS = {0.1, 0.25, 0.5, 1, 2.5, 5, 10, 25, 50, 100, 250, 500, 1000, 2500};
+
+        private final String name;
+        private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS.length + 1);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong sumNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private Histogram(String name) {
+            this.name = name;
+        }
+
+        public void recordNanos(long nanos) {
+            double millis = nanos / 1_000_000.0;
+            int bucket = 0;
+            while (bucket < BOUNDS.length && millis > BOUNDS[bucket]) {
+                bucket++;
+            }
+            buckets.incrementAndGet(bucket);
+            count.incrementAndGet();
+            sumNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public double getSumMillis() {
+            return sumNanos.get() / 1_000_000.0;
+        }
+
+        public double getMaxMillis() {
+            return maxNanos.get() / 1_000_000.0;
+        }
+
+        public double getAverageMillis() {
+            long n = count.get();
+            return n == 0 ? 0 : getSumMillis() / n;
+        }
+
+        /**
+         * Count per bucket, cumulative (bucket i = everything up to BOUNDS[i])
+         */
+        public long[] getCumulativeCounts() {
+            long[] cumulative = new long[buckets.length()];
+            long total = 0;
+            for (int i = 0; i < cumulative.length; i++) {
+                total += buckets.get(i);
+                cumulative[i] = total;
+            }
+            return cumulative;
+        }
+
+        /**
+         * Upper bound of the bucket holding the given quantile (0..1), max if beyond the last bound
+         */
+        public double getPercentileMillis(double quantile) {
+            long[] cumulative = getCumulativeCounts();
+            long total = cumulative[cumulative.length - 1];
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(quantile * total);
+            for (int i = 0; i < BOUNDS.length; i++) {
+                if (cumulative[i] >= rank) {
+                    return Math.min(BOUNDS[i], getMaxMillis());
+                }
+            }
+            return getMaxMillis();
+        }
+    }
+
+    /**
+     * Hits and misses of one cache
+     */
+    public static final class CacheStats {
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+
+        public long getHits() {
+            return hits.get();
+        }
+
+        public long getMisses() {
+            return misses.get();
+        }
+
+        /**
+         * Hit rate in percent, 0 when the cache was never used
+         */
+        public double getHitRate() {
+            long total = hits.get() + misses.get();
+            return total == 0 ? 0 : 100.0 * hits.get() / total;
+        }
+    }
+
+    public static final Histogram ENCODE = new Histogram("encode");             // ItemStacks -> NBT strings (server thread)
+    public static final Histogram SERIALIZE = new Histogram("serialize");       // Gson toJson
+    public static final Histogram WRITE = new Histogram("write");               // File write
+    public static final Histogram QUEUE_WAIT = new Histogram("queue_wait");     // Submitted -> started on a write thread
+    public static final Histogram SAVE_TASK = new Histogram("save_task");       // Whole task on a write thread
+    public static final Histogram READ_WAIT = new Histogram("read_wait");       // Same for the read lane
+    public static final Histogram READ_TASK = new Histogram("read_task");
+    public static final Histogram MAINTENANCE_WAIT = new Histogram("maintenance_wait");  // And the maintenance lane
+    public static final Histogram MAINTENANCE_TASK = new Histogram("maintenance_task");
+    public static final Histogram[] HISTOGRAMS = {ENCODE, SERIALIZE, WRITE, QUEUE_WAIT, SAVE_TASK,
+        READ_WAIT, READ_TASK, MAINTENANCE_WAIT, MAINTENANCE_TASK};
+
+    public static final String CACHE_PLAYER_RESOLVER = "player_resolver";
+    public static final String CACHE_BLOB_STORE = "blob_store";
+
+    // "type/trigger" -> backups written, e.g. "inventory/death"
+    private static final Map<String, AtomicLong> SNAPSHOTS = new ConcurrentHashMap<>();
+    private static final Map<String, CacheStats> CACHES = new ConcurrentHashMap<>();
+
+    private static final AtomicLong FILES_WRITTEN = new AtomicLong();
+    private static final AtomicLong BYTES_WRITTEN = new AtomicLong();
+    private static final AtomicLong UNCHANGED_SKIPPED = new AtomicLong();
+    private static final AtomicLong CLEANUP_BACKUPS = new AtomicLong();
+    private static final AtomicLong CLEANUP_BLOBS = new AtomicLong();
+    private static final AtomicLong PEAK_QUEUE = new AtomicLong();
+
+    private static final long STARTED_AT = System.currentTimeMillis();
+
+    private static long ticksSinceLog = 0;
+
+    /**
+     * A backup was written
+     * @param type "inventory" or "enderchest"
+     * @param suffix backup suffix, null or empty for periodic saves
+     */
+    public static void snapshot(String type, String suffix) {
+        String trigger = suffix == null || suffix.isEmpty() ? "auto" : suffix;
+        SNAPSHOTS.computeIfAbsent(type + "/" + trigger, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    public static void written(long bytes) {
+        FILES_WRITTEN.incrementAndGet();
+        BYTES_WRITTEN.addAndGet(bytes);
+    }
+
+    /**
+     * A periodic save was skipped because nothing changed since the last one
+     */
+    public static void unchangedSkipped() {
+        UNCHANGED_SKIPPED.incrementAndGet();
+    }
+
+    public static void cleanupDeleted(int backups, int blobs) {
+        CLEANUP_BACKUPS.addAndGet(backups);
+        CLEANUP_BLOBS.addAndGet(blobs);
+    }
+
+    /**
+     * Queue depth right after a submit - keeps the peak since server start, like the other counters
+     */
+    public static void queueDepth(int depth) {
+        PEAK_QUEUE.accumulateAndGet(depth, Math::max);
+    }
+
+    public static void cacheHit(String cache) {
+        cache(cache).hits.incrementAndGet();
+    }
+
+    public static void cacheMiss(String cache) {
+        cache(cache).misses.incrementAndGet();
+    }
+
+    private static CacheStats cache(String cache) {
+        return CACHES.computeIfAbsent(cache, k -> new CacheStats());
+    }
+
+    public static Map<String, Long> getSnapshots() {
+        Map<String, Long> snapshots = new TreeMap<>();
+        SNAPSHOTS.forEach((key, count) -> snapshots.put(key, count.get()));
+        return snapshots;
+    }
+
+    public static Map<String, CacheStats> getCaches() {
+        return new TreeMap<>(CACHES);
+    }
+
+    public static long getFilesWritten() {
+        return FILES_WRITTEN.get();
+    }
+
+    public static long getBytesWritten() {
+        return BYTES_WRITTEN.get();
+    }
+
+    public static long getUnchangedSkipped() {
+        return UNCHANGED_SKIPPED.get();
+    }
+
+    public static long getCleanupDeletedBackups() {
+        return CLEANUP_BACKUPS.get();
+    }
+
+    public static long getCleanupDeletedBlobs() {
+        return CLEANUP_BLOBS.get();
+    }
+
+    public static long getPeakQueueDepth() {
+        return PEAK_QUEUE.get();
+    }
+
+    public static long getStartedAt() {
+        return STARTED_AT;
+    }
+
+    /**
+     * Log a summary line every logIntervalMinutes (called every server tick)
+     */
+    public static void tick() {
+        long logIntervalMinutes = BackupSettings.get().metricsLogIntervalMinutes();
+        if (logIntervalMinutes <= 0) {
+            return;
+        }
+        if (++ticksSinceLog >= logIntervalMinutes * 1200L) {
+            ticksSinceLog = 0;
+            logSummary();
+        }
+    }
+
+    public static void logSummary() {
+        long snapshots = SNAPSHOTS.values().stream().mapToLong(AtomicLong::get).sum();
+        InventoryBackupsMod.LOGGER.info(String.format(Locale.ROOT,
+            "Backup stats: %d snapshots, %d skipped unchanged, %d files / %d KB written, "
+                + "encode avg %.2fms p99 %.2fms, write avg %.2fms p99 %.2fms, "
+                + "queue %d (peak since start %d), %d rejected, cleanup deleted %d",
+            snapshots, UNCHANGED_SKIPPED.get(), FILES_WRITTEN.get(), BYTES_WRITTEN.get() / 1024,
+            ENCODE.getAverageMillis(), ENCODE.getPercentileMillis(0.99),
+            WRITE.getAverageMillis(), WRITE.getPercentileMillis(0.99),
+            AsyncBackupExecutor.getPendingTaskCount(), PEAK_QUEUE.get(),
+            AsyncBackupExecutor.getRejectedTaskCount(), CLEANUP_BACKUPS.get()));
+    }
+}
@@ -0,0 +1,167 @@
+package com.pocky.invbackups.metrics;
+
+import com.pocky.invbackups.InventoryBackupsMod;
+import com.pocky.invbackups.io.AsyncBackupExecutor;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves BackupMetrics in Prometheus text format on http://<host>:<port>/metrics
+ *
+ * Off by default and bound to localhost unless configured otherwise - there is no
+ * authentication. Runs on its own daemon thread so a slow scraper never touches the
+ * server or backup threads.
+ */
+public class PrometheusExporter {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static HttpServer server;
+    private static ExecutorService executor;
+
+    /**
+     * Start serving (server start), logs and gives up if the port is taken
+     */
+    public static synchronized void start(String host, int port) {
+        if (server != null) {
+            return;
+        }
+        try {
+            server = HttpServer.create(new InetSocketAddress(host, port), 0);
+            executor = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "InventoryBackup-Metrics");
+                t.setDaemon(true);
+                return t;
+            });
+            server.setExecutor(executor);
+            server.createContext("/metrics", PrometheusExporter::handle);
+            server.start();
+            InventoryBackupsMod.LOGGER.info("Backup metrics served on http://{}:{}/metrics", host, port);
+        } catch (IOException | IllegalArgumentException e) {
+            InventoryBackupsMod.LOGGER.error("Failed to start backup metrics endpoint on " + host + ":" + port, e);
+            stop();
+        }
+    }
+
+    public static synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    /**
+     * All metrics in Prometheus text exposition format
+     */
+    public static String render() {
+        StringBuilder out = new StringBuilder(4096);
+
+        header(out, "invbackups_snapshots_total", "counter", "Backups written, by type and trigger");
+        BackupMetrics.getSnapshots().forEach((key, count) -> {
+            int slash = key.indexOf('/');
+            out.append("invbackups_snapshots_total{type=\"").append(escape(key.substring(0, slash)))
+                .append("\",trigger=\"").append(escape(key.substring(slash + 1))).append("\"} ")
+                .append(count).append('\n');
+        });
+
+        for (BackupMetrics.Histogram histogram : BackupMetrics.HISTOGRAMS) {
+            histogram(out, histogram);
+        }
+
+        simple(out, "invbackups_written_files_total", "counter", "Backup files written", BackupMetrics.getFilesWritten());
+        simple(out, "invbackups_written_bytes_total", "counter", "Bytes of backup files written", BackupMetrics.getBytesWritten());
+        simple(out, "invbackups_queue_depth", "gauge", "Save tasks waiting or running on the backup threads",
+            AsyncBackupExecutor.getPendingTaskCount());
+        simple(out, "invbackups_queue_depth_peak", "gauge", "Highest queue depth since server start",
+            BackupMetrics.getPeakQueueDepth());
+        header(out, "invbackups_lane_pending", "gauge", "Tasks waiting or running, by executor lane");
+        for (AsyncBackupExecutor.Lane lane : AsyncBackupExecutor.Lane.values()) {
+            out.append("invbackups_lane_pending{lane=\"").append(lane.id()).append("\"} ")
+                .append(lane.getPendingTaskCount()).append('\n');
+        }
+        header(out, "invbackups_lane_completed_total", "counter", "Tasks finished, by executor lane");
+        for (AsyncBackupExecutor.Lane lane : AsyncBackupExecutor.Lane.values()) {
+            out.append("invbackups_lane_completed_total{lane=\"").append(lane.id()).append("\"} ")
+                .append(lane.getCompletedTaskCount()).append('\n');
+        }
+        simple(out, "invbackups_rejected_saves_total", "counter", "Saves dropped because the queue was full",
+            AsyncBackupExecutor.getRejectedTaskCount());
+        simple(out, "invbackups_unchanged_skipped_total", "counter", "Periodic saves skipped because nothing changed",
+            BackupMetrics.getUnchangedSkipped());
+
+        header(out, "invbackups_cleanup_deleted_total", "counter", "Files deleted by retention cleanup");
+        out.append("invbackups_cleanup_deleted_total{kind=\"backup\"} ").append(BackupMetrics.getCleanupDeletedBackups()).append('\n');
+        out.append("invbackups_cleanup_deleted_total{kind=\"blob\"} ").append(BackupMetrics.getCleanupDeletedBlobs()).append('\n');
+
+        header(out, "invbackups_cache_hits_total", "counter", "Cache hits");
+        BackupMetrics.getCaches().forEach((name, stats) -> out.append("invbackups_cache_hits_total{cache=\"")
+            .append(escape(name)).append("\"} ").append(stats.getHits()).append('\n'));
+        header(out, "invbackups_cache_misses_total", "counter", "Cache misses");
+        BackupMetrics.getCaches().forEach((name, stats) -> out.append("invbackups_cache_misses_total{cache=\"")
+            .append(escape(name)).append("\"} ").append(stats.getMisses()).append('\n'));
+
+        return out.toString();
+    }
+
+    /**
+     * Histogram in seconds, the Prometheus base unit
+     */
+    private static void histogram(StringBuilder out, BackupMetrics.Histogram histogram) {
+        String name = "invbackups_" + histogram.getName() + "_seconds";
+        header(out, name, "histogram", "Latency of " + histogram.getName().replace('_', ' '));
+
+        long[] cumulative = histogram.getCumulativeCounts();
+        for (int i = 0; i < BackupMetrics.Histogram.BOUNDS.length; i++) {
+            out.append(name).append("_bucket{le=\"").append(seconds(BackupMetrics.Histogram.BOUNDS[i])).append("\"} ")
+                .append(cumulative[i]).append('\n');
+        }
+        out.append(name).append("_bucket{le=\"+Inf\"} ").append(cumulative[cumulative.length - 1]).append('\n');
+        out.append(name).append("_sum ").append(seconds(histogram.getSumMillis())).append('\n');
+        out.append(name).append("_count ").append(histogram.getCount()).append('\n');
+    }
+
+    private static void simple(StringBuilder out, String name, String type, String help, long value) {
+        header(out, name, type, help);
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static String seconds(double millis) {
+        return String.format(Locale.ROOT, "%.6f", millis / 1000.0).replaceAll("0+$", "").replaceAll("\\.$", ".0");
+    }
+
+    private static String escape(String label) {
+        return label.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,161 @@
+package com.pocky.invbackups.metrics;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Server thread time spent in backup code, per tick, aggregated into per-minute percentiles
+ *
+ * Instrumented code calls begin() and end(section, start) around its work. Calls from other
+ * threads (backup threads, benchmarks) are ignored. Sections may nest - encode runs inside
+ * the player tick - so TOTAL counts only the outermost ones. Per tick only a few array slots
+ * are updated; sorting happens once a minute. Shown by /inventory profile.
+ */
+public class TickProfiler {
+
+    /**
+     * Measured code paths
+     */
+    public enum Section {
+        TOTAL,              // Everything below, nested calls counted once
+        PLAYER_TICK,        // PlayerTickHandler.onTickPlayerTick
+        COLLECT_INVENTORY,  // InventoryUtil.collectInventory
+        COLLECT_CURIOS,     // CuriosHelper.collectCuriosItems
+        ENCODE,             // InventoryData/EnderChestData.encode
+        LIVE_SYNC           // LiveInventorySession.tickAll (live edit GUIs)
+    }
+
+    /**
+     * Percentiles of one section over one minute, in nanoseconds per tick
+     */
+    public record SectionStats(long p50, long p95, long p99, long max, long total, long calls) {
+    }
+
+    /**
+     * One minute of measurements
+     */
+    public record MinuteStats(long endedAt, int ticks, SectionStats[] sections) {
+        public SectionStats get(Section section) {
+            return sections[section.ordinal()];
+        }
+    }
+
+    private static final Section[] SECTIONS = Section.values();
+    private static final int TICKS_PER_MINUTE = 1200;
+    private static final int MINUTES_KEPT = 60;
+
+    // Server thread only
+    private static Thread serverThread;
+    private static int depth = 0;
+    private static final long[] tickNanos = new long[SECTIONS.length];
+    private static final long[][] minuteNanos = new long[SECTIONS.length][TICKS_PER_MINUTE];
+    private static final long[] minuteCalls = new long[SECTIONS.length];
+    private static int tickIndex = 0;
+
+    private static final Deque<MinuteStats> HISTORY = new ArrayDeque<>();
+
+    /**
+     * Start measuring - returns the start time, or -1 when not on the server thread
+     */
+    public static long begin() {
+        if (Thread.currentThread() != serverThread) {
+            return -1;
+        }
+        depth++;
+        return System.nanoTime();
+    }
+
+    /**
+     * Stop measuring a section started with begin() - call from a finally block
+     */
+    public static void end(Section section, long start) {
+        if (start < 0) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        tickNanos[section.ordinal()] += elapsed;
+        minuteCalls[section.ordinal()]++;
+        if (--depth == 0) {
+            tickNanos[Section.TOTAL.ordinal()] += elapsed;
+        }
+    }
+
+    /**
+     * Close the current tick (called last in every server tick)
+     */
+    public static void endTick() {
+        serverThread = Thread.currentThread();
+        depth = 0;
+
+        for (int i = 0; i < SECTIONS.length; i++) {
+            minuteNanos[i][tickIndex] = tickNanos[i];
+            tickNanos[i] = 0;
+        }
+
+        if (++tickIndex == TICKS_PER_MINUTE) {
+            closeMinute();
+        }
+    }
+
+    private static void closeMinute() {
+        SectionStats[] sections = new SectionStats[SECTIONS.length];
+        for (int i = 0; i < SECTIONS.length; i++) {
+            long[] sorted = Arrays.copyOf(minuteNanos[i], tickIndex);
+            Arrays.sort(sorted);
+            long total = 0;
+            for (long nanos : sorted) {
+                total += nanos;
+            }
+            sections[i] = new SectionStats(percentile(sorted, 0.50), percentile(sorted, 0.95),
+                percentile(sorted, 0.99), sorted.length == 0 ? 0 : sorted[sorted.length - 1], total, minuteCalls[i]);
+            minuteCalls[i] = 0;
+        }
+
+        synchronized (HISTORY) {
+            HISTORY.addFirst(new MinuteStats(System.currentTimeMillis(), tickIndex, sections));
+            while (HISTORY.size() > MINUTES_KEPT) {
+                HISTORY.removeLast();
+            }
+        }
+        tickIndex = 0;
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    /**
+     * Last complete minute, null during the first minute
+     */
+    public static MinuteStats getLastMinute() {
+        synchronized (HISTORY) {
+            return HISTORY.peekFirst();
+        }
+    }
+
+    /**
+     * Minute with the highest p99 total tick cost in the kept history, null if none
+     */
+    public static MinuteStats getPeakMinute() {
+        synchronized (HISTORY) {
+            MinuteStats peak = null;
+            for (MinuteStats minute : HISTORY) {
+                if (peak == null || minute.get(Section.TOTAL).p99() > peak.get(Section.TOTAL).p99()) {
+                    peak = minute;
+                }
+            }
+            return peak;
+        }
+    }
+
+    public static int getMinutesKept() {
+        synchronized (HISTORY) {
+            return HISTORY.size();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.pocky.invbackups.restore;
+
+import com.pocky.invbackups.data.EnderChestData;
+import com.pocky.invbackups.data.ExperienceData;
+import com.pocky.invbackups.data.InventoryData;
+import com.pocky.invbackups.history.AnomalyDetector;
+import com.pocky.invbackups.metrics.BackupEvents;
+import com.pocky.invbackups.utils.EnderChestUtil;
+import net.minecraft.server.level.ServerPlayer;
+
+/**
+ * Applies loaded backups to an online player (server thread only)
+ */
+public class BackupRestorer {
+
+    /**
+     * Replace inventory (incl. armor, offhand, Curios) and experience with the backup
+     */
+    public static void restoreInventory(ServerPlayer target, InventoryData data) {
+        BackupEvents.Restored event = new BackupEvents.Restored();
+        event.begin();
+        target.getInventory().replaceWith(data.getInventory(target));
+
+        ExperienceData expData = data.getExperienceData();
+        if (expData != null && expData.hasExperience()) {
+            expData.applyToPlayer(target);
+        }
+
+        // Items coming back from a backup are not a duplication
+        AnomalyDetector.reset(target.getUUID());
+        commit(event, target, "inventory", data.getData().size());
+    }
+
+    /**
+     * Replace ender chest contents with the backup
+     */
+    public static void restoreEnderChest(ServerPlayer target, EnderChestData data) {
+        BackupEvents.Restored event = new BackupEvents.Restored();
+        event.begin();
+        EnderChestUtil.restoreEnderChest(target, data.decode(target.level().registryAccess()));
+        AnomalyDetector.reset(target.getUUID());
+        commit(event, target, "enderchest", data.getData().size());
+    }
+
+    private static void commit(BackupEvents.Restored event, ServerPlayer target, String type, int items) {
+        if (event.shouldCommit()) {
+            event.player = target.getStringUUID();
+            event.type = type;
+            event.items = items;
+            event.commit();
+        }
+    }
+}
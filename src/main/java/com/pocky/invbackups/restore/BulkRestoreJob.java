@@ -0,0 +1,292 @@
+package com.pocky.invbackups.restore;
+
+import com.pocky.invbackups.InventoryBackupsMod;
+import com.pocky.invbackups.data.EnderChestData;
+import com.pocky.invbackups.data.InventoryData;
+import com.pocky.invbackups.index.BackupIndexer;
+import com.pocky.invbackups.io.JsonFileHandler;
+import com.pocky.invbackups.ui.ChatUI;
+import com.pocky.invbackups.utils.TranslationHelper;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Server-wide rollback to "the last backup before timestamp T"
+ *
+ * Planning and loading run on the backup threads; restoring online players runs on the
+ * server thread in small batches limited by a per-tick time budget. Offline players get a
+ * PendingRestores entry and are restored when they join.
+ */
+public class BulkRestoreJob {
+
+    // Max server thread time spent restoring per tick
+    private static final long TICK_BUDGET_NANOS = 2_000_000L;   // 2ms
+    // A prepared rollback must be confirmed within this time
+    private static final long CONFIRM_TIMEOUT_MS = 60_000L;
+
+    private static final Pattern TIMESTAMP = Pattern.compile("\\d{4}-\\d{2}-\\d{2}(-\\d{2}){0,3}");
+
+    private static final Map<UUID, Prepared> PREPARED = new ConcurrentHashMap<>();
+    private static final List<BulkRestoreJob> ACTIVE = new ArrayList<>();
+
+    /**
+     * What to restore for one player (backup names, null = nothing of that type before T)
+     */
+    public record Plan(UUID player, String inventoryBackup, String enderChestBackup) {
+    }
+
+    /**
+     * Plan waiting for the admin's confirmation
+     */
+    public record Prepared(String timestamp, List<Plan> plans, long createdAt) {
+        public boolean isExpired() {
+            return System.currentTimeMillis() - createdAt > CONFIRM_TIMEOUT_MS;
+        }
+    }
+
+    /**
+     * Plan with its backups loaded, ready to apply
+     */
+    public record Loaded(Plan plan, InventoryData inventory, EnderChestData enderChest) {
+    }
+
+    private final ServerPlayer executor;
+    private final String timestamp;
+    private final Deque<Loaded> queue;
+    private int restoredOnline = 0;
+    private int queuedOffline = 0;
+    private int failed = 0;
+
+    private BulkRestoreJob(ServerPlayer executor, String timestamp, Collection<Loaded> loaded) {
+        this.executor = executor;
+        this.timestamp = timestamp;
+        this.queue = new ArrayDeque<>(loaded);
+    }
+
+    /**
+     * Normalize "yyyy-MM-dd[-HH[-mm[-ss]]]" to the 19 character backup name prefix, null if invalid
+     */
+    public static String normalizeTimestamp(String input) {
+        if (input == null || !TIMESTAMP.matcher(input).matches()) {
+            return null;
+        }
+        StringBuilder normalized = new StringBuilder(input);
+        while (normalized.length() < 19) {
+            normalized.append("-00");
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Find the last backup before the timestamp for every player with backups (backup threads)
+     * @param players restrict to these players, null for everyone
+     */
+    public static List<Plan> plan(String timestamp, Set<UUID> players, boolean includeEnderChest) {
+        Set<UUID> candidates = new HashSet<>();
+        for (String type : new String[]{BackupIndexer.INVENTORY, BackupIndexer.ENDERCHEST}) {
+            File[] playerDirs = new File("InventoryLog/" + type + "/").listFiles(File::isDirectory);
+            if (playerDirs == null) continue;
+            for (File playerDir : playerDirs) {
+                try {
+                    UUID uuid = UUID.fromString(playerDir.getName());
+                    if (players == null || players.contains(uuid)) {
+                        candidates.add(uuid);
+                    }
+                } catch (IllegalArgumentException e) {
+                    // Not a player directory
+                }
+            }
+        }
+
+        List<Plan> plans = new ArrayList<>();
+        for (UUID uuid : candidates) {
+            String inventory = lastBefore(BackupIndexer.INVENTORY, uuid, timestamp);
+            String enderChest = includeEnderChest ? lastBefore(BackupIndexer.ENDERCHEST, uuid, timestamp) : null;
+            if (inventory != null || enderChest != null) {
+                plans.add(new Plan(uuid, inventory, enderChest));
+            }
+        }
+        return plans;
+    }
+
+    /**
+     * Load the backups of every plan (backup threads)
+     */
+    public static List<Loaded> load(List<Plan> plans) {
+        List<Loaded> loaded = new ArrayList<>();
+        for (Plan plan : plans) {
+            InventoryData inventory = plan.inventoryBackup() != null
+                ? JsonFileHandler.load("inventory/" + plan.player() + "/", plan.inventoryBackup(), InventoryData.class)
+                : null;
+            EnderChestData enderChest = plan.enderChestBackup() != null
+                ? JsonFileHandler.load("enderchest/" + plan.player() + "/", plan.enderChestBackup(), EnderChestData.class)
+                : null;
+            loaded.add(new Loaded(plan, inventory, enderChest));
+        }
+        return loaded;
+    }
+
+    public static void prepare(UUID admin, Prepared prepared) {
+        PREPARED.put(admin, prepared);
+    }
+
+    /**
+     * Take the admin's prepared rollback, null if none or expired
+     */
+    public static Prepared takePrepared(UUID admin) {
+        Prepared prepared = PREPARED.remove(admin);
+        return prepared != null && !prepared.isExpired() ? prepared : null;
+    }
+
+    /**
+     * Start applying loaded plans from the next tick on (server thread)
+     */
+    public static void start(ServerPlayer executor, String timestamp, List<Loaded> loaded) {
+        ACTIVE.add(new BulkRestoreJob(executor, timestamp, loaded));
+        InventoryBackupsMod.LOGGER.info("{} started a rollback of {} players to before {}",
+            executor.getScoreboardName(), loaded.size(), timestamp);
+    }
+
+    public static boolean isRunning() {
+        return !ACTIVE.isEmpty();
+    }
+
+    /**
+     * Advance all running jobs within the tick budget (called every server tick)
+     */
+    public static void tickAll(MinecraftServer server) {
+        if (ACTIVE.isEmpty()) {
+            return;
+        }
+
+        long deadline = System.nanoTime() + TICK_BUDGET_NANOS;
+        Iterator<BulkRestoreJob> iterator = ACTIVE.iterator();
+        while (iterator.hasNext()) {
+            BulkRestoreJob job = iterator.next();
+            if (job.tick(server, deadline)) {
+                job.finish();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * @return true when the job is done
+     */
+    private boolean tick(MinecraftServer server, long deadline) {
+        // Always make progress by at least one player per tick
+        do {
+            Loaded next = queue.poll();
+            if (next == null) {
+                return true;
+            }
+            apply(server, next);
+        } while (System.nanoTime() < deadline);
+
+        return queue.isEmpty();
+    }
+
+    private void apply(MinecraftServer server, Loaded loaded) {
+        Plan plan = loaded.plan();
+        ServerPlayer target = server.getPlayerList().getPlayer(plan.player());
+
+        if (target == null) {
+            if (plan.inventoryBackup() != null) {
+                PendingRestores.enqueue(plan.player(),
+                    new PendingRestores.Operation(PendingRestores.Kind.INVENTORY, plan.inventoryBackup(), executor));
+            }
+            if (plan.enderChestBackup() != null) {
+                PendingRestores.enqueue(plan.player(),
+                    new PendingRestores.Operation(PendingRestores.Kind.ENDERCHEST, plan.enderChestBackup(), executor));
+            }
+            queuedOffline++;
+            return;
+        }
+
+        // The backup was deleted or is corrupt since planning - restore what's there, but don't call it a success
+        boolean complete = true;
+        if (plan.inventoryBackup() != null && loaded.inventory() == null) {
+            reportMissing(target, plan.inventoryBackup());
+            complete = false;
+        }
+        if (plan.enderChestBackup() != null && loaded.enderChest() == null) {
+            reportMissing(target, plan.enderChestBackup());
+            complete = false;
+        }
+
+        try {
+            if (loaded.inventory() != null) {
+                BackupRestorer.restoreInventory(target, loaded.inventory());
+                ChatUI.showInfo(target, TranslationHelper.translate(target, "invbackups.info.inventory_restored", plan.inventoryBackup()));
+            }
+            if (loaded.enderChest() != null) {
+                BackupRestorer.restoreEnderChest(target, loaded.enderChest());
+                ChatUI.showInfo(target, TranslationHelper.translate(target, "invbackups.info.enderchest_restored", plan.enderChestBackup()));
+            }
+            if (complete) {
+                restoredOnline++;
+            } else {
+                failed++;
+            }
+        } catch (Exception e) {
+            InventoryBackupsMod.LOGGER.error("Rollback failed for " + target.getScoreboardName(), e);
+            failed++;
+        }
+    }
+
+    private void reportMissing(ServerPlayer target, String backup) {
+        InventoryBackupsMod.LOGGER.warn("Rollback of {} incomplete, backup {} could not be loaded",
+            target.getScoreboardName(), backup);
+        if (!executor.hasDisconnected()) {
+            ChatUI.showError(executor, TranslationHelper.translate(executor, "invbackups.error.rollback_backup_missing",
+                target.getScoreboardName(), backup));
+        }
+    }
+
+    private void finish() {
+        InventoryBackupsMod.LOGGER.info("Rollback to before {} finished: {} online restored, {} queued for next login, {} failed",
+            timestamp, restoredOnline, queuedOffline, failed);
+
+        if (!executor.hasDisconnected()) {
+            ChatUI.showSuccess(executor, TranslationHelper.translate(executor, "invbackups.success.rollback_finished",
+                timestamp, String.valueOf(restoredOnline), String.valueOf(queuedOffline)));
+            if (failed > 0) {
+                ChatUI.showError(executor, TranslationHelper.translate(executor, "invbackups.error.rollback_incomplete",
+                    String.valueOf(failed)));
+            }
+        }
+    }
+
+    private static String lastBefore(String type, UUID player, String timestamp) {
+        String[] names = new File("InventoryLog/" + type + "/" + player + "/")
+            .list((dir, name) -> name.endsWith(".json"));
+        if (names == null) {
+            return null;
+        }
+
+        String best = null;
+        for (String name : names) {
+            String backup = name.substring(0, name.length() - ".json".length());
+            // Backup names start with yyyy-MM-dd-HH-mm-ss, so string order is time order
+            String time = backup.length() >= 19 ? backup.substring(0, 19) : backup;
+            if (time.compareTo(timestamp) < 0 && (best == null || backup.compareTo(best) > 0)) {
+                best = backup;
+            }
+        }
+        return best;
+    }
+}
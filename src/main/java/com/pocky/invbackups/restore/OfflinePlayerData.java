@@ -0,0 +1,233 @@
+package com.pocky.invbackups.restore;
+
+import com.pocky.invbackups.InventoryBackupsMod;
+import com.pocky.invbackups.data.EnderChestData;
+import com.pocky.invbackups.data.ExperienceData;
+import com.pocky.invbackups.data.InventoryData;
+import com.pocky.invbackups.history.AnomalyDetector;
+import com.pocky.invbackups.io.AsyncBackupExecutor;
+import com.pocky.invbackups.metrics.BackupEvents;
+import com.pocky.invbackups.ui.ChatUI;
+import com.pocky.invbackups.utils.CuriosHelper;
+import com.pocky.invbackups.utils.SophisticatedBackpacksHelper;
+import com.pocky.invbackups.utils.TranslationHelper;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.NbtAccounter;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.storage.LevelResource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Restores backups to offline players by rewriting world/playerdata/<uuid>.dat
+ *
+ * The new file is prepared on the backup threads (the old one is copied to
+ * InventoryLog/playerdata/<uuid>/ first) and swapped in on the server thread, so a login
+ * can never read a half-written file. If the player joined or the file changed meanwhile,
+ * the restore is applied online or queued in PendingRestores instead. Side effects outside the
+ * file - backpack contents, Curios (stored in attachments this class doesn't touch, queued for
+ * the next login) - only happen once the new file is in place.
+ */
+public class OfflinePlayerData {
+
+    private static final Path BACKUP_DIR = Path.of("InventoryLog/playerdata");
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd-HH-mm-ss");
+
+    /**
+     * New player file written next to the original, waiting to be swapped in
+     */
+    private record Prepared(Path file, Path tmp, Path preRestoreBackup, FileTime modified, long size) {
+    }
+
+    /**
+     * Replace Inventory and XP fields of an offline player (server thread)
+     */
+    public static void restoreInventory(MinecraftServer server, ServerPlayer executor, UUID player, String playerName,
+                                        String backup, InventoryData data) {
+        PendingRestores.Operation fallback = new PendingRestores.Operation(PendingRestores.Kind.INVENTORY, backup, executor);
+
+        // Backpacks get new UUIDs in the file, their contents are only stored if the file is swapped in -
+        // the fallbacks decode the backup again
+        Map<UUID, CompoundTag> backpacks = new HashMap<>();
+        ListTag items = toSlotList(server.registryAccess(), data.decode(server.registryAccess(), backpacks));
+        ExperienceData exp = data.getExperienceData();
+        boolean hasCurios = data.getData().stream().anyMatch(item -> CuriosHelper.isCuriosSlot(item.getIndex()));
+
+        rewrite(server, executor, player, playerName, backup, fallback, items.size(), tag -> {
+            tag.put("Inventory", items);
+            if (exp != null && exp.hasExperience()) {
+                tag.putInt("XpLevel", exp.getExperienceLevel());
+                tag.putFloat("XpP", exp.getExperienceProgress());
+                tag.putInt("XpTotal", exp.getTotalExperience());
+            }
+        }, target -> BackupRestorer.restoreInventory(target, data), () -> {
+            backpacks.forEach(SophisticatedBackpacksHelper::restoreBackpackSnapshot);
+            // Curios live in NeoForge attachments we don't rewrite - those are put back at login
+            if (hasCurios) {
+                queue(executor, player, playerName, backup,
+                    new PendingRestores.Operation(PendingRestores.Kind.CURIOS, backup, executor));
+            }
+        });
+    }
+
+    /**
+     * Replace EnderItems of an offline player (server thread)
+     */
+    public static void restoreEnderChest(MinecraftServer server, ServerPlayer executor, UUID player, String playerName,
+                                         String backup, EnderChestData data) {
+        PendingRestores.Operation fallback = new PendingRestores.Operation(PendingRestores.Kind.ENDERCHEST, backup, executor);
+        ListTag items = toSlotList(server.registryAccess(), data.decode(server.registryAccess()));
+
+        rewrite(server, executor, player, playerName, backup, fallback, items.size(),
+            tag -> tag.put("EnderItems", items),
+            target -> BackupRestorer.restoreEnderChest(target, data), () -> {});
+    }
+
+    private static void rewrite(MinecraftServer server, ServerPlayer executor, UUID player, String playerName,
+                                String backup, PendingRestores.Operation fallback, int itemCount,
+                                Consumer<CompoundTag> edit, Consumer<ServerPlayer> applyOnline, Runnable committed) {
+        Path file = server.getWorldPath(LevelResource.PLAYER_DATA_DIR).resolve(player + ".dat");
+        if (!Files.exists(file)) {
+            queue(executor, player, playerName, backup, fallback);
+            return;
+        }
+
+        ChatUI.showInfo(executor, TranslationHelper.translate(executor, "invbackups.info.offline_restore_started", playerName));
+
+        BackupEvents.Restored event = new BackupEvents.Restored();
+        event.begin();
+
+        // An admin is waiting for the answer, so this must not be dropped like a periodic save
+        AsyncBackupExecutor.readAsync(() -> prepare(file, player, edit), player + "/offline-restore")
+            .thenAcceptAsync(prepared -> {
+                ServerPlayer online = server.getPlayerList().getPlayer(player);
+                if (online != null) {
+                    // Joined while we were writing - the file was already read, restore in place
+                    discard(prepared);
+                    applyOnline.accept(online);
+                    ChatUI.showSuccess(executor, TranslationHelper.translate(executor, "invbackups.success.restored", backup, playerName));
+                    return;
+                }
+
+                if (!swap(prepared)) {
+                    // The player joined and left again, our copy is stale
+                    discard(prepared);
+                    queue(executor, player, playerName, backup, fallback);
+                    return;
+                }
+
+                committed.run();
+                AnomalyDetector.reset(player);
+                if (event.shouldCommit()) {
+                    event.player = player.toString();
+                    event.type = fallback.getKind() == PendingRestores.Kind.ENDERCHEST ? "enderchest" : "inventory";
+                    event.items = itemCount;
+                    event.offline = true;
+                    event.commit();
+                }
+                InventoryBackupsMod.LOGGER.info("{} restored {} to offline player {} (previous data: {})",
+                    executor.getScoreboardName(), backup, playerName, prepared.preRestoreBackup());
+                if (!executor.hasDisconnected()) {
+                    ChatUI.showSuccess(executor, TranslationHelper.translate(executor, "invbackups.success.offline_restored",
+                        backup, playerName, prepared.preRestoreBackup().toString()));
+                }
+            }, server)
+            .exceptionally(e -> {
+                InventoryBackupsMod.LOGGER.error("Offline restore failed for " + player, e);
+                server.execute(() -> ChatUI.showError(executor,
+                    TranslationHelper.translate(executor, "invbackups.error.offline_restore_failed", playerName)));
+                return null;
+            });
+    }
+
+    /**
+     * Where the player files replaced by offline restores are kept (pruned with the backups)
+     */
+    public static Path getBackupDirectory() {
+        return BACKUP_DIR;
+    }
+
+    /**
+     * Copy the current file aside and write the edited one to a temp file (backup threads)
+     */
+    private static Prepared prepare(Path file, UUID player, Consumer<CompoundTag> edit) {
+        try {
+            FileTime modified = Files.getLastModifiedTime(file);
+            long size = Files.size(file);
+            CompoundTag tag = NbtIo.readCompressed(file, NbtAccounter.unlimitedHeap());
+
+            Path backupDir = BACKUP_DIR.resolve(player.toString());
+            Files.createDirectories(backupDir);
+            Path preRestoreBackup = backupDir.resolve(LocalDateTime.now().format(FORMATTER) + ".dat");
+            Files.copy(file, preRestoreBackup, StandardCopyOption.REPLACE_EXISTING);
+
+            edit.accept(tag);
+            Path tmp = file.resolveSibling(file.getFileName() + ".invbackups.tmp");
+            NbtIo.writeCompressed(tag, tmp);
+            return new Prepared(file, tmp, preRestoreBackup, modified, size);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to rewrite " + file, e);
+        }
+    }
+
+    /**
+     * Atomically replace the player file unless it changed since it was read (server thread)
+     */
+    private static boolean swap(Prepared prepared) {
+        try {
+            if (!Files.getLastModifiedTime(prepared.file()).equals(prepared.modified())
+                    || Files.size(prepared.file()) != prepared.size()) {
+                return false;
+            }
+            Files.move(prepared.tmp(), prepared.file(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to replace " + prepared.file(), e);
+        }
+    }
+
+    private static void discard(Prepared prepared) {
+        try {
+            Files.deleteIfExists(prepared.tmp());
+        } catch (IOException e) {
+            InventoryBackupsMod.LOGGER.warn("Failed to delete {}", prepared.tmp());
+        }
+    }
+
+    private static void queue(ServerPlayer executor, UUID player, String playerName, String backup,
+                              PendingRestores.Operation operation) {
+        PendingRestores.enqueue(player, operation);
+        if (!executor.hasDisconnected()) {
+            ChatUI.showInfo(executor, TranslationHelper.translate(executor, "invbackups.info.offline_restore_queued", backup, playerName));
+        }
+    }
+
+    /**
+     * Items in the player file format - Slot byte 0-35, 100-103 armor, 150 (= -106) offhand
+     */
+    private static ListTag toSlotList(HolderLookup.Provider registryAccess, Map<Integer, ItemStack> items) {
+        ListTag list = new ListTag();
+        items.forEach((slot, stack) -> {
+            if (stack.isEmpty() || CuriosHelper.isCuriosSlot(slot)) return;
+            CompoundTag tag = new CompoundTag();
+            tag.putByte("Slot", (byte) slot.intValue());
+            list.add(stack.save(registryAccess, tag));
+        });
+        return list;
+    }
+}
@@ -0,0 +1,293 @@
+package com.pocky.invbackups.restore;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.pocky.invbackups.InventoryBackupsMod;
+import com.pocky.invbackups.data.EnderChestData;
+import com.pocky.invbackups.data.ExperienceData;
+import com.pocky.invbackups.data.InventoryData;
+import com.pocky.invbackups.io.AsyncBackupExecutor;
+import com.pocky.invbackups.io.JsonFileHandler;
+import com.pocky.invbackups.ui.ChatUI;
+import com.pocky.invbackups.utils.CuriosHelper;
+import com.pocky.invbackups.utils.TranslationHelper;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.item.ItemStack;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Queue of restore operations for offline players, drained when they join
+ *
+ * Stored at InventoryLog/pending/<uuid>.json - survives restarts. Operations are idempotent:
+ * queuing the same backup twice is a no-op, a newer backup of the same kind replaces the
+ * older one, and every operation replaces state instead of adding to it, so re-applying
+ * after a crash gives the same result.
+ */
+public class PendingRestores {
+
+    private static final Path DIR = Path.of("InventoryLog/pending");
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    // In-memory view of the queue files, loaded lazily - the files are only written from it.
+    // An emptied queue stays until its file has been deleted (so a relog in between can't read the
+    // applied operations back), then the entry goes too. Each list is also its player's lock.
+    private static final Map<UUID, List<Operation>> QUEUES = new ConcurrentHashMap<>();
+
+    /**
+     * What an operation restores (everything but ENDERCHEST comes from an inventory backup)
+     */
+    public enum Kind {
+        INVENTORY,
+        ENDERCHEST,
+        EXPERIENCE,
+        CURIOS;
+
+        /**
+         * Whether applying this kind also restores what the other kind would
+         */
+        boolean covers(Kind other) {
+            return this == other || (this == INVENTORY && (other == EXPERIENCE || other == CURIOS));
+        }
+
+        String translationKey() {
+            return "invbackups.pending.kind." + name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * One queued restore
+     */
+    public static class Operation {
+        Kind kind;
+        String backup;
+        String requestedBy;
+        String requestedByName;
+        long requestedAt;
+
+        public Operation(Kind kind, String backup, ServerPlayer admin) {
+            this.kind = kind;
+            this.backup = backup;
+            this.requestedBy = admin.getUUID().toString();
+            this.requestedByName = admin.getScoreboardName();
+            this.requestedAt = System.currentTimeMillis();
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public String getBackup() {
+            return backup;
+        }
+    }
+
+    private static class Queue {
+        List<Operation> operations = new ArrayList<>();
+    }
+
+    /**
+     * Queue an operation for the next login (persisted asynchronously)
+     * @return false if the same operation (or one covering it) is already queued
+     */
+    public static boolean enqueue(UUID player, Operation operation) {
+        while (true) {
+            List<Operation> queue = QUEUES.computeIfAbsent(player, PendingRestores::read);
+            synchronized (queue) {
+                if (QUEUES.get(player) != queue) {
+                    continue;  // Emptied and dropped by write() meanwhile - start a new one
+                }
+                for (Operation queued : queue) {
+                    if (queued.kind.covers(operation.kind) && queued.backup.equals(operation.backup)) {
+                        return false;
+                    }
+                }
+                // The newest request of a kind wins, and drops whatever it restores anyway
+                queue.removeIf(queued -> operation.kind.covers(queued.kind));
+                queue.add(operation);
+            }
+            persist(player);
+            return true;
+        }
+    }
+
+    public static boolean hasPending(UUID player) {
+        List<Operation> queue = QUEUES.get(player);
+        if (queue == null) {
+            return Files.exists(pathOf(player));
+        }
+        synchronized (queue) {
+            return !queue.isEmpty();
+        }
+    }
+
+    /**
+     * Apply and remove the queued operations of a joining player (server thread)
+     * Must run before the join snapshot so that snapshot already shows the restored state.
+     * All backups are loaded before anything is changed, then applied in one go.
+     */
+    public static void applyOnJoin(ServerPlayer player) {
+        UUID uuid = player.getUUID();
+        List<Operation> queue = QUEUES.get(uuid);
+        if (queue == null) {
+            // Almost every login - only touch the disk for the file's existence
+            if (!Files.exists(pathOf(uuid))) {
+                return;
+            }
+            queue = QUEUES.computeIfAbsent(uuid, PendingRestores::read);
+        }
+        List<Operation> operations;
+        synchronized (queue) {
+            if (queue.isEmpty()) {
+                return;
+            }
+            operations = new ArrayList<>(queue);
+        }
+
+        Map<Operation, Object> loaded = new HashMap<>();
+        for (Operation operation : operations) {
+            Object data = operation.kind == Kind.ENDERCHEST
+                ? JsonFileHandler.load("enderchest/" + uuid + "/", operation.backup, EnderChestData.class)
+                : JsonFileHandler.load("inventory/" + uuid + "/", operation.backup, InventoryData.class);
+            if (data != null) {
+                loaded.put(operation, data);
+            } else {
+                InventoryBackupsMod.LOGGER.warn("Pending {} restore for {} skipped, backup {} is gone",
+                    operation.kind, uuid, operation.backup);
+                report(player, operation, false);
+            }
+        }
+
+        for (Operation operation : operations) {
+            Object data = loaded.get(operation);
+            if (data == null) continue;
+            try {
+                apply(player, operation, data);
+                ChatUI.showInfo(player, TranslationHelper.translate(player, "invbackups.info.pending_restored",
+                    TranslationHelper.translate(player, operation.kind.translationKey()), operation.backup));
+                report(player, operation, true);
+            } catch (Exception e) {
+                InventoryBackupsMod.LOGGER.error("Pending " + operation.kind + " restore failed for " + uuid, e);
+                report(player, operation, false);
+            }
+        }
+
+        // Only now forget them - a crash above re-applies the same backups next time
+        synchronized (queue) {
+            queue.removeAll(operations);
+        }
+        persist(uuid);
+
+        InventoryBackupsMod.LOGGER.info("Applied {} pending restores for {}", operations.size(), player.getScoreboardName());
+    }
+
+    private static void apply(ServerPlayer player, Operation operation, Object data) {
+        switch (operation.kind) {
+            case INVENTORY -> BackupRestorer.restoreInventory(player, (InventoryData) data);
+            case ENDERCHEST -> BackupRestorer.restoreEnderChest(player, (EnderChestData) data);
+            case EXPERIENCE -> {
+                ExperienceData exp = ((InventoryData) data).getExperienceData();
+                if (exp != null) {
+                    exp.applyToPlayer(player);
+                }
+            }
+            case CURIOS -> {
+                Map<Integer, ItemStack> curios = new HashMap<>();
+                ((InventoryData) data).decode(player.level().registryAccess()).forEach((slot, stack) -> {
+                    if (CuriosHelper.isCuriosSlot(slot)) {
+                        curios.put(slot, stack);
+                    }
+                });
+                CuriosHelper.restoreCuriosItems(player, curios);
+            }
+        }
+    }
+
+    /**
+     * Tell the admin who queued the operation how it went, if they are online
+     */
+    private static void report(ServerPlayer player, Operation operation, boolean success) {
+        if (player.getServer() == null || operation.requestedBy == null) {
+            return;
+        }
+        ServerPlayer admin = player.getServer().getPlayerList().getPlayer(UUID.fromString(operation.requestedBy));
+        if (admin == null) {
+            return;
+        }
+
+        String kind = TranslationHelper.translate(admin, operation.kind.translationKey());
+        if (success) {
+            ChatUI.showSuccess(admin, TranslationHelper.translate(admin, "invbackups.success.pending_applied",
+                kind, operation.backup, player.getScoreboardName()));
+        } else {
+            ChatUI.showError(admin, TranslationHelper.translate(admin, "invbackups.error.pending_failed",
+                kind, operation.backup, player.getScoreboardName()));
+        }
+    }
+
+    /**
+     * Write the current queue of a player - always the latest state, so write order doesn't matter
+     */
+    private static void persist(UUID player) {
+        AsyncBackupExecutor.submitAsync(() -> write(player), player + "/pending");
+    }
+
+    private static void write(UUID player) {
+        List<Operation> queue = QUEUES.get(player);
+        if (queue == null) {
+            return;
+        }
+        Path path = pathOf(player);
+        try {
+            synchronized (queue) {
+                if (queue.isEmpty()) {
+                    Files.deleteIfExists(path);
+                    // The file is gone, so a later read() finds nothing - no need to keep the empty queue
+                    QUEUES.remove(player, queue);
+                    return;
+                }
+                Queue file = new Queue();
+                file.operations = new ArrayList<>(queue);
+                Files.createDirectories(DIR);
+                Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+                Files.writeString(tmp, GSON.toJson(file), StandardCharsets.UTF_8);
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException e) {
+            InventoryBackupsMod.LOGGER.error("Failed to persist pending restores for " + player, e);
+        }
+    }
+
+    private static List<Operation> read(UUID player) {
+        Path path = pathOf(player);
+        List<Operation> queue = new ArrayList<>();
+        if (!Files.exists(path)) {
+            return queue;
+        }
+
+        try {
+            Queue file = GSON.fromJson(Files.readString(path, StandardCharsets.UTF_8), Queue.class);
+            if (file != null && file.operations != null) {
+                file.operations.stream().filter(op -> op.kind != null && op.backup != null).forEach(queue::add);
+            }
+        } catch (Exception e) {
+            InventoryBackupsMod.LOGGER.error("Failed to read pending restores for " + player, e);
+        }
+        return queue;
+    }
+
+    private static Path pathOf(UUID player) {
+        return DIR.resolve(player + ".json");
+    }
+}
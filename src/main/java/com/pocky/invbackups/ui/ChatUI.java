@@ -1,5 +1,15 @@
 package com.pocky.invbackups.ui;
 
+import com.pocky.invbackups.config.BackupSettings;
+import com.pocky.invbackups.events.AdaptiveSavePeriod;
+import com.pocky.invbackups.history.AnomalyDetector;
+import com.pocky.invbackups.history.ItemTimeline;
+import com.pocky.invbackups.history.SnapshotDiff;
+import com.pocky.invbackups.index.ItemSearchIndex;
+import com.pocky.invbackups.io.AsyncBackupExecutor;
+import com.pocky.invbackups.loadtest.LoadTestJob;
+import com.pocky.invbackups.metrics.BackupMetrics;
+import com.pocky.invbackups.metrics.TickProfiler;
 import com.pocky.invbackups.utils.TranslationHelper;
 import net.minecraft.ChatFormatting;
 import net.minecraft.network.chat.ClickEvent;
@@ -10,7 +20,10 @@ import net.minecraft.server.level.ServerPlayer;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
 
 public class ChatUI {
@@ -305,6 +318,11 @@ public class ChatUI {
             typeLabel = t("invbackups.type.quit");
             emoji = "⬅ ";
             color = ChatFormatting.GRAY;
+        } else if (fileName.endsWith("-preedit")) {
+            cleanName = fileName.replace("-preedit", "");
+            typeLabel = t("invbackups.type.preedit");
+            emoji = "✎ ";
+            color = ChatFormatting.AQUA;
         } else {
             cleanName = fileName;
             typeLabel = t("invbackups.type.auto");
@@ -372,6 +390,24 @@ public class ChatUI {
         player.sendSystemMessage(t("invbackups.help.copy").copy().withStyle(ChatFormatting.GOLD));
         player.sendSystemMessage(Component.literal("  ").append(t("invbackups.help.copy.desc").copy().withStyle(ChatFormatting.GRAY)).append(Component.literal("\n")));
 
+        player.sendSystemMessage(t("invbackups.help.search").copy().withStyle(ChatFormatting.GOLD));
+        player.sendSystemMessage(Component.literal("  ").append(t("invbackups.help.search.desc").copy().withStyle(ChatFormatting.GRAY)).append(Component.literal("\n")));
+
+        player.sendSystemMessage(t("invbackups.help.diff").copy().withStyle(ChatFormatting.GOLD));
+        player.sendSystemMessage(Component.literal("  ").append(t("invbackups.help.diff.desc").copy().withStyle(ChatFormatting.GRAY)).append(Component.literal("\n")));
+
+        player.sendSystemMessage(t("invbackups.help.trace").copy().withStyle(ChatFormatting.GOLD));
+        player.sendSystemMessage(Component.literal("  ").append(t("invbackups.help.trace.desc").copy().withStyle(ChatFormatting.GRAY)).append(Component.literal("\n")));
+
+        player.sendSystemMessage(t("invbackups.help.rollback").copy().withStyle(ChatFormatting.GOLD));
+        player.sendSystemMessage(Component.literal("  ").append(t("invbackups.help.rollback.desc").copy().withStyle(ChatFormatting.GRAY)).append(Component.literal("\n")));
+
+        player.sendSystemMessage(t("invbackups.help.stats").copy().withStyle(ChatFormatting.GOLD));
+        player.sendSystemMessage(Component.literal("  ").append(t("invbackups.help.stats.desc").copy().withStyle(ChatFormatting.GRAY)).append(Component.literal("\n")));
+
+        player.sendSystemMessage(t("invbackups.help.profile").copy().withStyle(ChatFormatting.GOLD));
+        player.sendSystemMessage(Component.literal("  ").append(t("invbackups.help.profile.desc").copy().withStyle(ChatFormatting.GRAY)).append(Component.literal("\n")));
+
         player.sendSystemMessage(t("invbackups.help.filters").copy().withStyle(ChatFormatting.GRAY));
         player.sendSystemMessage(Component.literal("  ").append(t("invbackups.help.filter.month").copy().withStyle(ChatFormatting.WHITE)));
         player.sendSystemMessage(Component.literal("  ").append(t("invbackups.help.filter.day").copy().withStyle(ChatFormatting.WHITE)));
@@ -380,6 +416,379 @@ public class ChatUI {
         player.sendSystemMessage(createFooter());
     }
 
+    /**
+     * Shows item search results grouped by player (newest backup per player first)
+     */
+    public static void showSearchResults(ServerPlayer executor, String term, List<ItemSearchIndex.Posting> postings,
+                                         Map<UUID, String> names) {
+        executor.sendSystemMessage(createHeader(executor, "invbackups.header.search"));
+        executor.sendSystemMessage(t(executor, "invbackups.info.search_term", term)
+                .copy().withStyle(ChatFormatting.GRAY));
+
+        if (postings.isEmpty()) {
+            executor.sendSystemMessage(Component.literal("✖ ")
+                    .withStyle(ChatFormatting.RED)
+                    .append(t(executor, "invbackups.error.search_no_results").copy().withStyle(ChatFormatting.RED)));
+            executor.sendSystemMessage(createFooter());
+            return;
+        }
+
+        // Postings come newest first, so the first one per player is the latest sighting
+        Map<UUID, List<ItemSearchIndex.Posting>> byPlayer = new LinkedHashMap<>();
+        for (ItemSearchIndex.Posting posting : postings) {
+            byPlayer.computeIfAbsent(posting.getPlayer(), k -> new ArrayList<>()).add(posting);
+        }
+
+        executor.sendSystemMessage(t(executor, "invbackups.info.search_summary",
+                String.valueOf(byPlayer.size()), String.valueOf(postings.size()))
+                .copy().withStyle(ChatFormatting.GRAY).append(Component.literal("\n")));
+
+        final int MAX_PLAYERS = 10;
+        int shown = 0;
+        for (Map.Entry<UUID, List<ItemSearchIndex.Posting>> entry : byPlayer.entrySet()) {
+            if (shown++ >= MAX_PLAYERS) break;
+
+            String name = names.getOrDefault(entry.getKey(), entry.getKey().toString());
+            List<ItemSearchIndex.Posting> playerPostings = entry.getValue();
+            ItemSearchIndex.Posting latest = playerPostings.get(0);
+            ItemSearchIndex.Posting oldest = playerPostings.get(playerPostings.size() - 1);
+            String command = ("enderchest".equals(latest.getType()) ? "/enderchest view " : "/inventory view ")
+                    + name + " " + latest.getBackup();
+
+            MutableComponent line = Component.literal(shown + ". ")
+                    .withStyle(ChatFormatting.DARK_GRAY)
+                    .append(Component.literal(name + " ").withStyle(ChatFormatting.WHITE))
+                    .append(Component.literal("×" + latest.getCount() + " ").withStyle(ChatFormatting.GOLD))
+                    .append(formatFileNameComponent(latest.getBackup()).withStyle(ChatFormatting.GRAY))
+                    .append(Component.literal(" "));
+
+            MutableComponent viewBtn = Component.literal("[👁]")
+                    .withStyle(style -> style
+                            .withColor(ChatFormatting.GREEN)
+                            .withClickEvent(new ClickEvent(ClickEvent.Action.RUN_COMMAND, command))
+                            .withHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT,
+                                    t(executor, "invbackups.button.hover.search_view", latest.getType(),
+                                            String.valueOf(latest.getSlot())).copy().withStyle(ChatFormatting.GREEN))));
+
+            line.append(viewBtn);
+            executor.sendSystemMessage(line);
+            executor.sendSystemMessage(Component.literal("   ")
+                    .append(t(executor, "invbackups.info.search_seen", String.valueOf(playerPostings.size()),
+                            oldest.getBackup()).copy().withStyle(ChatFormatting.DARK_GRAY)));
+        }
+
+        if (byPlayer.size() > MAX_PLAYERS) {
+            executor.sendSystemMessage(t(executor, "invbackups.info.search_more",
+                    String.valueOf(byPlayer.size() - MAX_PLAYERS)).copy().withStyle(ChatFormatting.GRAY));
+        }
+
+        executor.sendSystemMessage(createFooter());
+    }
+
+    /**
+     * Shows the item-flow diff between two backups: net totals first, then every change
+     */
+    public static void showDiff(ServerPlayer executor, String targetName, String from, String to,
+                                List<SnapshotDiff.Change> changes) {
+        executor.sendSystemMessage(createHeader(executor, "invbackups.header.diff"));
+        executor.sendSystemMessage(t(executor, "invbackups.info.player", targetName)
+                .copy().withStyle(ChatFormatting.GRAY));
+        executor.sendSystemMessage(t(executor, "invbackups.info.diff_range")
+                .copy().withStyle(ChatFormatting.GRAY)
+                .append(formatFileNameComponent(from).withStyle(ChatFormatting.WHITE))
+                .append(Component.literal(" → ").withStyle(ChatFormatting.DARK_GRAY))
+                .append(formatFileNameComponent(to).withStyle(ChatFormatting.WHITE)));
+
+        if (changes.isEmpty()) {
+            executor.sendSystemMessage(t(executor, "invbackups.info.diff_identical").copy().withStyle(ChatFormatting.GREEN));
+            executor.sendSystemMessage(createFooter());
+            return;
+        }
+
+        // Net totals per item - moves cancel out
+        Map<String, Integer> net = SnapshotDiff.netChanges(changes);
+        if (!net.isEmpty()) {
+            MutableComponent netLine = t(executor, "invbackups.info.diff_net").copy().withStyle(ChatFormatting.GRAY);
+            net.forEach((itemId, delta) -> netLine.append(Component.literal(" " + (delta > 0 ? "+" : "") + delta + " " + itemId)
+                    .withStyle(delta > 0 ? ChatFormatting.GREEN : ChatFormatting.RED)));
+            executor.sendSystemMessage(netLine);
+        }
+        executor.sendSystemMessage(Component.literal(""));
+
+        final int MAX_LINES = 25;
+        for (int i = 0; i < Math.min(changes.size(), MAX_LINES); i++) {
+            SnapshotDiff.Change change = changes.get(i);
+            MutableComponent line = switch (change.kind()) {
+                case ADDED -> Component.literal("+ " + change.count() + "× " + change.itemId() + " ")
+                        .withStyle(ChatFormatting.GREEN)
+                        .append(Component.literal(change.to()).withStyle(ChatFormatting.DARK_GRAY));
+                case REMOVED -> Component.literal("− " + change.count() + "× " + change.itemId() + " ")
+                        .withStyle(ChatFormatting.RED)
+                        .append(Component.literal(change.from()).withStyle(ChatFormatting.DARK_GRAY));
+                case MOVED -> Component.literal("↔ " + change.count() + "× " + change.itemId() + " ")
+                        .withStyle(ChatFormatting.YELLOW)
+                        .append(Component.literal(change.from() + " → " + change.to()).withStyle(ChatFormatting.DARK_GRAY));
+                case CHANGED -> Component.literal((change.count() > 0 ? "± +" : "± ") + change.count() + " " + change.itemId() + " ")
+                        .withStyle(ChatFormatting.AQUA)
+                        .append(Component.literal(change.to()).withStyle(ChatFormatting.DARK_GRAY));
+            };
+            executor.sendSystemMessage(line);
+        }
+
+        if (changes.size() > MAX_LINES) {
+            executor.sendSystemMessage(t(executor, "invbackups.info.diff_more",
+                    String.valueOf(changes.size() - MAX_LINES)).copy().withStyle(ChatFormatting.GRAY));
+        }
+
+        executor.sendSystemMessage(createFooter());
+    }
+
+    /**
+     * Shows the intervals in which the count of an item changed, newest first
+     */
+    public static void showTrace(ServerPlayer executor, String targetName, String itemId, ItemTimeline.Trace trace) {
+        executor.sendSystemMessage(createHeader(executor, "invbackups.header.trace"));
+        executor.sendSystemMessage(t(executor, "invbackups.info.player", targetName)
+                .copy().withStyle(ChatFormatting.GRAY));
+        executor.sendSystemMessage(t(executor, "invbackups.info.trace_current", itemId,
+                String.valueOf(trace.inventoryCount()), String.valueOf(trace.enderChestCount()))
+                .copy().withStyle(ChatFormatting.GRAY).append(Component.literal("\n")));
+
+        if (trace.transitions().isEmpty()) {
+            executor.sendSystemMessage(t(executor, "invbackups.info.trace_no_changes",
+                    String.valueOf(trace.snapshotsScanned())).copy().withStyle(ChatFormatting.YELLOW));
+            executor.sendSystemMessage(createFooter());
+            return;
+        }
+
+        for (ItemTimeline.Transition transition : trace.transitions()) {
+            boolean enderChest = "enderchest".equals(transition.type());
+            long delta = transition.countAfter() - transition.countBefore();
+
+            MutableComponent line = Component.literal(enderChest ? "[E] " : "[I] ")
+                    .withStyle(ChatFormatting.DARK_PURPLE)
+                    .append(formatFileNameComponent(transition.before()).withStyle(ChatFormatting.WHITE))
+                    .append(Component.literal(" → ").withStyle(ChatFormatting.DARK_GRAY))
+                    .append(formatFileNameComponent(transition.after()).withStyle(ChatFormatting.WHITE))
+                    .append(Component.literal("  " + transition.countBefore() + " → " + transition.countAfter()
+                            + " (" + (delta > 0 ? "+" : "") + delta + ") ")
+                            .withStyle(delta > 0 ? ChatFormatting.GREEN : ChatFormatting.RED));
+
+            // Inventory intervals can be diffed, ender chest ones are opened directly
+            String command = enderChest
+                    ? "/enderchest view " + targetName + " " + transition.before()
+                    : "/inventory diff " + targetName + " " + transition.before() + " " + transition.after();
+            line.append(Component.literal("[🔍]")
+                    .withStyle(style -> style
+                            .withColor(ChatFormatting.AQUA)
+                            .withClickEvent(new ClickEvent(ClickEvent.Action.RUN_COMMAND, command))
+                            .withHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT,
+                                    t(executor, enderChest ? "invbackups.button.hover.view" : "invbackups.button.hover.trace_diff")
+                                            .copy().withStyle(ChatFormatting.AQUA)))));
+            executor.sendSystemMessage(line);
+        }
+
+        executor.sendSystemMessage(createFooter());
+    }
+
+    /**
+     * Alerts an operator about abnormal item growth of a player
+     */
+    public static void showAnomalyAlert(ServerPlayer admin, String targetName, String backup,
+                                        List<AnomalyDetector.Finding> findings) {
+        admin.sendSystemMessage(Component.empty()
+                .append(getPrefix(admin))
+                .append(Component.literal("⚠ ").withStyle(ChatFormatting.RED))
+                .append(t(admin, "invbackups.anomaly.alert", targetName, backup).copy().withStyle(ChatFormatting.RED)));
+
+        for (AnomalyDetector.Finding finding : findings) {
+            MutableComponent line = Component.literal("  " + finding.itemId() + ": " + finding.before() + " → " + finding.after() + " ")
+                    .withStyle(ChatFormatting.GOLD);
+            line.append(Component.literal("[🔍]")
+                    .withStyle(style -> style
+                            .withColor(ChatFormatting.AQUA)
+                            .withClickEvent(new ClickEvent(ClickEvent.Action.RUN_COMMAND,
+                                    "/inventory trace " + targetName + " " + finding.itemId()))
+                            .withHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT,
+                                    t(admin, "invbackups.button.hover.anomaly_trace").copy().withStyle(ChatFormatting.AQUA)))));
+            admin.sendSystemMessage(line);
+        }
+    }
+
+    /**
+     * Shows what a server-wide rollback would do, with a confirm button
+     */
+    public static void showRollbackPreview(ServerPlayer executor, String timestamp, int players, int online) {
+        executor.sendSystemMessage(createHeader(executor, "invbackups.header.rollback"));
+        executor.sendSystemMessage(t(executor, "invbackups.info.rollback_target", timestamp)
+                .copy().withStyle(ChatFormatting.GRAY));
+        executor.sendSystemMessage(t(executor, "invbackups.info.rollback_players",
+                String.valueOf(players), String.valueOf(online), String.valueOf(players - online))
+                .copy().withStyle(ChatFormatting.GRAY));
+        executor.sendSystemMessage(t(executor, "invbackups.info.rollback_warning")
+                .copy().withStyle(ChatFormatting.RED).append(Component.literal("\n")));
+
+        MutableComponent confirmBtn = Component.literal("[✔ ")
+                .append(t(executor, "invbackups.button.confirm"))
+                .append(Component.literal("]"))
+                .withStyle(style -> style
+                        .withColor(ChatFormatting.GREEN)
+                        .withClickEvent(new ClickEvent(ClickEvent.Action.RUN_COMMAND, "/inventory rollback-all confirm"))
+                        .withHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT,
+                                t(executor, "invbackups.button.hover.rollback_confirm").copy().withStyle(ChatFormatting.GREEN))));
+        executor.sendSystemMessage(confirmBtn);
+
+        executor.sendSystemMessage(createFooter());
+    }
+
+    /**
+     * Shows the measurements of a finished load test
+     */
+    public static void showLoadTestReport(ServerPlayer executor, LoadTestJob.Report report) {
+        executor.sendSystemMessage(createHeader(executor, "invbackups.header.loadtest"));
+        executor.sendSystemMessage(t(executor, "invbackups.loadtest.players",
+                String.valueOf(report.players()), String.valueOf(report.ticks() / 20))
+                .copy().withStyle(ChatFormatting.GRAY));
+        executor.sendSystemMessage(t(executor, "invbackups.loadtest.mspt",
+                decimal(report.baselineMspt()), decimal(report.averageMspt()), decimal(report.maxMspt()))
+                .copy().withStyle(ChatFormatting.WHITE));
+        executor.sendSystemMessage(t(executor, "invbackups.loadtest.handlers",
+                decimal(report.averageHandlerMs()), decimal(report.maxHandlerMs()))
+                .copy().withStyle(ChatFormatting.WHITE));
+        executor.sendSystemMessage(t(executor, "invbackups.loadtest.queue",
+                decimal(report.averageQueue()), String.valueOf(report.maxQueue()),
+                String.valueOf(report.rejected()), decimal(report.drainSeconds()))
+                .copy().withStyle(report.rejected() > 0 ? ChatFormatting.RED : ChatFormatting.WHITE));
+        executor.sendSystemMessage(t(executor, "invbackups.loadtest.written",
+                String.valueOf(report.files()), formatBytes(report.bytes()),
+                formatBytes(report.bytes() * 20 / Math.max(report.ticks(), 1)))
+                .copy().withStyle(ChatFormatting.WHITE));
+        executor.sendSystemMessage(t(executor, "invbackups.loadtest.events",
+                String.valueOf(report.changes()), String.valueOf(report.deaths()),
+                String.valueOf(report.reconnects()), String.valueOf(report.containerCloses()))
+                .copy().withStyle(ChatFormatting.GRAY));
+        executor.sendSystemMessage(createFooter());
+    }
+
+    /**
+     * Shows backup subsystem metrics since server start
+     */
+    public static void showStats(ServerPlayer executor) {
+        executor.sendSystemMessage(createHeader(executor, "invbackups.header.stats"));
+
+        long uptimeMinutes = Math.max((System.currentTimeMillis() - BackupMetrics.getStartedAt()) / 60_000, 1);
+        executor.sendSystemMessage(t(executor, "invbackups.stats.since", String.valueOf(uptimeMinutes))
+                .copy().withStyle(ChatFormatting.GRAY));
+
+        Map<String, Long> snapshots = BackupMetrics.getSnapshots();
+        executor.sendSystemMessage(t(executor, "invbackups.stats.snapshots").copy().withStyle(ChatFormatting.GOLD));
+        if (snapshots.isEmpty()) {
+            executor.sendSystemMessage(Component.literal("  -").withStyle(ChatFormatting.GRAY));
+        }
+        snapshots.forEach((trigger, count) -> executor.sendSystemMessage(Component.literal("  " + trigger + ": ")
+                .withStyle(ChatFormatting.GRAY)
+                .append(Component.literal(count + " (" + decimal(count * 60.0 / uptimeMinutes) + "/h)")
+                        .withStyle(ChatFormatting.WHITE))));
+
+        executor.sendSystemMessage(t(executor, "invbackups.stats.latency").copy().withStyle(ChatFormatting.GOLD));
+        for (BackupMetrics.Histogram histogram : BackupMetrics.HISTOGRAMS) {
+            executor.sendSystemMessage(Component.literal("  " + histogram.getName() + ": ")
+                    .withStyle(ChatFormatting.GRAY)
+                    .append(t(executor, "invbackups.stats.histogram", String.valueOf(histogram.getCount()),
+                            decimal(histogram.getAverageMillis()), decimal(histogram.getPercentileMillis(0.5)),
+                            decimal(histogram.getPercentileMillis(0.99)), decimal(histogram.getMaxMillis()))
+                            .copy().withStyle(ChatFormatting.WHITE)));
+        }
+
+        executor.sendSystemMessage(t(executor, "invbackups.stats.written",
+                String.valueOf(BackupMetrics.getFilesWritten()), formatBytes(BackupMetrics.getBytesWritten()))
+                .copy().withStyle(ChatFormatting.WHITE));
+        executor.sendSystemMessage(t(executor, "invbackups.stats.queue",
+                String.valueOf(AsyncBackupExecutor.getPendingTaskCount()), String.valueOf(BackupMetrics.getPeakQueueDepth()),
+                String.valueOf(AsyncBackupExecutor.getRejectedTaskCount()), String.valueOf(BackupMetrics.getUnchangedSkipped()))
+                .copy().withStyle(AsyncBackupExecutor.getRejectedTaskCount() > 0 ? ChatFormatting.RED : ChatFormatting.WHITE));
+        executor.sendSystemMessage(t(executor, "invbackups.stats.lanes",
+                String.valueOf(AsyncBackupExecutor.Lane.WRITE.getPendingTaskCount()),
+                String.valueOf(AsyncBackupExecutor.Lane.READ.getPendingTaskCount()),
+                String.valueOf(AsyncBackupExecutor.Lane.MAINTENANCE.getPendingTaskCount()))
+                .copy().withStyle(ChatFormatting.WHITE));
+        long[] periods = AdaptiveSavePeriod.summary();
+        if (BackupSettings.get().adaptivePeriodEnabled() && periods != null) {
+            executor.sendSystemMessage(t(executor, "invbackups.stats.adaptive", String.valueOf(periods[1]),
+                    String.valueOf(periods[2]), String.valueOf(periods[3]), String.valueOf(periods[0]))
+                    .copy().withStyle(ChatFormatting.WHITE));
+        }
+        executor.sendSystemMessage(t(executor, "invbackups.stats.cleanup",
+                String.valueOf(BackupMetrics.getCleanupDeletedBackups()), String.valueOf(BackupMetrics.getCleanupDeletedBlobs()))
+                .copy().withStyle(ChatFormatting.WHITE));
+
+        Map<String, BackupMetrics.CacheStats> caches = BackupMetrics.getCaches();
+        if (!caches.isEmpty()) {
+            executor.sendSystemMessage(t(executor, "invbackups.stats.caches").copy().withStyle(ChatFormatting.GOLD));
+            caches.forEach((name, stats) -> executor.sendSystemMessage(Component.literal("  " + name + ": ")
+                    .withStyle(ChatFormatting.GRAY)
+                    .append(t(executor, "invbackups.stats.cache", decimal(stats.getHitRate()),
+                            String.valueOf(stats.getHits()), String.valueOf(stats.getMisses()))
+                            .copy().withStyle(ChatFormatting.WHITE))));
+        }
+
+        executor.sendSystemMessage(createFooter());
+    }
+
+    /**
+     * Shows server thread time spent in backup code, last minute and peak minute of the last hour
+     */
+    public static void showProfile(ServerPlayer executor) {
+        executor.sendSystemMessage(createHeader(executor, "invbackups.header.profile"));
+
+        TickProfiler.MinuteStats last = TickProfiler.getLastMinute();
+        if (last == null) {
+            executor.sendSystemMessage(t(executor, "invbackups.profile.collecting").copy().withStyle(ChatFormatting.GRAY));
+            executor.sendSystemMessage(createFooter());
+            return;
+        }
+
+        executor.sendSystemMessage(t(executor, "invbackups.profile.last_minute").copy().withStyle(ChatFormatting.GOLD));
+        showProfileMinute(executor, last);
+
+        TickProfiler.MinuteStats peak = TickProfiler.getPeakMinute();
+        if (peak != null && peak != last) {
+            long minutesAgo = (System.currentTimeMillis() - peak.endedAt()) / 60_000;
+            executor.sendSystemMessage(t(executor, "invbackups.profile.peak_minute",
+                    String.valueOf(minutesAgo), String.valueOf(TickProfiler.getMinutesKept()))
+                    .copy().withStyle(ChatFormatting.GOLD));
+            showProfileMinute(executor, peak);
+        }
+
+        executor.sendSystemMessage(t(executor, "invbackups.profile.legend").copy().withStyle(ChatFormatting.DARK_GRAY));
+        executor.sendSystemMessage(createFooter());
+    }
+
+    private static void showProfileMinute(ServerPlayer executor, TickProfiler.MinuteStats minute) {
+        for (TickProfiler.Section section : TickProfiler.Section.values()) {
+            TickProfiler.SectionStats stats = minute.get(section);
+            if (section != TickProfiler.Section.TOTAL && stats.calls() == 0) continue;
+
+            double averageMs = stats.total() / 1_000_000.0 / Math.max(minute.ticks(), 1);
+            executor.sendSystemMessage(Component.literal("  " + section.name().toLowerCase(Locale.ROOT) + ": ")
+                    .withStyle(section == TickProfiler.Section.TOTAL ? ChatFormatting.YELLOW : ChatFormatting.GRAY)
+                    .append(t(executor, "invbackups.profile.section", decimal(averageMs),
+                            decimal(stats.p50() / 1_000_000.0), decimal(stats.p95() / 1_000_000.0),
+                            decimal(stats.p99() / 1_000_000.0), decimal(stats.max() / 1_000_000.0))
+                            .copy().withStyle(ChatFormatting.WHITE)));
+        }
+    }
+
+    private static String decimal(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return String.format(Locale.ROOT, "%.1f KB", bytes / 1024.0);
+        return String.format(Locale.ROOT, "%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+
     // ==================== ENDER CHEST UI METHODS ====================
 
     /**
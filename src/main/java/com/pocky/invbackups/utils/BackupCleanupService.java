@@ -1,15 +1,30 @@
 package com.pocky.invbackups.utils;
 
 import com.pocky.invbackups.InventoryBackupsMod;
-import com.pocky.invbackups.config.InventoryConfig;
+import com.pocky.invbackups.config.BackupSettings;
+import com.pocky.invbackups.index.BackupIndexer;
+import com.pocky.invbackups.index.ItemSearchIndex;
+import com.pocky.invbackups.index.SnapshotIndex;
+import com.pocky.invbackups.io.BackupCodec;
+import com.pocky.invbackups.io.BlobStore;
+import com.pocky.invbackups.metrics.BackupEvents;
+import com.pocky.invbackups.metrics.BackupMetrics;
+import com.pocky.invbackups.restore.OfflinePlayerData;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class BackupCleanupService {
 
@@ -18,6 +33,8 @@ public class BackupCleanupService {
     
     private static boolean cleanupEnabled = false;
     private static boolean initializationFailed = false;
+    // Runs on the maintenance threads - a sweep still going after an hour isn't started twice
+    private static final AtomicBoolean running = new AtomicBoolean(false);
 
     /**
      * Initialize and validate cleanup service
@@ -27,7 +44,7 @@ public class BackupCleanupService {
     public static void initialize() {
         try {
             // Validate configuration access
-            int retentionDays = InventoryConfig.general.retentionDays.get();
+            int retentionDays = BackupSettings.get().retentionDays();
             
             if (retentionDays < 1) {
                 throw new IllegalStateException("retentionDays must be at least 1, got: " + retentionDays);
@@ -51,6 +68,31 @@ public class BackupCleanupService {
         }
     }
 
+    /**
+     * Hourly background work (maintenance threads): retention cleanup, dictionary training
+     * and recompression of old backups
+     */
+    public static void runMaintenance() {
+        if (!running.compareAndSet(false, true)) {
+            InventoryBackupsMod.LOGGER.warn("Skipping backup maintenance - the previous run is still going");
+            return;
+        }
+        try {
+            cleanupOldBackups();
+
+            BackupSettings settings = BackupSettings.get();
+            if (settings.compressionDictionary() && !BackupCodec.hasDictionary()
+                    && (settings.compressionEnabled() || settings.archiveAfterDays() > 0)) {
+                BackupCodec.trainDictionary();
+            }
+            if (settings.archiveAfterDays() > 0) {
+                archiveOldBackups(settings);
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+
     /**
      * Deletes backup files older than the configured retention period
      * Safe to call periodically - will not crash server if cleanup fails
@@ -68,17 +110,33 @@ public class BackupCleanupService {
             return;
         }
         
+        BackupEvents.Cleanup event = new BackupEvents.Cleanup();
+        event.begin();
         try {
-            int retentionDays = InventoryConfig.general.retentionDays.get();
+            int retentionDays = BackupSettings.get().retentionDays();
             Instant cutoffTime = Instant.now().minus(retentionDays, ChronoUnit.DAYS);
 
-            int inventoryDeleted = cleanupDirectory(INVENTORY_BACKUP_DIR, cutoffTime);
-            int enderChestDeleted = cleanupDirectory(ENDERCHEST_BACKUP_DIR, cutoffTime);
+            Set<String> removedBackups = new HashSet<>();
+            int inventoryDeleted = cleanupDirectory(INVENTORY_BACKUP_DIR, BackupIndexer.INVENTORY, cutoffTime, removedBackups);
+            int enderChestDeleted = cleanupDirectory(ENDERCHEST_BACKUP_DIR, BackupIndexer.ENDERCHEST, cutoffTime, removedBackups);
+            ItemSearchIndex.prune(removedBackups);
+
+            // Shared blobs are touched whenever a snapshot references them,
+            // so a blob older than the cutoff is no longer referenced by any kept backup
+            int blobsDeleted = cleanupBlobs(cutoffTime);
+            int playerFilesDeleted = cleanupPlayerDataCopies(cutoffTime);
 
             int totalDeleted = inventoryDeleted + enderChestDeleted;
-            if (totalDeleted > 0) {
+            BackupMetrics.cleanupDeleted(totalDeleted, blobsDeleted);
+            if (event.shouldCommit()) {
+                event.backups = totalDeleted;
+                event.blobs = blobsDeleted;
+                event.commit();
+            }
+            if (totalDeleted > 0 || blobsDeleted > 0 || playerFilesDeleted > 0) {
                 InventoryBackupsMod.LOGGER.info("Backup cleanup completed: deleted " + inventoryDeleted +
-                    " inventory backup(s) and " + enderChestDeleted + " ender chest backup(s)");
+                    " inventory backup(s), " + enderChestDeleted + " ender chest backup(s), " +
+                    blobsDeleted + " unreferenced blob(s) and " + playerFilesDeleted + " pre-restore player file(s)");
             }
         } catch (Exception e) {
             // Runtime cleanup failure should not crash server
@@ -87,7 +145,66 @@ public class BackupCleanupService {
         }
     }
 
-    private static int cleanupDirectory(Path backupDir, Instant cutoffTime) {
+    private static int cleanupBlobs(Instant cutoffTime) {
+        File[] shardDirs = BlobStore.getDirectory().toFile().listFiles(File::isDirectory);
+        if (shardDirs == null) return 0;
+
+        int deletedCount = 0;
+        for (File shardDir : shardDirs) {
+            File[] blobFiles = shardDir.listFiles(File::isFile);
+            if (blobFiles == null) continue;
+
+            for (File blobFile : blobFiles) {
+                if (blobFile.lastModified() < cutoffTime.toEpochMilli()) {
+                    if (blobFile.delete()) {
+                        deletedCount++;
+                    } else {
+                        InventoryBackupsMod.LOGGER.warn("Failed to delete blob: " + blobFile.getName());
+                    }
+                }
+            }
+
+            String[] remaining = shardDir.list();
+            if (remaining != null && remaining.length == 0) {
+                shardDir.delete();
+            }
+        }
+
+        return deletedCount;
+    }
+
+    /**
+     * Player files copied aside by offline restores - kept as long as the backups themselves
+     */
+    private static int cleanupPlayerDataCopies(Instant cutoffTime) {
+        File[] playerDirs = OfflinePlayerData.getBackupDirectory().toFile().listFiles(File::isDirectory);
+        if (playerDirs == null) return 0;
+
+        int deletedCount = 0;
+        for (File playerDir : playerDirs) {
+            File[] copies = playerDir.listFiles((dir, name) -> name.endsWith(".dat"));
+            if (copies == null) continue;
+
+            for (File copy : copies) {
+                if (copy.lastModified() < cutoffTime.toEpochMilli()) {
+                    if (copy.delete()) {
+                        deletedCount++;
+                    } else {
+                        InventoryBackupsMod.LOGGER.warn("Failed to delete pre-restore player file: " + copy);
+                    }
+                }
+            }
+
+            String[] remaining = playerDir.list();
+            if (remaining != null && remaining.length == 0) {
+                playerDir.delete();
+            }
+        }
+
+        return deletedCount;
+    }
+
+    private static int cleanupDirectory(Path backupDir, String type, Instant cutoffTime, Set<String> removedBackups) {
         File backupDirFile = backupDir.toFile();
         if (!backupDirFile.exists() || !backupDirFile.isDirectory()) {
             return 0;
@@ -104,14 +221,15 @@ public class BackupCleanupService {
             File[] backupFiles = playerDir.listFiles((dir, name) -> name.endsWith(".json"));
             if (backupFiles == null) continue;
 
+            Set<String> deletedBackups = new HashSet<>();
             for (File backupFile : backupFiles) {
                 try {
-                    BasicFileAttributes attrs = Files.readAttributes(backupFile.toPath(), BasicFileAttributes.class);
-                    Instant fileTime = attrs.creationTime().toInstant();
-
-                    if (fileTime.isBefore(cutoffTime)) {
+                    if (writtenAt(backupFile.toPath()).isBefore(cutoffTime)) {
                         if (backupFile.delete()) {
                             deletedCount++;
+                            String backupName = backupFile.getName().replace(".json", "");
+                            deletedBackups.add(backupName);
+                            removedBackups.add(ItemSearchIndex.backupKey(type, playerDir.getName(), backupName));
                             InventoryBackupsMod.LOGGER.debug("Deleted old backup: " + backupFile.getName());
                         } else {
                             errorCount++;
@@ -124,6 +242,15 @@ public class BackupCleanupService {
                 }
             }
 
+            // Keep the snapshot index in step with the backups on disk
+            if (!deletedBackups.isEmpty()) {
+                try {
+                    SnapshotIndex.prune(type, UUID.fromString(playerDir.getName()), deletedBackups);
+                } catch (IllegalArgumentException e) {
+                    // Not a player directory, nothing indexed
+                }
+            }
+
             // Delete empty player directories
             if (playerDir.listFiles() != null && playerDir.listFiles().length == 0) {
                 if (playerDir.delete()) {
@@ -138,4 +265,70 @@ public class BackupCleanupService {
 
         return deletedCount;
     }
+
+    /**
+     * Recompress backups older than archiveAfterDays with the strongest level
+     * The file keeps its name and modification time, so retention still counts from the original write.
+     */
+    private static void archiveOldBackups(BackupSettings settings) {
+        Instant cutoffTime = Instant.now().minus(settings.archiveAfterDays(), ChronoUnit.DAYS);
+        int archived = 0;
+        long saved = 0;
+
+        for (Path backupDir : new Path[]{INVENTORY_BACKUP_DIR, ENDERCHEST_BACKUP_DIR}) {
+            File[] playerDirs = backupDir.toFile().listFiles(File::isDirectory);
+            if (playerDirs == null) continue;
+
+            for (File playerDir : playerDirs) {
+                File[] backupFiles = playerDir.listFiles((dir, name) -> name.endsWith(".json"));
+                if (backupFiles == null) continue;
+
+                for (File backupFile : backupFiles) {
+                    Path path = backupFile.toPath();
+                    try {
+                        if (!writtenAt(path).isBefore(cutoffTime) || isArchived(path)) {
+                            continue;
+                        }
+                        byte[] original = Files.readAllBytes(path);
+                        byte[] recompressed = BackupCodec.encode(BackupCodec.decode(original),
+                            BackupCodec.Level.HIGH, settings.compressionDictionary());
+                        if (recompressed.length >= original.length) {
+                            continue;
+                        }
+
+                        FileTime modified = Files.getLastModifiedTime(path);
+                        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+                        Files.write(tmp, recompressed);
+                        Files.setLastModifiedTime(tmp, modified);
+                        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                        archived++;
+                        saved += original.length - recompressed.length;
+                    } catch (IOException e) {
+                        InventoryBackupsMod.LOGGER.warn("Failed to archive backup {}: {}", path, e.getMessage());
+                    }
+                }
+            }
+        }
+
+        if (archived > 0) {
+            InventoryBackupsMod.LOGGER.info("Archived {} backup(s), {} KiB saved", archived, saved / 1024);
+        }
+    }
+
+    private static boolean isArchived(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return BackupCodec.levelOf(in.readNBytes(BackupCodec.HEADER_LENGTH)) == BackupCodec.Level.HIGH;
+        }
+    }
+
+    /**
+     * When a backup was written - the earlier of creation and modification time, since
+     * archiving replaces the file (new creation time on some file systems) but keeps the modification time
+     */
+    private static Instant writtenAt(Path path) throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+        Instant created = attrs.creationTime().toInstant();
+        Instant modified = attrs.lastModifiedTime().toInstant();
+        return created.isBefore(modified) ? created : modified;
+    }
 }
@@ -0,0 +1,137 @@
+package com.pocky.invbackups.utils;
+
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.ItemStack;
+import top.theillusivec4.curios.api.CuriosApi;
+import top.theillusivec4.curios.api.type.capability.ICuriosItemHandler;
+import top.theillusivec4.curios.api.type.inventory.ICurioStacksHandler;
+import top.theillusivec4.curios.api.type.inventory.IDynamicStackHandler;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Direct (compile-time) Curios API access
+ *
+ * The Curios API is a compileOnly dependency, so this class must ONLY be touched
+ * after CuriosHelper.isCuriosLoaded() returned true - otherwise class loading fails.
+ * Slot numbering walks getCurios() in map order, same as backups always did.
+ */
+final class CuriosCompat {
+
+    private CuriosCompat() {
+    }
+
+    /**
+     * Collect copies of all non-empty Curios stacks, keyed from startIndex
+     */
+    static Map<Integer, ItemStack> collect(Player player, int startIndex) {
+        Map<Integer, ItemStack> items = new HashMap<>();
+
+        Optional<ICuriosItemHandler> inventory = CuriosApi.getCuriosInventory(player);
+        if (inventory.isEmpty()) {
+            return items;
+        }
+
+        int slotIndex = startIndex;
+        for (ICurioStacksHandler stacksHandler : inventory.get().getCurios().values()) {
+            IDynamicStackHandler stacks = stacksHandler.getStacks();
+            int slots = stacks.getSlots();
+            for (int i = 0; i < slots; i++) {
+                ItemStack stack = stacks.getStackInSlot(i);
+                if (!stack.isEmpty()) {
+                    items.put(slotIndex, stack.copy());
+                }
+                slotIndex++;
+            }
+        }
+
+        return items;
+    }
+
+    /**
+     * Early-exit emptiness check - stops at the first non-empty slot, no copies
+     */
+    static boolean isEmpty(Player player) {
+        Optional<ICuriosItemHandler> inventory = CuriosApi.getCuriosInventory(player);
+        if (inventory.isEmpty()) {
+            return true;
+        }
+
+        for (ICurioStacksHandler stacksHandler : inventory.get().getCurios().values()) {
+            IDynamicStackHandler stacks = stacksHandler.getStacks();
+            int slots = stacks.getSlots();
+            for (int i = 0; i < slots; i++) {
+                if (!stacks.getStackInSlot(i).isEmpty()) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Write items back to Curios slots; slots missing from the map are cleared
+     */
+    static void restore(Player player, Map<Integer, ItemStack> curiosItems, int startIndex) {
+        Optional<ICuriosItemHandler> inventory = CuriosApi.getCuriosInventory(player);
+        if (inventory.isEmpty()) {
+            return;
+        }
+
+        int slotIndex = startIndex;
+        for (ICurioStacksHandler stacksHandler : inventory.get().getCurios().values()) {
+            IDynamicStackHandler stacks = stacksHandler.getStacks();
+            int slots = stacks.getSlots();
+            for (int i = 0; i < slots; i++) {
+                ItemStack itemToRestore = curiosItems.get(slotIndex++);
+                stacks.setStackInSlot(i, itemToRestore != null ? itemToRestore.copy() : ItemStack.EMPTY);
+            }
+        }
+    }
+
+    /**
+     * Write one Curios slot, leaving all others as they are
+     */
+    static void setSlot(Player player, int slotIndex, ItemStack stack, int startIndex) {
+        Optional<ICuriosItemHandler> inventory = CuriosApi.getCuriosInventory(player);
+        if (inventory.isEmpty()) {
+            return;
+        }
+
+        int index = startIndex;
+        for (ICurioStacksHandler stacksHandler : inventory.get().getCurios().values()) {
+            IDynamicStackHandler stacks = stacksHandler.getStacks();
+            int slots = stacks.getSlots();
+            if (slotIndex < index + slots) {
+                stacks.setStackInSlot(slotIndex - index, stack.copy());
+                return;
+            }
+            index += slots;
+        }
+    }
+
+    /**
+     * Map slot index to slot type identifier ("ring", "necklace", ...)
+     */
+    static Map<Integer, String> slotTypes(Player player, int startIndex) {
+        Map<Integer, String> slotTypes = new HashMap<>();
+
+        Optional<ICuriosItemHandler> inventory = CuriosApi.getCuriosInventory(player);
+        if (inventory.isEmpty()) {
+            return slotTypes;
+        }
+
+        int slotIndex = startIndex;
+        for (Map.Entry<String, ICurioStacksHandler> entry : inventory.get().getCurios().entrySet()) {
+            int slots = entry.getValue().getStacks().getSlots();
+            for (int i = 0; i < slots; i++) {
+                slotTypes.put(slotIndex++, entry.getKey());
+            }
+        }
+
+        return slotTypes;
+    }
+}
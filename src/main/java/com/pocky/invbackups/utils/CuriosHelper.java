@@ -4,14 +4,15 @@ import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.ItemStack;
 import net.neoforged.fml.ModList;
 import com.pocky.invbackups.InventoryBackupsMod;
+import com.pocky.invbackups.metrics.TickProfiler;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Helper class for Curios API integration
  * Handles optional dependency safely - works with or without Curios installed
+ * Hot paths (collect/restore/isEmpty) go through CuriosCompat, which calls the API directly
  */
 public class CuriosHelper {
 
@@ -40,20 +41,22 @@ public class CuriosHelper {
      * Returns empty map if Curios is not loaded
      */
     public static Map<Integer, ItemStack> collectCuriosItems(Player player) {
-        Map<Integer, ItemStack> curiosItems = new HashMap<>();
-
         if (!isCuriosLoaded()) {
-            return curiosItems;
+            return new HashMap<>();
         }
 
+        long start = TickProfiler.begin();
         try {
-            // Use reflection to safely access Curios API
-            curiosItems = collectCuriosItemsInternal(player);
-        } catch (Exception e) {
+            Map<Integer, ItemStack> items = CuriosCompat.collect(player, CURIOS_SLOT_START);
+            InventoryBackupsMod.LOGGER.debug("Collected {} Curios items from player {}",
+                items.size(), player.getScoreboardName());
+            return items;
+        } catch (Exception | LinkageError e) {
             InventoryBackupsMod.LOGGER.error("Failed to collect Curios items", e);
+            return new HashMap<>();
+        } finally {
+            TickProfiler.end(TickProfiler.Section.COLLECT_CURIOS, start);
         }
-
-        return curiosItems;
     }
 
     /**
@@ -66,133 +69,44 @@ public class CuriosHelper {
         }
 
         try {
-            restoreCuriosItemsInternal(player, curiosItems);
-        } catch (Exception e) {
+            CuriosCompat.restore(player, curiosItems, CURIOS_SLOT_START);
+            InventoryBackupsMod.LOGGER.debug("Restored {} Curios items to player {}",
+                curiosItems.size(), player.getScoreboardName());
+        } catch (Exception | LinkageError e) {
             InventoryBackupsMod.LOGGER.error("Failed to restore Curios items", e);
         }
     }
 
     /**
-     * Check if Curios inventory is empty
+     * Replace the item in one Curios slot (index from CURIOS_SLOT_START, as in collectCuriosItems)
+     * Does nothing if Curios is not loaded or the slot doesn't exist
      */
-    public static boolean isCuriosEmpty(Player player) {
+    public static void setCuriosItem(Player player, int slotIndex, ItemStack stack) {
         if (!isCuriosLoaded()) {
-            return true;
+            return;
         }
 
         try {
-            return collectCuriosItemsInternal(player).isEmpty();
-        } catch (Exception e) {
-            InventoryBackupsMod.LOGGER.error("Failed to check if Curios is empty", e);
-            return true;
+            CuriosCompat.setSlot(player, slotIndex, stack, CURIOS_SLOT_START);
+        } catch (Exception | LinkageError e) {
+            InventoryBackupsMod.LOGGER.error("Failed to set Curios slot " + slotIndex, e);
         }
     }
 
     /**
-     * Internal method that uses reflection to call Curios API
-     * This allows the mod to work without Curios on classpath
+     * Check if Curios inventory is empty
+     * Stops at the first occupied slot instead of collecting everything
      */
-    private static Map<Integer, ItemStack> collectCuriosItemsInternal(Player player) {
-        Map<Integer, ItemStack> items = new HashMap<>();
-        AtomicInteger slotIndex = new AtomicInteger(CURIOS_SLOT_START);
-
-        try {
-            // Use reflection to access Curios API: CuriosApi.getCuriosInventory(player)
-            Class<?> curiosApiClass = Class.forName("top.theillusivec4.curios.api.CuriosApi");
-            var getCuriosInventoryMethod = curiosApiClass.getMethod("getCuriosInventory", net.minecraft.world.entity.LivingEntity.class);
-            Object optionalInventory = getCuriosInventoryMethod.invoke(null, player);
-
-            // Check if Optional is present
-            java.util.Optional<?> opt = (java.util.Optional<?>) optionalInventory;
-            if (opt.isPresent()) {
-                Object curiosInventory = opt.get();
-
-                // Get curios map: curiosInventory.getCurios()
-                var getCuriosMethod = curiosInventory.getClass().getMethod("getCurios");
-                java.util.Map<?, ?> curiosMap = (java.util.Map<?, ?>) getCuriosMethod.invoke(curiosInventory);
-
-                // Iterate through all curio slots
-                for (Object stacksHandler : curiosMap.values()) {
-                    // Get the IItemHandlerModifiable: stacksHandler.getStacks()
-                    var getStacksMethod = stacksHandler.getClass().getMethod("getStacks");
-                    Object itemHandler = getStacksMethod.invoke(stacksHandler);
-
-                    // Get slot count: itemHandler.getSlots()
-                    var getSlotsMethod = itemHandler.getClass().getMethod("getSlots");
-                    int slots = (int) getSlotsMethod.invoke(itemHandler);
-
-                    // Get items from each slot: itemHandler.getStackInSlot(i)
-                    var getStackInSlotMethod = itemHandler.getClass().getMethod("getStackInSlot", int.class);
-                    for (int i = 0; i < slots; i++) {
-                        ItemStack stack = (ItemStack) getStackInSlotMethod.invoke(itemHandler, i);
-                        if (!stack.isEmpty()) {
-                            items.put(slotIndex.getAndIncrement(), stack.copy());
-                        } else {
-                            slotIndex.getAndIncrement();
-                        }
-                    }
-                }
-            }
-
-            InventoryBackupsMod.LOGGER.debug("Collected {} Curios items from player {}",
-                items.size(), player.getScoreboardName());
-
-        } catch (ClassNotFoundException e) {
-            InventoryBackupsMod.LOGGER.debug("Curios API not found - skipping Curios items");
-        } catch (Exception e) {
-            InventoryBackupsMod.LOGGER.error("Failed to collect Curios items via reflection", e);
+    public static boolean isCuriosEmpty(Player player) {
+        if (!isCuriosLoaded()) {
+            return true;
         }
 
-        return items;
-    }
-
-    /**
-     * Internal method that uses reflection to call Curios API to restore items
-     */
-    private static void restoreCuriosItemsInternal(Player player, Map<Integer, ItemStack> curiosItems) {
-        AtomicInteger slotIndex = new AtomicInteger(CURIOS_SLOT_START);
-
         try {
-            // Use reflection to access Curios API
-            Class<?> curiosApiClass = Class.forName("top.theillusivec4.curios.api.CuriosApi");
-            var getCuriosInventoryMethod = curiosApiClass.getMethod("getCuriosInventory", net.minecraft.world.entity.LivingEntity.class);
-            Object optionalInventory = getCuriosInventoryMethod.invoke(null, player);
-
-            java.util.Optional<?> opt = (java.util.Optional<?>) optionalInventory;
-            if (opt.isPresent()) {
-                Object curiosInventory = opt.get();
-
-                var getCuriosMethod = curiosInventory.getClass().getMethod("getCurios");
-                java.util.Map<?, ?> curiosMap = (java.util.Map<?, ?>) getCuriosMethod.invoke(curiosInventory);
-
-                for (Object stacksHandler : curiosMap.values()) {
-                    var getStacksMethod = stacksHandler.getClass().getMethod("getStacks");
-                    Object itemHandler = getStacksMethod.invoke(stacksHandler);
-
-                    var getSlotsMethod = itemHandler.getClass().getMethod("getSlots");
-                    int slots = (int) getSlotsMethod.invoke(itemHandler);
-
-                    var setStackInSlotMethod = itemHandler.getClass().getMethod("setStackInSlot", int.class, ItemStack.class);
-                    for (int i = 0; i < slots; i++) {
-                        int currentIndex = slotIndex.getAndIncrement();
-                        ItemStack itemToRestore = curiosItems.get(currentIndex);
-
-                        if (itemToRestore != null) {
-                            setStackInSlotMethod.invoke(itemHandler, i, itemToRestore.copy());
-                        } else {
-                            setStackInSlotMethod.invoke(itemHandler, i, ItemStack.EMPTY);
-                        }
-                    }
-                }
-            }
-
-            InventoryBackupsMod.LOGGER.debug("Restored {} Curios items to player {}",
-                curiosItems.size(), player.getScoreboardName());
-
-        } catch (ClassNotFoundException e) {
-            InventoryBackupsMod.LOGGER.debug("Curios API not found - skipping restore");
-        } catch (Exception e) {
-            InventoryBackupsMod.LOGGER.error("Failed to restore Curios items via reflection", e);
+            return CuriosCompat.isEmpty(player);
+        } catch (Exception | LinkageError e) {
+            InventoryBackupsMod.LOGGER.error("Failed to check if Curios is empty", e);
+            return true;
         }
     }
 
@@ -215,41 +129,12 @@ public class CuriosHelper {
         }
         
         try {
-            AtomicInteger slotIndex = new AtomicInteger(CURIOS_SLOT_START);
-            
-            Class<?> curiosApiClass = Class.forName("top.theillusivec4.curios.api.CuriosApi");
-            var getCuriosInventoryMethod = curiosApiClass.getMethod("getCuriosInventory", net.minecraft.world.entity.LivingEntity.class);
-            Object optionalInventory = getCuriosInventoryMethod.invoke(null, player);
-            
-            java.util.Optional<?> opt = (java.util.Optional<?>) optionalInventory;
-            if (opt.isPresent()) {
-                Object curiosInventory = opt.get();
-                
-                var getCuriosMethod = curiosInventory.getClass().getMethod("getCurios");
-                java.util.Map<?, ?> curiosMap = (java.util.Map<?, ?>) getCuriosMethod.invoke(curiosInventory);
-                
-                // Iterate with entries to get both slot type and handler
-                for (java.util.Map.Entry<?, ?> entry : curiosMap.entrySet()) {
-                    String slotType = (String) entry.getKey(); // "ring", "necklace", etc.
-                    Object stacksHandler = entry.getValue();
-                    
-                    var getStacksMethod = stacksHandler.getClass().getMethod("getStacks");
-                    Object itemHandler = getStacksMethod.invoke(stacksHandler);
-                    
-                    var getSlotsMethod = itemHandler.getClass().getMethod("getSlots");
-                    int slots = (int) getSlotsMethod.invoke(itemHandler);
-                    
-                    // Map each slot index to its type
-                    for (int i = 0; i < slots; i++) {
-                        slotTypes.put(slotIndex.getAndIncrement(), slotType);
-                    }
-                }
-            }
-            
+            slotTypes = CuriosCompat.slotTypes(player, CURIOS_SLOT_START);
+
             InventoryBackupsMod.LOGGER.debug("Collected {} Curios slot types from player {}",
                 slotTypes.size(), player.getScoreboardName());
-            
-        } catch (Exception e) {
+
+        } catch (Exception | LinkageError e) {
             InventoryBackupsMod.LOGGER.error("Failed to collect Curios slot types", e);
         }
         
@@ -1,5 +1,7 @@
 package com.pocky.invbackups.utils;
 
+import com.pocky.invbackups.metrics.BackupEvents;
+import com.pocky.invbackups.metrics.TickProfiler;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.player.Inventory;
 import net.minecraft.world.item.ItemStack;
@@ -30,15 +32,27 @@ public class InventoryUtil {
      * Collect all inventory including Curios slots if available
      */
     public static Map<Integer, ItemStack> collectInventory(ServerPlayer player) {
-        Map<Integer, ItemStack> itemStackMap = collectInventory(player.getInventory());
+        long start = TickProfiler.begin();
+        BackupEvents.Captured event = new BackupEvents.Captured();
+        event.begin();
+        try {
+            Map<Integer, ItemStack> itemStackMap = collectInventory(player.getInventory());
+
+            // Add Curios items if Curios is loaded
+            if (CuriosHelper.isCuriosLoaded()) {
+                Map<Integer, ItemStack> curiosItems = CuriosHelper.collectCuriosItems(player);
+                itemStackMap.putAll(curiosItems);
+            }
 
-        // Add Curios items if Curios is loaded
-        if (CuriosHelper.isCuriosLoaded()) {
-            Map<Integer, ItemStack> curiosItems = CuriosHelper.collectCuriosItems(player);
-            itemStackMap.putAll(curiosItems);
+            if (event.shouldCommit()) {
+                event.player = player.getStringUUID();
+                event.slots = itemStackMap.size();
+                event.commit();
+            }
+            return itemStackMap;
+        } finally {
+            TickProfiler.end(TickProfiler.Section.COLLECT_INVENTORY, start);
         }
-
-        return itemStackMap;
     }
 
     public static boolean isEmpty(Inventory inventory) {
@@ -0,0 +1,275 @@
+package com.pocky.invbackups.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import com.mojang.authlib.GameProfile;
+import com.pocky.invbackups.InventoryBackupsMod;
+import com.pocky.invbackups.io.AsyncBackupExecutor;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.server.players.GameProfileCache;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Persisted name history for every player we have ever backed up.
+ * Lets staff resolve long-gone players that already dropped out of usercache.json.
+ *
+ * Stored at InventoryLog/names.json as UUID -> known names (most recent last).
+ */
+public class PlayerNameHistory {
+
+    private static final Path FILE = Path.of("InventoryLog/names.json");
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final Type TYPE = new TypeToken<Map<String, Entry>>() {}.getType();
+
+    // Keep only the last few names per player, older renames are not interesting
+    private static final int MAX_NAMES_PER_PLAYER = 8;
+
+    private static final Object LOCK = new Object();
+    private static Map<String, Entry> entries = null;       // uuid -> entry
+    private static Map<String, UUID> byName = null;         // lowercase name -> uuid (most recent owner)
+    private static boolean dirty = false;
+
+    /**
+     * Single player's history entry
+     */
+    public static class Entry {
+        List<String> names = new ArrayList<>();
+        long lastSeen;
+
+        public List<String> getNames() {
+            return names;
+        }
+
+        public long getLastSeen() {
+            return lastSeen;
+        }
+
+        public String getCurrentName() {
+            return names.isEmpty() ? null : names.get(names.size() - 1);
+        }
+    }
+
+    /**
+     * Record the current name of a player (called on join)
+     */
+    public static void record(ServerPlayer player) {
+        record(player.getUUID(), player.getScoreboardName());
+    }
+
+    public static void record(UUID uuid, String name) {
+        if (uuid == null || name == null || name.isEmpty()) {
+            return;
+        }
+
+        synchronized (LOCK) {
+            ensureLoaded();
+
+            Entry entry = entries.computeIfAbsent(uuid.toString(), k -> new Entry());
+            String current = entry.getCurrentName();
+            entry.lastSeen = System.currentTimeMillis();
+            dirty = true;
+
+            if (!name.equals(current)) {
+                entry.names.remove(name);
+                entry.names.add(name);
+                while (entry.names.size() > MAX_NAMES_PER_PLAYER) {
+                    entry.names.remove(0);
+                }
+                byName.put(name.toLowerCase(Locale.ROOT), uuid);
+            }
+        }
+    }
+
+    /**
+     * Drop everything known about a player (load test fake players)
+     */
+    public static void forget(UUID uuid) {
+        synchronized (LOCK) {
+            ensureLoaded();
+            Entry entry = entries.remove(uuid.toString());
+            if (entry != null) {
+                entry.names.forEach(name -> byName.remove(name.toLowerCase(Locale.ROOT), uuid));
+                dirty = true;
+            }
+        }
+    }
+
+    /**
+     * Seed history for players that already have backups but joined before history existed
+     * Uses usercache.json while it still knows them - afterwards the history keeps them resolvable
+     */
+    public static void seedFromBackups(MinecraftServer server) {
+        GameProfileCache profileCache = server.getProfileCache();
+        if (profileCache == null) {
+            return;
+        }
+
+        int seeded = 0;
+        for (String type : new String[]{"inventory", "enderchest"}) {
+            File[] playerDirs = new File("InventoryLog/" + type + "/").listFiles(File::isDirectory);
+            if (playerDirs == null) continue;
+
+            for (File playerDir : playerDirs) {
+                try {
+                    UUID uuid = UUID.fromString(playerDir.getName());
+                    if (findName(uuid).isPresent()) continue;
+
+                    Optional<GameProfile> profile = profileCache.get(uuid);
+                    if (profile.isPresent()) {
+                        record(uuid, profile.get().getName());
+                        seeded++;
+                    }
+                } catch (IllegalArgumentException e) {
+                    // Invalid UUID, skip
+                }
+            }
+        }
+
+        if (seeded > 0) {
+            InventoryBackupsMod.LOGGER.info("Seeded name history for {} players from existing backups", seeded);
+            flushAsync();
+        }
+    }
+
+    /**
+     * Find UUID by any name the player has ever had (case-insensitive)
+     */
+    public static Optional<UUID> findUuid(String name) {
+        if (name == null || name.isEmpty()) {
+            return Optional.empty();
+        }
+
+        synchronized (LOCK) {
+            ensureLoaded();
+            return Optional.ofNullable(byName.get(name.toLowerCase(Locale.ROOT)));
+        }
+    }
+
+    /**
+     * Most recent known name for a UUID
+     */
+    public static Optional<String> findName(UUID uuid) {
+        if (uuid == null) {
+            return Optional.empty();
+        }
+
+        synchronized (LOCK) {
+            ensureLoaded();
+            Entry entry = entries.get(uuid.toString());
+            return entry != null ? Optional.ofNullable(entry.getCurrentName()) : Optional.empty();
+        }
+    }
+
+    /**
+     * All names recorded for a UUID, oldest first
+     */
+    public static List<String> getNames(UUID uuid) {
+        synchronized (LOCK) {
+            ensureLoaded();
+            Entry entry = entries.get(uuid.toString());
+            return entry != null ? new ArrayList<>(entry.names) : new ArrayList<>();
+        }
+    }
+
+    /**
+     * Write pending changes asynchronously
+     */
+    public static void flushAsync() {
+        String json = snapshotIfDirty();
+        if (json == null) {
+            return;
+        }
+        AsyncBackupExecutor.saveAsync(() -> write(json), "names.json");
+    }
+
+    /**
+     * Write pending changes on the calling thread (used on server stop)
+     */
+    public static void flush() {
+        String json = snapshotIfDirty();
+        if (json != null) {
+            write(json);
+        }
+    }
+
+    private static String snapshotIfDirty() {
+        synchronized (LOCK) {
+            if (!dirty || entries == null) {
+                return null;
+            }
+            dirty = false;
+            return GSON.toJson(entries, TYPE);
+        }
+    }
+
+    private static void write(String json) {
+        try {
+            Files.createDirectories(FILE.getParent());
+            Path tmp = FILE.resolveSibling(FILE.getFileName() + ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                writer.write(json);
+            }
+            Files.move(tmp, FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            InventoryBackupsMod.LOGGER.error("Failed to write player name history", e);
+        }
+    }
+
+    private static void ensureLoaded() {
+        if (entries != null) {
+            return;
+        }
+
+        entries = new HashMap<>();
+        byName = new HashMap<>();
+
+        if (Files.exists(FILE)) {
+            try (BufferedReader reader = Files.newBufferedReader(FILE, StandardCharsets.UTF_8)) {
+                Map<String, Entry> loaded = GSON.fromJson(reader, TYPE);
+                if (loaded != null) {
+                    entries.putAll(loaded);
+                }
+            } catch (Exception e) {
+                InventoryBackupsMod.LOGGER.error("Failed to load player name history, starting fresh", e);
+            }
+        }
+
+        // Rebuild name index - the most recently seen owner of a name wins
+        Map<String, Long> ownerSeen = new HashMap<>();
+        entries.forEach((uuidStr, entry) -> {
+            try {
+                UUID uuid = UUID.fromString(uuidStr);
+                for (String name : entry.names) {
+                    String key = name.toLowerCase(Locale.ROOT);
+                    Long seen = ownerSeen.get(key);
+                    if (seen == null || entry.lastSeen > seen) {
+                        ownerSeen.put(key, entry.lastSeen);
+                        byName.put(key, uuid);
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                // Invalid UUID key, skip
+            }
+        });
+
+        InventoryBackupsMod.LOGGER.debug("Loaded name history for {} players", entries.size());
+    }
+}
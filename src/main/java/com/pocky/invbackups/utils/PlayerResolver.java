@@ -2,10 +2,15 @@ package com.pocky.invbackups.utils;
 
 import com.mojang.authlib.GameProfile;
 import com.pocky.invbackups.InventoryBackupsMod;
+import com.pocky.invbackups.metrics.BackupMetrics;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.server.players.GameProfileCache;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -14,6 +19,33 @@ import java.util.UUID;
  */
 public class PlayerResolver {
 
+    // Offline lookups are cached - commands and tab completion resolve the same names over and over
+    private static final int CACHE_MAX_ENTRIES = 1024;
+    private static final long POSITIVE_TTL_MS = 10 * 60 * 1000L;  // 10 minutes
+    private static final long NEGATIVE_TTL_MS = 60 * 1000L;       // 1 minute
+
+    private static final Map<String, CacheEntry> CACHE = Collections.synchronizedMap(
+        new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                return size() > CACHE_MAX_ENTRIES;
+            }
+        }
+    );
+
+    /**
+     * Cached offline lookup result (uuid == null means "not found")
+     */
+    private record CacheEntry(UUID uuid, String name, long expiresAt) {
+        boolean isNegative() {
+            return uuid == null;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+
     /**
      * Represents a resolved player (online or offline)
      */
@@ -62,6 +94,12 @@ public class PlayerResolver {
             ));
         }
 
+        String key = "name:" + playerName.toLowerCase(Locale.ROOT);
+        Optional<ResolvedPlayer> cached = getCached(key);
+        if (cached != null) {
+            return cached;
+        }
+
         // If not online, try to find in profile cache
         GameProfileCache profileCache = server.getProfileCache();
         if (profileCache != null) {
@@ -70,15 +108,21 @@ public class PlayerResolver {
                 GameProfile profile = profileOpt.get();
                 InventoryBackupsMod.LOGGER.debug("Found offline player {} with UUID {}",
                     profile.getName(), profile.getId());
-                return Optional.of(new ResolvedPlayer(
-                        profile.getId(),
-                        profile.getName(),
-                        null
-                ));
+                return putCached(key, profile.getId(), profile.getName());
             }
         }
 
-        InventoryBackupsMod.LOGGER.warn("Could not resolve player: {}", playerName);
+        // Fall back to our own name history (players missing from usercache.json)
+        Optional<UUID> historyUuid = PlayerNameHistory.findUuid(playerName);
+        if (historyUuid.isPresent()) {
+            String name = PlayerNameHistory.findName(historyUuid.get()).orElse(playerName);
+            InventoryBackupsMod.LOGGER.debug("Resolved offline player {} from name history: {}",
+                playerName, historyUuid.get());
+            return putCached(key, historyUuid.get(), name);
+        }
+
+        InventoryBackupsMod.LOGGER.debug("Could not resolve player: {}", playerName);
+        putNegative(key);
         return Optional.empty();
     }
 
@@ -99,21 +143,76 @@ public class PlayerResolver {
             ));
         }
 
+        String key = "uuid:" + uuid;
+        Optional<ResolvedPlayer> cached = getCached(key);
+        if (cached != null) {
+            return cached;
+        }
+
         // If not online, try to find in profile cache
         GameProfileCache profileCache = server.getProfileCache();
         if (profileCache != null) {
             Optional<GameProfile> profileOpt = profileCache.get(uuid);
             if (profileOpt.isPresent()) {
                 GameProfile profile = profileOpt.get();
-                return Optional.of(new ResolvedPlayer(
-                        profile.getId(),
-                        profile.getName(),
-                        null
-                ));
+                return putCached(key, profile.getId(), profile.getName());
             }
         }
 
-        InventoryBackupsMod.LOGGER.warn("Could not resolve player with UUID: {}", uuid);
+        // Fall back to our own name history
+        Optional<String> historyName = PlayerNameHistory.findName(uuid);
+        if (historyName.isPresent()) {
+            return putCached(key, uuid, historyName.get());
+        }
+
+        InventoryBackupsMod.LOGGER.debug("Could not resolve player with UUID: {}", uuid);
+        putNegative(key);
         return Optional.empty();
     }
+
+    /**
+     * Drop cached lookups for a player (called when they join, since names can change)
+     */
+    public static void invalidate(UUID uuid, String name) {
+        CACHE.remove("uuid:" + uuid);
+        if (name != null) {
+            CACHE.remove("name:" + name.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * Clear all cached lookups
+     */
+    public static void clearCache() {
+        CACHE.clear();
+    }
+
+    /**
+     * @return null on cache miss, otherwise the cached (possibly empty) result
+     */
+    private static Optional<ResolvedPlayer> getCached(String key) {
+        CacheEntry entry = CACHE.get(key);
+        if (entry == null) {
+            BackupMetrics.cacheMiss(BackupMetrics.CACHE_PLAYER_RESOLVER);
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            CACHE.remove(key);
+            BackupMetrics.cacheMiss(BackupMetrics.CACHE_PLAYER_RESOLVER);
+            return null;
+        }
+        BackupMetrics.cacheHit(BackupMetrics.CACHE_PLAYER_RESOLVER);
+        return entry.isNegative()
+                ? Optional.empty()
+                : Optional.of(new ResolvedPlayer(entry.uuid(), entry.name(), null));
+    }
+
+    private static Optional<ResolvedPlayer> putCached(String key, UUID uuid, String name) {
+        CACHE.put(key, new CacheEntry(uuid, name, System.currentTimeMillis() + POSITIVE_TTL_MS));
+        return Optional.of(new ResolvedPlayer(uuid, name, null));
+    }
+
+    private static void putNegative(String key) {
+        CACHE.put(key, new CacheEntry(null, null, System.currentTimeMillis() + NEGATIVE_TTL_MS));
+    }
 }
@@ -10,6 +10,9 @@ import net.neoforged.fml.ModList;
 import com.pocky.invbackups.InventoryBackupsMod;
 
 import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -110,26 +113,62 @@ public class SophisticatedBackpacksHelper {
      * Returns null if backpack has no UUID or mod is not loaded
      */
     public static CompoundTag getBackpackSnapshot(UUID backpackUuid) {
+        CompoundTag contents = getBackpackContents(backpackUuid);
+
+        // Create a deep copy (snapshot) to preserve the state
+        return contents != null ? contents.copy() : null;
+    }
+
+    /**
+     * Capture copies of the contents of all backpacks in a batch of stacks (backpack UUID -> contents)
+     * Only the copy happens here, on the server thread - stringifying and deduplication happen when
+     * the snapshot is written (InventoryData.storePendingBackpacks, BlobStore)
+     */
+    public static Map<String, CompoundTag> captureBackpackSnapshots(Collection<ItemStack> stacks) {
+        Map<String, CompoundTag> captured = new HashMap<>();
+        if (!isBackpacksLoaded()) {
+            return captured;
+        }
+
+        for (ItemStack stack : stacks) {
+            if (!isSophisticatedBackpack(stack)) continue;
+
+            UUID backpackUuid = getBackpackUuid(stack);
+            if (backpackUuid == null) continue;
+
+            String key = backpackUuid.toString();
+            if (captured.containsKey(key)) continue;
+
+            CompoundTag contents = getBackpackContents(backpackUuid);
+            if (contents == null || contents.isEmpty()) continue;
+
+            captured.put(key, contents.copy());
+        }
+
+        return captured;
+    }
+
+    /**
+     * Live backpack contents from BackpackStorage (NOT a copy - do not keep or modify)
+     */
+    private static CompoundTag getBackpackContents(UUID backpackUuid) {
         if (!isBackpacksLoaded() || backpackUuid == null) {
             return null;
         }
-        
+
         try {
             Object storage = getBackpackStorage();
             if (storage == null) {
                 return null;
             }
-            
+
             if (getContentsMethod == null) {
                 getContentsMethod = backpackStorageClass.getDeclaredMethod(
                     "getOrCreateBackpackContents", UUID.class
                 );
             }
-            
-            CompoundTag contents = (CompoundTag) getContentsMethod.invoke(storage, backpackUuid);
-            
-            // Create a deep copy (snapshot) to preserve the state
-            return contents != null ? contents.copy() : null;
+
+            return (CompoundTag) getContentsMethod.invoke(storage, backpackUuid);
         } catch (Exception e) {
             InventoryBackupsMod.LOGGER.error("Failed to get backpack snapshot for UUID: " + backpackUuid, e);
             return null;